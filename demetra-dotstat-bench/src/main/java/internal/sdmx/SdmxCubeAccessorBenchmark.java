@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeAccessor;
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.IteratorWithIO;
+import ec.tstoolkit.timeseries.TsAggregationType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static sdmxdl.DatabaseRef.NO_DATABASE;
+
+/**
+ * Measures full traversals of a cube without any cache, as done when
+ * browsing a provider.
+ *
+ * @author Philippe Charles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SdmxCubeAccessorBenchmark {
+
+    @Param
+    public SdmxSample sample;
+
+    private CubeAccessor accessor;
+
+    @Setup
+    public void setup() throws IOException {
+        accessor = SdmxCubeAccessor.of(sample::connect, NO_DATABASE, sample.getFlowRef(), Collections.emptyList(), null, TsAggregationType.None, sample.name(), false);
+    }
+
+    @Benchmark
+    public void getAllSeriesWithData(Blackhole blackhole) throws IOException {
+        try (TsCursor<CubeId> cursor = accessor.getAllSeriesWithData(accessor.getRoot())) {
+            while (cursor.nextSeries()) {
+                blackhole.consume(cursor.getSeriesId());
+                blackhole.consume(cursor.getSeriesData());
+            }
+        }
+    }
+
+    @Benchmark
+    public void getChildrenTree(Blackhole blackhole) throws IOException {
+        visit(accessor.getRoot(), blackhole);
+    }
+
+    private void visit(CubeId node, Blackhole blackhole) throws IOException {
+        if (node.isSeries()) {
+            blackhole.consume(accessor.getDisplayNodeName(node));
+            return;
+        }
+        try (IteratorWithIO<CubeId> children = accessor.getChildren(node)) {
+            while (children.hasNext()) {
+                visit(children.next(), blackhole);
+            }
+        }
+    }
+}
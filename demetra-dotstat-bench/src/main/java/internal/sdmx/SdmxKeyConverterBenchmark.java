@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sdmxdl.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static sdmxdl.DatabaseRef.NO_DATABASE;
+
+/**
+ * Measures the conversion between SDMX keys and cube ids in
+ * {@link SdmxCubeAccessor}. Each benchmark converts every series of the
+ * sample.
+ *
+ * @author Philippe Charles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SdmxKeyConverterBenchmark {
+
+    @Param
+    public SdmxSample sample;
+
+    private Structure dsd;
+    private CubeId root;
+    private List<Key> keys;
+    private List<CubeId> ids;
+
+    @Setup
+    public void setup() throws IOException {
+        try (Connection conn = sample.connect()) {
+            dsd = conn.getMeta(NO_DATABASE, sample.getFlowRef()).getStructure();
+            root = CubeId.root(dsd.getDimensions().stream().map(Dimension::getId).collect(Collectors.toList()));
+            try (Stream<Series> stream = conn.getDataStream(NO_DATABASE, sample.getFlowRef(), Query.builder().key(Key.ALL).detail(Detail.NO_DATA).build())) {
+                keys = stream.map(Series::getKey).collect(Collectors.toList());
+            }
+        }
+        SdmxCubeAccessor.KeyConverter converter = SdmxCubeAccessor.KeyConverter.of(dsd, root);
+        ids = keys.stream().map(converter::fromKey).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public SdmxCubeAccessor.KeyConverter newKeyConverter() {
+        return SdmxCubeAccessor.KeyConverter.of(dsd, root);
+    }
+
+    @Benchmark
+    public void getKey(Blackhole blackhole) {
+        for (CubeId id : ids) {
+            blackhole.consume(SdmxCubeAccessor.getKey(dsd, id));
+        }
+    }
+
+    @Benchmark
+    public void getId(Blackhole blackhole) {
+        SdmxCubeAccessor.KeyConverter converter = SdmxCubeAccessor.KeyConverter.of(dsd, root);
+        for (Key key : keys) {
+            blackhole.consume(converter.fromKey(key));
+        }
+    }
+}
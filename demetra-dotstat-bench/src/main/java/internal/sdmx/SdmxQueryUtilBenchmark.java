@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cursor.TsCursor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import sdmxdl.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static sdmxdl.DatabaseRef.NO_DATABASE;
+
+/**
+ * Measures the conversion of SDMX series to time series in
+ * {@link SdmxQueryUtil}. The {@code getDataStream} benchmark is the baseline
+ * cost of reading the series from the repository.
+ *
+ * @author Philippe Charles
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SdmxQueryUtilBenchmark {
+
+    @Param
+    public SdmxSample sample;
+
+    private Connection conn;
+
+    @Setup
+    public void setup() throws IOException {
+        conn = sample.connect();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        conn.close();
+    }
+
+    @Benchmark
+    public void getDataStream(Blackhole blackhole) throws IOException {
+        try (Stream<Series> stream = conn.getDataStream(NO_DATABASE, sample.getFlowRef(), Query.builder().key(Key.ALL).detail(Detail.FULL).build())) {
+            stream.forEach(blackhole::consume);
+        }
+    }
+
+    @Benchmark
+    public void getAllSeries(Blackhole blackhole) throws IOException {
+        try (TsCursor<Key> cursor = SdmxQueryUtil.getAllSeries(conn, NO_DATABASE, sample.getFlowRef(), Key.ALL, SdmxQueryUtil.NO_LABEL)) {
+            while (cursor.nextSeries()) {
+                blackhole.consume(cursor.getSeriesId());
+                blackhole.consume(cursor.getSeriesLabel());
+            }
+        }
+    }
+
+    @Benchmark
+    public void getAllSeriesWithData(Blackhole blackhole) throws IOException {
+        try (TsCursor<Key> cursor = SdmxQueryUtil.getAllSeriesWithData(conn, NO_DATABASE, sample.getFlowRef(), Key.ALL, SdmxQueryUtil.NO_LABEL)) {
+            while (cursor.nextSeries()) {
+                blackhole.consume(cursor.getSeriesId());
+                blackhole.consume(cursor.getSeriesData());
+            }
+        }
+    }
+}
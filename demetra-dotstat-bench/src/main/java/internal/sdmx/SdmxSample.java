@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import sdmxdl.Connection;
+import sdmxdl.DataRepository;
+import sdmxdl.Feature;
+import sdmxdl.FlowRef;
+import sdmxdl.Languages;
+import sdmxdl.web.WebSource;
+import sdmxdl.web.spi.WebContext;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+import test.samples.FacadeResource;
+import tests.sdmxdl.web.spi.MockedDriver;
+
+import java.io.IOException;
+import java.util.EnumSet;
+
+/**
+ * In-memory repositories used as benchmark inputs.
+ *
+ * @author Philippe Charles
+ */
+@lombok.AllArgsConstructor
+public enum SdmxSample {
+
+    ECB(FacadeResource::ecb, FacadeResource.ECB_FLOW_REF),
+    NBB(FacadeResource::nbb, FacadeResource.NBB_FLOW_REF);
+
+    private final IOSupplier<DataRepository> repo;
+
+    @lombok.Getter
+    private final FlowRef flowRef;
+
+    public Connection connect() throws IOException {
+        MockedDriver driver = MockedDriver.builder().repo(repo.getWithIO(), EnumSet.noneOf(Feature.class)).build();
+        WebSource source = driver.getDefaultSources().iterator().next();
+        return driver.connect(source, Languages.ANY, WebContext.builder().build());
+    }
+}
@@ -22,13 +22,21 @@ import ec.tss.tsproviders.db.DbAccessor;
 import ec.tss.tsproviders.db.DbSeries;
 import ec.tss.tsproviders.db.DbSetId;
 import ec.tstoolkit.design.VisibleForTesting;
+import ec.tstoolkit.timeseries.TsAggregationType;
+import internal.sdmx.SdmxChildrenStrategy;
+import internal.sdmx.SdmxDimensionTable;
+import internal.sdmx.SdmxFlowInfo;
+import internal.sdmx.SdmxKeyConverter;
+import internal.sdmx.SdmxMetrics;
+import internal.sdmx.SdmxQueryKind;
 import internal.sdmx.SdmxQueryUtil;
 import sdmxdl.*;
-import sdmxdl.ext.SdmxCubeUtil;
 import sdmxdl.web.SdmxWebManager;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.function.ToLongFunction;
 
 /**
  * @author Philippe Charles
@@ -36,13 +44,24 @@ import java.util.List;
 @Deprecated
 final class DotStatAccessor extends DbAccessor.Abstract<DotStatBean> {
 
-    private final SdmxWebManager manager;
-    private final Languages languages = Languages.ANY;
+    private final IOSupplier<Connection> supplier;
+    private final IOSupplier<SdmxFlowInfo> structure;
+    private final SdmxMetrics metrics;
     private final DatabaseRef database = DatabaseRef.NO_DATABASE;
 
     DotStatAccessor(DotStatBean dbBean, SdmxWebManager manager) {
+        this(dbBean, () -> manager.getConnection(dbBean.getDbName(), Languages.ANY), SdmxMetrics.of(null));
+    }
+
+    private DotStatAccessor(DotStatBean dbBean, IOSupplier<Connection> supplier, SdmxMetrics metrics) {
+        this(dbBean, supplier, () -> loadInfo(supplier, dbBean.getFlowRef()), metrics);
+    }
+
+    DotStatAccessor(DotStatBean dbBean, IOSupplier<Connection> supplier, IOSupplier<SdmxFlowInfo> structure, SdmxMetrics metrics) {
         super(dbBean);
-        this.manager = manager;
+        this.supplier = supplier;
+        this.structure = structure;
+        this.metrics = metrics;
     }
 
     @Override
@@ -61,30 +80,44 @@ final class DotStatAccessor extends DbAccessor.Abstract<DotStatBean> {
 
     @Override
     protected List<DbSetId> getAllSeries(DbSetId ref) throws Exception {
-        try (Connection conn = manager.getConnection(dbBean.getDbName(), languages)) {
-            return getAllSeries(conn, database, dbBean.getFlowRef(), ref);
-        }
+        return meter(SdmxQueryKind.ALL_SERIES, List::size, () -> {
+            SdmxDimensionTable table = getTable();
+            try (Connection conn = supplier.getWithIO()) {
+                return getAllSeries(conn, database, dbBean.getFlowRef(), table, ref);
+            }
+        });
     }
 
     @Override
     protected List<DbSeries> getAllSeriesWithData(DbSetId ref) throws Exception {
-        try (Connection conn = manager.getConnection(dbBean.getDbName(), languages)) {
-            return getAllSeriesWithData(conn, database, dbBean.getFlowRef(), ref);
-        }
+        return meter(SdmxQueryKind.ALL_SERIES_WITH_DATA, List::size, () -> {
+            SdmxDimensionTable table = getTable();
+            try (Connection conn = supplier.getWithIO()) {
+                return getAllSeriesWithData(conn, database, dbBean.getFlowRef(), table, ref, getAggregation());
+            }
+        });
     }
 
     @Override
     protected DbSeries getSeriesWithData(DbSetId ref) throws Exception {
-        try (Connection conn = manager.getConnection(dbBean.getDbName(), languages)) {
-            return getSeriesWithData(conn, database, dbBean.getFlowRef(), ref);
-        }
+        return meter(SdmxQueryKind.SERIES_WITH_DATA, series -> 1, () -> {
+            SdmxDimensionTable table = getTable();
+            try (Connection conn = supplier.getWithIO()) {
+                return getSeriesWithData(conn, database, dbBean.getFlowRef(), table, ref, getAggregation());
+            }
+        });
     }
 
     @Override
     protected List<String> getChildren(DbSetId ref) throws Exception {
-        try (Connection conn = manager.getConnection(dbBean.getDbName(), languages)) {
-            return getChildren(conn, database, dbBean.getFlowRef(), ref);
-        }
+        return meter(SdmxQueryKind.CHILDREN, children -> 0, () -> {
+            SdmxDimensionTable table = getTable();
+            try (Connection conn = supplier.getWithIO()) {
+                SdmxChildrenStrategy strategy = SdmxQueryUtil.getChildrenStrategy(conn);
+                metrics.recordChildrenStrategy(dbBean.getDbName(), strategy);
+                return getChildren(conn, database, dbBean.getFlowRef(), table, ref, strategy);
+            }
+        });
     }
 
     @Override
@@ -92,8 +125,37 @@ final class DotStatAccessor extends DbAccessor.Abstract<DotStatBean> {
         return DbAccessor.BulkAccessor.from(this, dbBean.getCacheDepth(), DbAccessor.BulkAccessor.newTtlCache(dbBean.getCacheTtl()));
     }
 
-    private static List<DbSetId> getAllSeries(Connection conn, DatabaseRef databaseRef, FlowRef flow, DbSetId node) throws IOException {
-        KeyConverter converter = KeyConverter.of(conn.getMeta(databaseRef, flow).getStructure(), node);
+    private TsAggregationType getAggregation() {
+        TsAggregationType result = dbBean.getAggregationType();
+        return result != null ? result : TsAggregationType.None;
+    }
+
+    // resolved before opening a connection so that the structure may be
+    // downloaded with a connection of its own
+    private SdmxDimensionTable getTable() throws IOException {
+        return SdmxDimensionTable.of(structure.getWithIO());
+    }
+
+    private static SdmxFlowInfo loadInfo(IOSupplier<Connection> supplier, FlowRef flow) throws IOException {
+        try (Connection conn = supplier.getWithIO()) {
+            return SdmxFlowInfo.of(conn.getMeta(DatabaseRef.NO_DATABASE, flow));
+        }
+    }
+
+    private <T> T meter(SdmxQueryKind kind, ToLongFunction<T> series, IOSupplier<T> request) throws IOException {
+        long start = System.nanoTime();
+        try {
+            T result = request.getWithIO();
+            metrics.recordRequest(dbBean.getDbName(), kind, System.nanoTime() - start, series.applyAsLong(result), false);
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            metrics.recordRequest(dbBean.getDbName(), kind, System.nanoTime() - start, 0, true);
+            throw ex;
+        }
+    }
+
+    private static List<DbSetId> getAllSeries(Connection conn, DatabaseRef databaseRef, FlowRef flow, SdmxDimensionTable table, DbSetId node) throws IOException {
+        SdmxKeyConverter<DbSetId> converter = SdmxKeyConverter.of(table, node);
 
         try (TsCursor<Key> cursor = SdmxQueryUtil.getAllSeries(conn, databaseRef, flow, converter.toKey(node), SdmxQueryUtil.NO_LABEL)) {
             ImmutableList.Builder<DbSetId> result = ImmutableList.builder();
@@ -104,10 +166,10 @@ final class DotStatAccessor extends DbAccessor.Abstract<DotStatBean> {
         }
     }
 
-    private static List<DbSeries> getAllSeriesWithData(Connection conn, DatabaseRef databaseRef, FlowRef flow, DbSetId node) throws IOException {
-        KeyConverter converter = KeyConverter.of(conn.getMeta(databaseRef, flow).getStructure(), node);
+    private static List<DbSeries> getAllSeriesWithData(Connection conn, DatabaseRef databaseRef, FlowRef flow, SdmxDimensionTable table, DbSetId node, TsAggregationType aggregation) throws IOException {
+        SdmxKeyConverter<DbSetId> converter = SdmxKeyConverter.of(table, node);
 
-        try (TsCursor<Key> cursor = SdmxQueryUtil.getAllSeriesWithData(conn, databaseRef, flow, converter.toKey(node), SdmxQueryUtil.NO_LABEL)) {
+        try (TsCursor<Key> cursor = SdmxQueryUtil.getAllSeriesWithData(conn, databaseRef, flow, converter.toKey(node), SdmxQueryUtil.NO_LABEL, aggregation)) {
             ImmutableList.Builder<DbSeries> result = ImmutableList.builder();
             while (cursor.nextSeries()) {
                 result.add(new DbSeries(converter.fromKey(cursor.getSeriesId()), cursor.getSeriesData()));
@@ -116,77 +178,22 @@ final class DotStatAccessor extends DbAccessor.Abstract<DotStatBean> {
         }
     }
 
-    private static DbSeries getSeriesWithData(Connection conn, DatabaseRef databaseRef, FlowRef flow, DbSetId leaf) throws IOException {
-        KeyConverter converter = KeyConverter.of(conn.getMeta(databaseRef, flow).getStructure(), leaf);
+    private static DbSeries getSeriesWithData(Connection conn, DatabaseRef databaseRef, FlowRef flow, SdmxDimensionTable table, DbSetId leaf, TsAggregationType aggregation) throws IOException {
+        SdmxKeyConverter<DbSetId> converter = SdmxKeyConverter.of(table, leaf);
 
-        try (TsCursor<Key> cursor = SdmxQueryUtil.getSeriesWithData(conn, databaseRef, flow, converter.toKey(leaf), SdmxQueryUtil.NO_LABEL)) {
+        try (TsCursor<Key> cursor = SdmxQueryUtil.getSeriesWithData(conn, databaseRef, flow, converter.toKey(leaf), SdmxQueryUtil.NO_LABEL, aggregation)) {
             return new DbSeries(leaf, cursor.nextSeries() ? cursor.getSeriesData() : SdmxQueryUtil.MISSING_DATA);
         }
     }
 
-    private static List<String> getChildren(Connection conn, DatabaseRef databaseRef, FlowRef flow, DbSetId node) throws IOException {
-        Structure dsd = conn.getMeta(databaseRef, flow).getStructure();
-        KeyConverter converter = KeyConverter.of(dsd, node);
-        String dimensionId = node.getColumn(node.getLevel());
-        int dimensionIndex = SdmxCubeUtil.getDimensionIndexById(dsd, dimensionId).orElseThrow(RuntimeException::new);
-        return SdmxQueryUtil.getChildren(conn, databaseRef, flow, converter.toKey(node), dimensionIndex);
+    private static List<String> getChildren(Connection conn, DatabaseRef databaseRef, FlowRef flow, SdmxDimensionTable table, DbSetId node, SdmxChildrenStrategy strategy) throws IOException {
+        SdmxKeyConverter<DbSetId> converter = SdmxKeyConverter.of(table, node);
+        int dimensionIndex = table.getIndex(node.getColumn(node.getLevel()));
+        return SdmxQueryUtil.getChildren(conn, databaseRef, flow, converter.toKey(node), dimensionIndex, strategy);
     }
 
     @VisibleForTesting
     static Key getKey(Structure dsd, DbSetId ref) {
-        if (ref.isRoot()) {
-            return Key.ALL;
-        }
-        String[] result = new String[ref.getMaxLevel()];
-        for (int i = 0; i < result.length; i++) {
-            String id = ref.getColumn(i);
-            String value = i < ref.getLevel() ? ref.getValue(i) : "";
-            int index = SdmxCubeUtil.getDimensionIndexById(dsd, id).orElseThrow(RuntimeException::new);
-            result[index] = value;
-        }
-        return Key.of(result);
-    }
-
-    @lombok.RequiredArgsConstructor
-    static final class KeyConverter {
-
-        static KeyConverter of(Structure dsd, DbSetId ref) {
-            return new KeyConverter(dsd, new DbSetIdBuilder(dsd, ref));
-        }
-
-        final Structure dsd;
-        final DbSetIdBuilder builder;
-
-        public Key toKey(DbSetId a) {
-            return getKey(dsd, a);
-        }
-
-        public DbSetId fromKey(Key b) {
-            return builder.getId(b);
-        }
-    }
-
-    private static final class DbSetIdBuilder {
-
-        private final DbSetId ref;
-        private final int[] indices;
-        private final String[] dimValues;
-
-        DbSetIdBuilder(Structure dsd, DbSetId ref) {
-            this.ref = ref;
-            String[] selectColumns = ref.selectColumns();
-            this.indices = new int[selectColumns.length];
-            for (int i = 0; i < indices.length; i++) {
-                indices[i] = SdmxCubeUtil.getDimensionIndexById(dsd, selectColumns[i]).orElseThrow(RuntimeException::new);
-            }
-            this.dimValues = new String[selectColumns.length];
-        }
-
-        public DbSetId getId(Key o) {
-            for (int i = 0; i < indices.length; i++) {
-                dimValues[i] = o.get(indices[i]);
-            }
-            return ref.child(dimValues);
-        }
+        return SdmxKeyConverter.of(dsd, ref).toKey(ref);
     }
 }
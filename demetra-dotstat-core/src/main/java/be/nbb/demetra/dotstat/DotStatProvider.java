@@ -25,7 +25,13 @@ import ec.tss.tsproviders.DataSource;
 import ec.tss.tsproviders.db.DbAccessor;
 import ec.tss.tsproviders.db.DbBean;
 import ec.tss.tsproviders.db.DbProvider;
+import internal.sdmx.SdmxConnectionPool;
+import internal.sdmx.SdmxExecutors;
+import internal.sdmx.SdmxFlowInfo;
+import internal.sdmx.SdmxMetrics;
+import internal.sdmx.SdmxMetricsMXBean;
 import internal.sdmx.SdmxPropertiesSupport;
+import internal.sdmx.SdmxStructureCache;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.openide.util.lookup.ServiceProvider;
@@ -35,8 +41,10 @@ import sdmxdl.web.SdmxWebManager;
 import standalone_sdmxdl.nbbrd.io.text.Parser;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 
 import static sdmxdl.DatabaseRef.NO_DATABASE;
 
@@ -52,17 +60,43 @@ public final class DotStatProvider extends DbProvider<DotStatBean> implements Ha
     @lombok.experimental.Delegate
     private final HasSdmxProperties<SdmxWebManager> properties;
 
+    private final SdmxConnectionPool pool;
+
+    private final SdmxMetrics metrics;
+
+    private final ExecutorService background;
+
+    private final SdmxStructureCache structures;
+
     private boolean displayCodes;
 
     public DotStatProvider() {
         super(LoggerFactory.getLogger(DotStatProvider.class), NAME, TsAsyncMode.Once);
-        this.properties = SdmxPropertiesSupport.of(SdmxWebManager::ofServiceLoader, this::clearCache);
+        this.pool = SdmxConnectionPool.of(SdmxConnectionPool.DEFAULT_MAX_IDLE, SdmxConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        this.metrics = SdmxMetrics.of(null);
+        metrics.register(DotStatProvider.class.getSimpleName());
+        this.background = SdmxExecutors.newBackgroundExecutor();
+        this.structures = SdmxStructureCache.of(null, SdmxStructureCache.DEFAULT_TTL, background);
+        this.properties = SdmxPropertiesSupport.of(SdmxWebManager::ofServiceLoader, () -> {
+            clearCache();
+            pool.clear();
+            structures.clear();
+        });
         this.displayCodes = false;
     }
 
     @Override
     protected @lombok.NonNull DbAccessor<DotStatBean> loadFromBean(@lombok.NonNull DotStatBean bean) throws Exception {
-        return new DotStatAccessor(bean, getSdmxManager()).memoize();
+        SdmxWebManager manager = getSdmxManager();
+        return new DotStatAccessor(bean, pool.asSupplier(bean.getDbName(), Languages.ANY, () -> manager.getConnection(bean.getDbName(), Languages.ANY)), () -> getFlowInfo(bean), metrics).memoize();
+    }
+
+    @Override
+    public void dispose() {
+        background.shutdownNow();
+        pool.close();
+        metrics.unregister();
+        super.dispose();
     }
 
     @Override
@@ -84,8 +118,8 @@ public final class DotStatProvider extends DbProvider<DotStatBean> implements Ha
     public String getDisplayName(DataSource dataSource) {
         DotStatBean bean = decodeBean(dataSource);
         if (!displayCodes) {
-            try (Connection conn = connect(bean.getDbName())) {
-                return String.format(Locale.ROOT, "%s ~ %s", bean.getDbName(), conn.getMeta(NO_DATABASE, bean.getFlowRef()).getFlow().getName());
+            try {
+                return String.format(Locale.ROOT, "%s ~ %s", bean.getDbName(), getFlowInfo(bean).getName());
             } catch (IOException | RuntimeException ex) {
             }
         }
@@ -95,16 +129,14 @@ public final class DotStatProvider extends DbProvider<DotStatBean> implements Ha
     @Override
     public String getDisplayName(DataSet dataSet) {
         DotStatBean bean = decodeBean(dataSet.getDataSource());
-        try (Connection conn = connect(bean.getDbName())) {
-            Structure dfs = conn.getMeta(NO_DATABASE, bean.getFlowRef()).getStructure();
-            Key.Builder b = Key.builder(dfs);
-            for (Dimension o : dfs.getDimensions()) {
-                String value = dataSet.get(o.getId());
-                if (value != null) {
-                    b.put(o.getId(), value);
-                }
+        try {
+            List<SdmxFlowInfo.Component> dimensions = getFlowInfo(bean).getDimensions();
+            String[] values = new String[dimensions.size()];
+            for (int i = 0; i < values.length; i++) {
+                String value = dataSet.get(dimensions.get(i).getId());
+                values[i] = value != null ? value : "";
             }
-            return b.toString();
+            return Key.of(values).toString();
         } catch (IOException | RuntimeException ex) {
         }
         return super.getDisplayName(dataSet);
@@ -116,12 +148,10 @@ public final class DotStatProvider extends DbProvider<DotStatBean> implements Ha
         if (nodeDim != null) {
             if (!displayCodes) {
                 DotStatBean bean = decodeBean(dataSet.getDataSource());
-                try (Connection conn = connect(bean.getDbName())) {
-                    Structure dfs = conn.getMeta(NO_DATABASE, bean.getFlowRef()).getStructure();
-                    for (Dimension o : dfs.getDimensions()) {
-                        if (o.getId().equals(nodeDim.getKey())) {
-                            return o.getCodes().get(nodeDim.getValue());
-                        }
+                try {
+                    SdmxFlowInfo.Component dimension = getFlowInfo(bean).getDimension(nodeDim.getKey());
+                    if (dimension != null) {
+                        return dimension.getCodes().get(nodeDim.getValue());
                     }
                     return nodeDim.getValue();
                 } catch (IOException | RuntimeException ex) {
@@ -154,8 +184,31 @@ public final class DotStatProvider extends DbProvider<DotStatBean> implements Ha
         this.displayCodes = displayCodes;
     }
 
+    /**
+     * Gets the metrics of this provider, also registered as an MBean in the
+     * platform MBean server.
+     *
+     * @return a non-null view of the metrics
+     */
+    @NonNull
+    public SdmxMetricsMXBean getMetrics() {
+        return metrics;
+    }
+
+    private SdmxFlowInfo getFlowInfo(DotStatBean bean) throws IOException {
+        String name = bean.getDbName();
+        FlowRef flow = bean.getFlowRef();
+        return structures.getOrLoad(name, getLanguages(), NO_DATABASE, flow, () -> {
+            try (Connection conn = connect(name)) {
+                return SdmxFlowInfo.of(conn.getMeta(NO_DATABASE, flow));
+            }
+        });
+    }
+
     private Connection connect(String name) throws IOException {
-        return getSdmxManager().getConnection(name, getLanguages());
+        SdmxWebManager manager = getSdmxManager();
+        Languages languages = getLanguages();
+        return pool.borrow(name, languages, () -> manager.getConnection(name, languages));
     }
 
     private static Map.@Nullable Entry<String, String> getNodeDimension(DataSet dataSet) {
@@ -17,6 +17,7 @@
 package be.nbb.demetra.sdmx.file;
 
 import ec.tss.tsproviders.IFileBean;
+import ec.tstoolkit.timeseries.TsAggregationType;
 import java.io.File;
 import java.util.List;
 
@@ -34,4 +35,5 @@ public final class SdmxFileBean implements IFileBean {
     private String dialect;
     private List<String> dimensions;
     private String labelAttribute;
+    private TsAggregationType aggregationType;
 }
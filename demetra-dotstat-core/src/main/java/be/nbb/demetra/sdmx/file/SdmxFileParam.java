@@ -26,6 +26,7 @@ import ec.tss.tsproviders.cube.CubeSupport;
 import ec.tss.tsproviders.utils.IConfig;
 import ec.tss.tsproviders.utils.IParam;
 import ec.tss.tsproviders.utils.Params;
+import ec.tstoolkit.timeseries.TsAggregationType;
 import lombok.NonNull;
 
 import static ec.tss.tsproviders.utils.Params.onStringList;
@@ -53,6 +54,7 @@ interface SdmxFileParam extends IParam<DataSource, SdmxFileBean> {
         private final IParam<DataSource, String> dialect = Params.onString("", "j");
         private final IParam<DataSource, List<String>> dimensionIds = onStringList(ImmutableList.of(), "d", dimensionSplitter, dimensionJoiner);
         private final IParam<DataSource, String> labelAttribute = Params.onString("", "l");
+        private final IParam<DataSource, TsAggregationType> aggregationType = Params.onEnum(TsAggregationType.None, "a");
 
         @Override
         public String getVersion() {
@@ -67,6 +69,7 @@ interface SdmxFileParam extends IParam<DataSource, SdmxFileBean> {
             result.setDialect(dialect.defaultValue());
             result.setDimensions(dimensionIds.defaultValue());
             result.setLabelAttribute(labelAttribute.defaultValue());
+            result.setAggregationType(aggregationType.defaultValue());
             return result;
         }
 
@@ -78,6 +81,7 @@ interface SdmxFileParam extends IParam<DataSource, SdmxFileBean> {
             result.setDialect(dialect.get(dataSource));
             result.setDimensions(dimensionIds.get(dataSource));
             result.setLabelAttribute(labelAttribute.get(dataSource));
+            result.setAggregationType(aggregationType.get(dataSource));
             return result;
         }
 
@@ -89,6 +93,7 @@ interface SdmxFileParam extends IParam<DataSource, SdmxFileBean> {
                 dialect.set(builder, value.getDialect());
                 dimensionIds.set(builder, value.getDimensions());
                 labelAttribute.set(builder, value.getLabelAttribute());
+                aggregationType.set(builder, value.getAggregationType());
             }
         }
 
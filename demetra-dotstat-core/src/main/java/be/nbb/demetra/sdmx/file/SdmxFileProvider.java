@@ -17,7 +17,6 @@
 package be.nbb.demetra.sdmx.file;
 
 import be.nbb.demetra.sdmx.HasSdmxProperties;
-import com.google.common.cache.Cache;
 import ec.tss.ITsProvider;
 import ec.tss.TsAsyncMode;
 import ec.tss.tsproviders.*;
@@ -29,16 +28,21 @@ import ec.tss.tsproviders.cursor.TsCursorAsFiller;
 import ec.tss.tsproviders.utils.DataSourcePreconditions;
 import ec.tss.tsproviders.utils.IParam;
 import ec.tss.tsproviders.utils.TsFillerAsProvider;
-import ec.tstoolkit.utilities.GuavaCaches;
 import internal.sdmx.SdmxBeans;
 import internal.sdmx.SdmxCubeAccessor;
 import internal.sdmx.SdmxCubeItems;
+import internal.sdmx.SdmxCubeItemsCache;
+import internal.sdmx.SdmxFlowInfo;
+import internal.sdmx.SdmxMetrics;
+import internal.sdmx.SdmxMetricsMXBean;
 import internal.sdmx.SdmxPropertiesSupport;
+import internal.sdmx.SdmxStructureRegistry;
 import lombok.NonNull;
 import org.openide.util.lookup.ServiceProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sdmxdl.Connection;
+import sdmxdl.DatabaseRef;
 import sdmxdl.FlowRef;
 import sdmxdl.file.FileSource;
 import sdmxdl.file.SdmxFileManager;
@@ -47,6 +51,7 @@ import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.Locale;
 
 /**
@@ -82,9 +87,15 @@ public final class SdmxFileProvider implements IFileLoader, HasSdmxProperties<Sd
     @lombok.experimental.Delegate
     private final ITsProvider tsSupport;
 
+    private final SdmxCubeItemsCache cache;
+
+    private final SdmxMetrics metrics;
+
     public SdmxFileProvider() {
         Logger logger = LoggerFactory.getLogger(NAME);
-        Cache<DataSource, SdmxCubeItems> cache = GuavaCaches.softValuesCache();
+        this.cache = SdmxCubeItemsCache.of(SdmxCubeItemsCache.DEFAULT_BUDGET, SdmxCubeItemsCache.DEFAULT_MAX_PINNED);
+        this.metrics = SdmxMetrics.of(cache);
+        metrics.register(SdmxFileProvider.class.getSimpleName());
         SdmxFileParam sdmxParam = new SdmxFileParam.V1();
 
         this.properties = SdmxPropertiesSupport.of(SdmxFileManager::ofServiceLoader, cache::invalidateAll);
@@ -92,7 +103,7 @@ public final class SdmxFileProvider implements IFileLoader, HasSdmxProperties<Sd
         this.monikerSupport = HasDataMoniker.usingUri(NAME);
         this.beanSupport = HasDataSourceBean.of(NAME, sdmxParam, sdmxParam.getVersion());
         this.filePathSupport = HasFilePaths.of(cache::invalidateAll);
-        this.cubeSupport = CubeSupport.of(new SdmxCubeResource(cache, properties, filePathSupport, sdmxParam));
+        this.cubeSupport = CubeSupport.of(new SdmxCubeResource(cache, properties, filePathSupport, sdmxParam, metrics));
         this.dataDisplayName = new SdmxFileDataDisplayName(beanSupport, cubeSupport);
         this.tsSupport = TsFillerAsProvider.of(NAME, TsAsyncMode.Once, TsCursorAsFiller.of(logger, cubeSupport, monikerSupport, dataDisplayName), cache::invalidateAll);
     }
@@ -102,6 +113,48 @@ public final class SdmxFileProvider implements IFileLoader, HasSdmxProperties<Sd
         return "SDMX Files";
     }
 
+    /**
+     * Gets the memory budget of the cache of opened data sources.
+     *
+     * @return a size in bytes
+     */
+    public long getCacheBudget() {
+        return cache.getBudget();
+    }
+
+    public void setCacheBudget(long cacheBudget) {
+        cache.setBudget(cacheBudget);
+    }
+
+    /**
+     * Gets the metrics of this provider, also registered as an MBean in the
+     * platform MBean server.
+     *
+     * @return a non-null view of the metrics
+     */
+    public @NonNull SdmxMetricsMXBean getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the structure of the flow of a file from the registry shared by
+     * all the providers or reads it.
+     *
+     * @param bean the bean of a data source of this provider
+     * @return a non-null structure
+     * @throws IOException if the structure cannot be read
+     */
+    public @NonNull SdmxFlowInfo getFlowInfo(@NonNull SdmxFileBean bean) throws IOException {
+        FileSource files = SdmxCubeItems.resolveFileSet(filePathSupport, bean);
+        return toFlowInfo(properties, files, SdmxBeans.getDatabase(bean)).getWithIO();
+    }
+
+    @Override
+    public void dispose() {
+        metrics.unregister();
+        tsSupport.dispose();
+    }
+
     @Override
     public @NonNull String getFileDescription() {
         return "SDMX file";
@@ -119,10 +172,11 @@ public final class SdmxFileProvider implements IFileLoader, HasSdmxProperties<Sd
     @lombok.AllArgsConstructor
     private static final class SdmxCubeResource implements CubeSupport.Resource {
 
-        private final Cache<DataSource, SdmxCubeItems> cache;
+        private final SdmxCubeItemsCache cache;
         private final HasSdmxProperties<SdmxFileManager> properties;
         private final HasFilePaths paths;
         private final SdmxFileParam param;
+        private final SdmxMetrics metrics;
 
         @Override
         public @NonNull CubeAccessor getAccessor(@NonNull DataSource dataSource) throws IOException {
@@ -136,28 +190,47 @@ public final class SdmxFileProvider implements IFileLoader, HasSdmxProperties<Sd
 
         private SdmxCubeItems get(DataSource dataSource) throws IOException {
             DataSourcePreconditions.checkProvider(NAME, dataSource);
-            return GuavaCaches.getOrThrowIOException(cache, dataSource, () -> of(properties, paths, param, dataSource));
+            return cache.get(dataSource, () -> of(properties, paths, param, metrics, dataSource));
         }
 
-        private static SdmxCubeItems of(HasSdmxProperties<SdmxFileManager> properties, HasFilePaths paths, SdmxFileParam param, DataSource dataSource) throws IOException {
+        private static SdmxCubeItems of(HasSdmxProperties<SdmxFileManager> properties, HasFilePaths paths, SdmxFileParam param, SdmxMetrics metrics, DataSource dataSource) throws IOException {
             SdmxFileBean bean = param.get(dataSource);
             FileSource files = SdmxCubeItems.resolveFileSet(paths, bean);
 
             FlowRef flowRef = files.asDataflowRef();
+            DatabaseRef databaseRef = SdmxBeans.getDatabase(bean);
 
             IOSupplier<Connection> conn = toConnection(properties, files);
 
-            CubeAccessor accessor = SdmxCubeAccessor.of(conn, SdmxBeans.getDatabase(bean), flowRef, bean.getDimensions(), bean.getLabelAttribute(), getSourceLabel(bean), false);
+            CubeAccessor accessor = SdmxCubeAccessor.of(conn, null, null, Duration.ZERO, metrics, toFlowInfo(properties, files, databaseRef), null, databaseRef, flowRef, bean.getDimensions(), bean.getLabelAttribute(), bean.getAggregationType(), getSourceLabel(bean), false, false);
 
             IParam<DataSet, CubeId> idParam = param.getCubeIdParam(accessor.getRoot());
 
             return new SdmxCubeItems(accessor, idParam);
         }
 
-        private static IOSupplier<Connection> toConnection(HasSdmxProperties<SdmxFileManager> properties, FileSource files) {
-            SdmxFileManager manager = properties.getSdmxManager();
-            return () -> manager.getConnection(files, properties.getLanguages());
-        }
+    }
+
+    private static IOSupplier<Connection> toConnection(HasSdmxProperties<SdmxFileManager> properties, FileSource files) {
+        SdmxFileManager manager = properties.getSdmxManager();
+        return () -> manager.getConnection(files, properties.getLanguages());
+    }
+
+    private static IOSupplier<SdmxFlowInfo> toFlowInfo(HasSdmxProperties<SdmxFileManager> properties, FileSource files, DatabaseRef database) {
+        IOSupplier<Connection> supplier = toConnection(properties, files);
+        FlowRef flow = files.asDataflowRef();
+        return () -> SdmxStructureRegistry.getDefault().getOrLoad(getStructureSource(files), properties.getLanguages(), database, flow, () -> {
+            try (Connection conn = supplier.getWithIO()) {
+                return SdmxFlowInfo.of(conn.getMeta(database, flow));
+            }
+        });
+    }
+
+    // the modification times make an edited file a new source
+    private static String getStructureSource(FileSource files) {
+        File structure = files.getStructure();
+        return files.getData() + "@" + files.getData().lastModified()
+                + (structure != null ? "|" + structure + "@" + structure.lastModified() : "");
     }
 
     @lombok.AllArgsConstructor
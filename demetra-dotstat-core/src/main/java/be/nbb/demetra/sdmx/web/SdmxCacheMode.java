@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package be.nbb.demetra.sdmx.web;
+
+/**
+ * Policy used to renew the data of the bulk cache.
+ *
+ * @author Philippe Charles
+ */
+public enum SdmxCacheMode {
+
+    /**
+     * Data is reloaded on demand once its time to live has expired.
+     */
+    TTL,
+    /**
+     * Data is reloaded in the background before its time to live expires and
+     * served stale while it is being reloaded.
+     */
+    REFRESH_AHEAD
+}
@@ -16,6 +16,8 @@
  */
 package be.nbb.demetra.sdmx.web;
 
+import ec.tstoolkit.timeseries.TsAggregationType;
+
 import java.time.Duration;
 import java.util.List;
 
@@ -31,8 +33,12 @@ public final class SdmxWebBean {
     private String flow;
     private List<String> dimensions;
     private String labelAttribute;
+    private TsAggregationType aggregationType;
     private Duration cacheTtl;
     private int cacheDepth;
+    private SdmxCacheMode cacheMode;
+    private int prefetchParallelism;
+    private boolean keyIndex;
 
     public void setCacheTtl(Duration cacheTtl) {
         this.cacheTtl = cacheTtl.isNegative() ? Duration.ZERO : cacheTtl;
@@ -41,4 +47,8 @@ public final class SdmxWebBean {
     public void setCacheDepth(int cacheDepth) {
         this.cacheDepth = Math.max(cacheDepth, 0);
     }
+
+    public void setPrefetchParallelism(int prefetchParallelism) {
+        this.prefetchParallelism = Math.max(prefetchParallelism, 0);
+    }
 }
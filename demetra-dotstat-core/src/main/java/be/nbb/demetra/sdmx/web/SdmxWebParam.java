@@ -25,6 +25,7 @@ import ec.tss.tsproviders.cube.CubeId;
 import ec.tss.tsproviders.cube.CubeSupport;
 import ec.tss.tsproviders.utils.IConfig;
 import ec.tss.tsproviders.utils.IParam;
+import ec.tstoolkit.timeseries.TsAggregationType;
 import lombok.NonNull;
 
 import java.time.Duration;
@@ -51,8 +52,12 @@ interface SdmxWebParam extends IParam<DataSource, SdmxWebBean> {
         private final IParam<DataSource, String> flowRef = onString("", "tableName");
         private final IParam<DataSource, List<String>> dimensionIds = onStringList(ImmutableList.of(), "dimColumns", dimensionSplitter, dimensionJoiner);
         private final IParam<DataSource, String> labelAttribute = onString("", "l");
+        private final IParam<DataSource, TsAggregationType> aggregationType = onEnum(TsAggregationType.None, "aggregationType");
         private final IParam<DataSource, Long> cacheTtl = onLong(TimeUnit.MILLISECONDS.convert(5, TimeUnit.MINUTES), "cacheTtl");
         private final IParam<DataSource, Integer> cacheDepth = onInteger(1, "cacheDepth");
+        private final IParam<DataSource, SdmxCacheMode> cacheMode = onEnum(SdmxCacheMode.TTL, "cacheMode");
+        private final IParam<DataSource, Integer> prefetchParallelism = onInteger(0, "prefetch");
+        private final IParam<DataSource, Boolean> keyIndex = onBoolean(false, "keyIndex");
 
         @Override
         public String getVersion() {
@@ -66,8 +71,12 @@ interface SdmxWebParam extends IParam<DataSource, SdmxWebBean> {
             result.setFlow(flowRef.defaultValue());
             result.setDimensions(dimensionIds.defaultValue());
             result.setLabelAttribute(labelAttribute.defaultValue());
+            result.setAggregationType(aggregationType.defaultValue());
             result.setCacheTtl(Duration.ofMillis(cacheTtl.defaultValue()));
             result.setCacheDepth(cacheDepth.defaultValue());
+            result.setCacheMode(cacheMode.defaultValue());
+            result.setPrefetchParallelism(prefetchParallelism.defaultValue());
+            result.setKeyIndex(keyIndex.defaultValue());
             return result;
         }
 
@@ -78,8 +87,12 @@ interface SdmxWebParam extends IParam<DataSource, SdmxWebBean> {
             result.setFlow(flowRef.get(dataSource));
             result.setDimensions(dimensionIds.get(dataSource));
             result.setLabelAttribute(labelAttribute.get(dataSource));
+            result.setAggregationType(aggregationType.get(dataSource));
             result.setCacheTtl(Duration.ofMillis(cacheTtl.get(dataSource)));
             result.setCacheDepth(cacheDepth.get(dataSource));
+            result.setCacheMode(cacheMode.get(dataSource));
+            result.setPrefetchParallelism(prefetchParallelism.get(dataSource));
+            result.setKeyIndex(keyIndex.get(dataSource));
             return result;
         }
 
@@ -90,8 +103,12 @@ interface SdmxWebParam extends IParam<DataSource, SdmxWebBean> {
                 flowRef.set(builder, value.getFlow());
                 dimensionIds.set(builder, value.getDimensions());
                 labelAttribute.set(builder, value.getLabelAttribute());
+                aggregationType.set(builder, value.getAggregationType());
                 cacheTtl.set(builder, value.getCacheTtl().toMillis());
                 cacheDepth.set(builder, value.getCacheDepth());
+                cacheMode.set(builder, value.getCacheMode());
+                prefetchParallelism.set(builder, value.getPrefetchParallelism());
+                keyIndex.set(builder, value.isKeyIndex());
             }
         }
 
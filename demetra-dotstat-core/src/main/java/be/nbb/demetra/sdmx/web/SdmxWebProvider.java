@@ -17,7 +17,6 @@
 package be.nbb.demetra.sdmx.web;
 
 import be.nbb.demetra.sdmx.HasSdmxProperties;
-import com.google.common.cache.Cache;
 import ec.tss.ITsProvider;
 import ec.tss.tsproviders.*;
 import ec.tss.tsproviders.cube.CubeAccessor;
@@ -26,21 +25,41 @@ import ec.tss.tsproviders.cube.CubeSupport;
 import ec.tss.tsproviders.cursor.HasTsCursor;
 import ec.tss.tsproviders.utils.DataSourcePreconditions;
 import ec.tss.tsproviders.utils.IParam;
-import ec.tstoolkit.utilities.GuavaCaches;
 import internal.sdmx.SdmxBeans;
+import internal.sdmx.SdmxBulkCubeAccessor;
+import internal.sdmx.SdmxConnectionPool;
 import internal.sdmx.SdmxCubeAccessor;
 import internal.sdmx.SdmxCubeItems;
+import internal.sdmx.SdmxCubeItemsCache;
+import internal.sdmx.SdmxDiskCache;
+import internal.sdmx.SdmxExecutors;
+import internal.sdmx.SdmxFlowInfo;
+import internal.sdmx.SdmxMetrics;
+import internal.sdmx.SdmxMetricsMXBean;
+import internal.sdmx.SdmxPrefetcher;
+import internal.sdmx.SdmxPrefetchingCubeAccessor;
 import internal.sdmx.SdmxPropertiesSupport;
+import internal.sdmx.SdmxRateLimiter;
+import internal.sdmx.SdmxSingleFlight;
+import internal.sdmx.SdmxStructureCache;
 import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.openide.util.lookup.ServiceProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sdmxdl.Connection;
+import sdmxdl.DatabaseRef;
 import sdmxdl.FlowRef;
+import sdmxdl.Languages;
 import sdmxdl.web.SdmxWebManager;
 import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BooleanSupplier;
 
@@ -55,6 +74,24 @@ public final class SdmxWebProvider implements IDataSourceLoader, HasSdmxProperti
 
     private final AtomicBoolean displayCodes;
 
+    private final SdmxConnectionPool pool;
+
+    private final SdmxRateLimiter limiter;
+
+    private final SdmxSingleFlight flight;
+
+    private final SdmxDiskCache disk;
+
+    private final ExecutorService background;
+
+    private final SdmxStructureCache structures;
+
+    private final SdmxPrefetcher prefetcher;
+
+    private final SdmxCubeItemsCache cache;
+
+    private final SdmxMetrics metrics;
+
     @lombok.experimental.Delegate
     private final HasSdmxProperties<SdmxWebManager> properties;
 
@@ -67,6 +104,8 @@ public final class SdmxWebProvider implements IDataSourceLoader, HasSdmxProperti
     @lombok.experimental.Delegate
     private final HasDataSourceBean<SdmxWebBean> beanSupport;
 
+    private final SdmxCubeResource cubeResource;
+
     @lombok.experimental.Delegate(excludes = HasTsCursor.class)
     private final CubeSupport cubeSupport;
 
@@ -75,17 +114,37 @@ public final class SdmxWebProvider implements IDataSourceLoader, HasSdmxProperti
 
     public SdmxWebProvider() {
         this.displayCodes = new AtomicBoolean(false);
+        this.pool = SdmxConnectionPool.of(SdmxConnectionPool.DEFAULT_MAX_IDLE, SdmxConnectionPool.DEFAULT_IDLE_TIMEOUT);
+        this.limiter = SdmxRateLimiter.of(SdmxRateLimiter.DEFAULT_REQUEST_INTERVAL, SdmxRateLimiter.DEFAULT_MAX_CONCURRENT_REQUESTS);
+        this.flight = SdmxSingleFlight.create();
+        this.disk = SdmxDiskCache.of(null, SdmxDiskCache.DEFAULT_MAX_SIZE, SdmxDiskCache.DEFAULT_TTL);
+        this.background = SdmxExecutors.newBackgroundExecutor();
+        this.structures = SdmxStructureCache.of(null, SdmxStructureCache.DEFAULT_TTL, background);
+        this.prefetcher = SdmxPrefetcher.of(background);
 
-        Cache<DataSource, SdmxCubeItems> cache = GuavaCaches.softValuesCache();
+        this.cache = SdmxCubeItemsCache.of(SdmxCubeItemsCache.DEFAULT_BUDGET, SdmxCubeItemsCache.DEFAULT_MAX_PINNED);
+        this.metrics = SdmxMetrics.of(cache);
+        metrics.register(SdmxWebProvider.class.getSimpleName());
         Logger logger = LoggerFactory.getLogger(NAME);
         SdmxWebParam beanParam = new SdmxWebParam.V1();
 
-        this.properties = SdmxPropertiesSupport.of(SdmxWebManager::ofServiceLoader, cache::invalidateAll);
+        this.properties = SdmxPropertiesSupport.of(SdmxWebManager::ofServiceLoader, () -> {
+            prefetcher.cancel();
+            cache.invalidateAll();
+            pool.clear();
+            disk.clear();
+            structures.clear();
+        });
         this.mutableListSupport = HasDataSourceMutableList.of(NAME, logger, cache::invalidate);
         this.monikerSupport = HasDataMoniker.usingUri(NAME);
         this.beanSupport = HasDataSourceBean.of(NAME, beanParam, beanParam.getVersion());
-        this.cubeSupport = CubeSupport.of(new SdmxCubeResource(cache, properties, beanParam, displayCodes::get));
-        this.tsSupport = CubeSupport.asTsProvider(NAME, logger, cubeSupport, monikerSupport, cache::invalidateAll);
+        this.cubeResource = new SdmxCubeResource(cache, properties, pool, limiter, flight, disk, structures, prefetcher, background, metrics, beanParam, displayCodes::get);
+        this.cubeSupport = CubeSupport.of(cubeResource);
+        this.tsSupport = CubeSupport.asTsProvider(NAME, logger, cubeSupport, monikerSupport, () -> {
+            prefetcher.cancel();
+            cache.invalidateAll();
+            structures.invalidateAll();
+        });
     }
 
     @Override
@@ -104,11 +163,184 @@ public final class SdmxWebProvider implements IDataSourceLoader, HasSdmxProperti
         }
     }
 
+    public int getConnectionPoolSize() {
+        return pool.getMaxIdle();
+    }
+
+    public void setConnectionPoolSize(int connectionPoolSize) {
+        pool.setMaxIdle(connectionPoolSize);
+    }
+
+    public @NonNull Duration getConnectionIdleTimeout() {
+        return pool.getIdleTimeout();
+    }
+
+    public void setConnectionIdleTimeout(@NonNull Duration connectionIdleTimeout) {
+        pool.setIdleTimeout(connectionIdleTimeout);
+    }
+
+    public int getMaxConnectionsPerSource() {
+        return pool.getMaxTotal();
+    }
+
+    public void setMaxConnectionsPerSource(int maxConnectionsPerSource) {
+        pool.setMaxTotal(maxConnectionsPerSource);
+    }
+
+    public @NonNull Duration getRequestInterval() {
+        return limiter.getRequestInterval();
+    }
+
+    public void setRequestInterval(@NonNull Duration requestInterval) {
+        limiter.setRequestInterval(requestInterval);
+    }
+
+    public int getMaxConcurrentRequests() {
+        return limiter.getMaxConcurrentRequests();
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        limiter.setMaxConcurrentRequests(maxConcurrentRequests);
+    }
+
+    /**
+     * Gets the memory budget of the cache of opened data sources.
+     *
+     * @return a size in bytes
+     */
+    public long getCacheBudget() {
+        return cache.getBudget();
+    }
+
+    public void setCacheBudget(long cacheBudget) {
+        cache.setBudget(cacheBudget);
+    }
+
+    /**
+     * Gets the folder of the persistent caches of series and of structures.
+     *
+     * @return a folder, null if the persistent caches are disabled
+     */
+    public @Nullable File getDiskCacheFolder() {
+        Path folder = disk.getFolder();
+        return folder != null ? folder.toFile() : null;
+    }
+
+    public void setDiskCacheFolder(@Nullable File diskCacheFolder) {
+        Path folder = diskCacheFolder != null && !diskCacheFolder.getPath().isEmpty() ? diskCacheFolder.toPath() : null;
+        disk.setFolder(folder);
+        structures.setFolder(folder);
+    }
+
+    public long getDiskCacheMaxSize() {
+        return disk.getMaxSize();
+    }
+
+    public void setDiskCacheMaxSize(long diskCacheMaxSize) {
+        disk.setMaxSize(diskCacheMaxSize);
+    }
+
+    public @NonNull Duration getDiskCacheTtl() {
+        return disk.getTtl();
+    }
+
+    public void setDiskCacheTtl(@NonNull Duration diskCacheTtl) {
+        disk.setTtl(diskCacheTtl);
+    }
+
+    /**
+     * Gets the age after which a cached structure is reloaded in the
+     * background.
+     *
+     * @return a non-null duration, zero if structures are not cached
+     */
+    public @NonNull Duration getStructureCacheTtl() {
+        return structures.getTtl();
+    }
+
+    public void setStructureCacheTtl(@NonNull Duration structureCacheTtl) {
+        structures.setTtl(structureCacheTtl);
+    }
+
+    /**
+     * Gets the structure of a flow from the cache of this provider or
+     * downloads it.
+     *
+     * @param source the name of the source
+     * @param database
+     * @param flow
+     * @return a non-null structure
+     * @throws IOException if the structure cannot be loaded
+     */
+    public @NonNull SdmxFlowInfo getFlowInfo(@NonNull String source, @NonNull DatabaseRef database, @NonNull FlowRef flow) throws IOException {
+        return toFlowInfo(properties, structures, toConnection(properties, pool, limiter, source), source, database, flow).getWithIO();
+    }
+
+    /**
+     * Borrows a connection to a source from the pool of this provider.
+     * The connection is subject to the rate limits of this provider and is
+     * returned to the pool when closed.
+     *
+     * @param source the name of the source
+     * @return a non-null connection
+     * @throws IOException if the connection cannot be established
+     */
+    public @NonNull Connection getConnection(@NonNull String source) throws IOException {
+        return toConnection(properties, pool, limiter, source).getWithIO();
+    }
+
+    /**
+     * Gets the metrics of this provider, also registered as an MBean in the
+     * platform MBean server.
+     *
+     * @return a non-null view of the metrics
+     */
+    public @NonNull SdmxMetricsMXBean getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Cancels the background loading of data started by the prefetch of
+     * expanded nodes.
+     */
+    public void cancelPrefetch() {
+        prefetcher.cancel();
+    }
+
+    /**
+     * Gets the cube of a data source, with all the caching layers of this
+     * provider.
+     *
+     * @param dataSource the data source of this provider
+     * @return a non-null accessor
+     * @throws IOException if the cube cannot be opened
+     */
+    public @NonNull CubeAccessor getCubeAccessor(@NonNull DataSource dataSource) throws IOException {
+        return cubeResource.getAccessor(dataSource);
+    }
+
+    @Override
+    public void dispose() {
+        prefetcher.cancel();
+        background.shutdownNow();
+        pool.close();
+        metrics.unregister();
+        tsSupport.dispose();
+    }
+
     @lombok.AllArgsConstructor
     private static final class SdmxCubeResource implements CubeSupport.Resource {
 
-        private final Cache<DataSource, SdmxCubeItems> cache;
+        private final SdmxCubeItemsCache cache;
         private final HasSdmxProperties<SdmxWebManager> properties;
+        private final SdmxConnectionPool pool;
+        private final SdmxRateLimiter limiter;
+        private final SdmxSingleFlight flight;
+        private final SdmxDiskCache disk;
+        private final SdmxStructureCache structures;
+        private final SdmxPrefetcher prefetcher;
+        private final Executor background;
+        private final SdmxMetrics metrics;
         private final SdmxWebParam param;
         private final BooleanSupplier displayCodes;
 
@@ -124,28 +356,50 @@ public final class SdmxWebProvider implements IDataSourceLoader, HasSdmxProperti
 
         private SdmxCubeItems get(DataSource dataSource) throws IOException {
             DataSourcePreconditions.checkProvider(NAME, dataSource);
-            return GuavaCaches.getOrThrowIOException(cache, dataSource, () -> of(properties, param, dataSource, displayCodes.getAsBoolean()));
+            return cache.get(dataSource, () -> of(properties, pool, limiter, flight, disk, structures, prefetcher, background, metrics, param, dataSource, displayCodes.getAsBoolean()));
         }
 
-        private static SdmxCubeItems of(HasSdmxProperties<SdmxWebManager> properties, SdmxWebParam param, DataSource dataSource, boolean displayCodes) throws IllegalArgumentException, IOException {
+        private static SdmxCubeItems of(HasSdmxProperties<SdmxWebManager> properties, SdmxConnectionPool pool, SdmxRateLimiter limiter, SdmxSingleFlight flight, SdmxDiskCache disk, SdmxStructureCache structures, SdmxPrefetcher prefetcher, Executor background, SdmxMetrics metrics, SdmxWebParam param, DataSource dataSource, boolean displayCodes) throws IllegalArgumentException, IOException {
             SdmxWebBean bean = param.get(dataSource);
 
             FlowRef flowRef = FlowRef.parse(bean.getFlow());
+            DatabaseRef databaseRef = SdmxBeans.getDatabase(bean);
+
+            IOSupplier<Connection> conn = toConnection(properties, pool, limiter, bean.getSource());
+            IOSupplier<SdmxFlowInfo> structure = toFlowInfo(properties, structures, conn, bean.getSource(), databaseRef, flowRef);
+
+            // results on disk must not outlive the in-memory ones, otherwise
+            // reloading them would read the same outdated results again
+            Duration ttl = SdmxBulkCubeAccessor.getReloadAge(bean.getCacheTtl(), bean.getCacheMode() == SdmxCacheMode.REFRESH_AHEAD);
+
+            SdmxCubeAccessor cube = SdmxCubeAccessor.of(conn, flight, disk, ttl, metrics, structure, properties::getLanguages, databaseRef, flowRef, bean.getDimensions(), bean.getLabelAttribute(), bean.getAggregationType(), bean.getSource(), displayCodes, bean.isKeyIndex());
+            cube.warmUp(background);
 
-            IOSupplier<Connection> conn = toConnection(properties, bean.getSource());
+            CubeAccessor accessor = SdmxBulkCubeAccessor.of(cube, bean.getCacheDepth(), bean.getCacheTtl(), bean.getCacheMode() == SdmxCacheMode.REFRESH_AHEAD, background, metrics, cube::getKeyCodec);
 
-            CubeAccessor accessor = SdmxCubeAccessor
-                    .of(conn, SdmxBeans.getDatabase(bean), flowRef, bean.getDimensions(), bean.getLabelAttribute(), bean.getSource(), displayCodes)
-                    .bulk(bean.getCacheDepth(), GuavaCaches.ttlCacheAsMap(bean.getCacheTtl()));
+            if (!bean.getCacheTtl().isZero()) {
+                accessor = SdmxPrefetchingCubeAccessor.of(accessor, prefetcher, bean.getSource(), bean.getPrefetchParallelism(), bean.getCacheDepth());
+            }
 
             IParam<DataSet, CubeId> idParam = param.getCubeIdParam(accessor.getRoot());
 
             return new SdmxCubeItems(accessor, idParam);
         }
+    }
 
-        private static IOSupplier<Connection> toConnection(HasSdmxProperties<SdmxWebManager> properties, String name) {
-            SdmxWebManager manager = properties.getSdmxManager();
-            return () -> manager.getConnection(name, properties.getLanguages());
-        }
+    private static IOSupplier<Connection> toConnection(HasSdmxProperties<SdmxWebManager> properties, SdmxConnectionPool pool, SdmxRateLimiter limiter, String name) {
+        SdmxWebManager manager = properties.getSdmxManager();
+        return () -> {
+            Languages languages = properties.getLanguages();
+            return limiter.acquire(name, () -> pool.borrow(name, languages, () -> manager.getConnection(name, languages)));
+        };
+    }
+
+    private static IOSupplier<SdmxFlowInfo> toFlowInfo(HasSdmxProperties<SdmxWebManager> properties, SdmxStructureCache structures, IOSupplier<Connection> supplier, String name, DatabaseRef database, FlowRef flow) {
+        return () -> structures.getOrLoad(name, properties.getLanguages(), database, flow, () -> {
+            try (Connection conn = supplier.getWithIO()) {
+                return SdmxFlowInfo.of(conn.getMeta(database, flow));
+            }
+        });
     }
 }
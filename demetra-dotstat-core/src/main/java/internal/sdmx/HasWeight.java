@@ -0,0 +1,43 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+/**
+ * Object whose memory footprint can be estimated.
+ *
+ * @author Philippe Charles
+ */
+public interface HasWeight {
+
+    /**
+     * Gets the estimated size of this object in memory.
+     *
+     * @return a size in bytes
+     */
+    long getWeight();
+
+    /**
+     * Gets the estimated size of an object in memory.
+     *
+     * @param obj the object, weighted only if it implements this interface
+     * @param defaultWeight the weight of an object that cannot be weighted
+     * @return a size in bytes
+     */
+    static long weightOf(Object obj, long defaultWeight) {
+        return obj instanceof HasWeight ? ((HasWeight) obj).getWeight() : defaultWeight;
+    }
+}
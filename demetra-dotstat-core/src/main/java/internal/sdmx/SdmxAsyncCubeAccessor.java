@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeAccessor;
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.IteratorWithIO;
+import lombok.NonNull;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking view of a cube accessor.
+ * <p>
+ * Each query runs on the executor of this view and its result is fully
+ * loaded before completing the future. Failures complete the future
+ * exceptionally with the original exception. A query whose future is
+ * cancelled before it starts is not run.
+ * <p>
+ * The delegate is typically the cube of a data source returned by
+ * {@code SdmxWebProvider#getCubeAccessor}.
+ *
+ * @author Philippe Charles
+ */
+@lombok.RequiredArgsConstructor(staticName = "of")
+public final class SdmxAsyncCubeAccessor {
+
+    @NonNull
+    private final CubeAccessor delegate;
+
+    @NonNull
+    private final Executor executor;
+
+    @NonNull
+    public CubeAccessor getDelegate() {
+        return delegate;
+    }
+
+    @NonNull
+    public CompletableFuture<IOException> testConnection() {
+        return supplyAsync(delegate::testConnection);
+    }
+
+    @NonNull
+    public CompletableFuture<SdmxSeriesList<CubeId>> getAllSeries(@NonNull CubeId ref) {
+        return supplyAsync(() -> copyOf(delegate.getAllSeries(ref)));
+    }
+
+    @NonNull
+    public CompletableFuture<SdmxSeriesList<CubeId>> getAllSeriesWithData(@NonNull CubeId ref) {
+        return supplyAsync(() -> copyOf(delegate.getAllSeriesWithData(ref)));
+    }
+
+    @NonNull
+    public CompletableFuture<SdmxSeriesList<CubeId>> getSeriesWithData(@NonNull CubeId ref) {
+        return supplyAsync(() -> copyOf(delegate.getSeriesWithData(ref)));
+    }
+
+    @NonNull
+    public CompletableFuture<List<CubeId>> getChildren(@NonNull CubeId ref) {
+        return supplyAsync(() -> copyOf(delegate.getChildren(ref)));
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(IOSupplier<T> supplier) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(supplier.getWithIO());
+                } catch (IOException | RuntimeException | Error ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        } catch (RuntimeException ex) {
+            result.completeExceptionally(ex);
+        }
+        return result;
+    }
+
+    private static SdmxSeriesList<CubeId> copyOf(TsCursor<CubeId> cursor) throws IOException {
+        try (TsCursor<CubeId> closeable = cursor) {
+            return SdmxSeriesList.copyOf(closeable);
+        }
+    }
+
+    private static List<CubeId> copyOf(IteratorWithIO<CubeId> iterator) throws IOException {
+        try (IteratorWithIO<CubeId> closeable = iterator) {
+            List<CubeId> result = new ArrayList<>();
+            while (closeable.hasNext()) {
+                result.add(closeable.next());
+            }
+            return Collections.unmodifiableList(result);
+        }
+    }
+}
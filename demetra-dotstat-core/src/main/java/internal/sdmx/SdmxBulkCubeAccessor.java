@@ -0,0 +1,328 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ec.tss.tsproviders.cube.CubeAccessor;
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.IteratorWithIO;
+import ec.tstoolkit.design.VisibleForTesting;
+import ec.tstoolkit.utilities.GuavaCaches;
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Cube accessor that loads all the series of a node at the cache level in one
+ * request and serves its descendants from this cached result.
+ * <p>
+ * In refresh-ahead mode, an entry that is close to expiry is reloaded in the
+ * background on access and an expired entry is served stale (flagged by the
+ * {@link #STALE_META} key in the metadata of the cursor) while it is being
+ * reloaded. An entry is reloaded on demand only if it has not been accessed
+ * for {@link #STALE_FACTOR} times its time to live.
+ * <p>
+ * The keys of a cached result are dictionary-encoded by a {@link SdmxKeyCodec}
+ * and the descendants of a node are found through a {@link SdmxKeyIndex}
+ * built when the result is cached; a key is decoded to a {@link CubeId} only
+ * when it is returned by a cursor.
+ *
+ * @author Philippe Charles
+ */
+public final class SdmxBulkCubeAccessor implements CubeAccessor, HasWeight {
+
+    public static final String STALE_META = "stale";
+
+    static final double REFRESH_AHEAD_FACTOR = 0.8;
+    static final int STALE_FACTOR = 2;
+
+    /**
+     * Gets the age after which a cached result is loaded again.
+     *
+     * @param ttl the time to live of the cache
+     * @param refreshAhead true if the results are reloaded before they expire
+     * @return a non-null duration
+     */
+    @NonNull
+    public static Duration getReloadAge(@NonNull Duration ttl, boolean refreshAhead) {
+        return refreshAhead ? Duration.ofNanos((long) (ttl.toNanos() * REFRESH_AHEAD_FACTOR)) : ttl;
+    }
+
+    @NonNull
+    public static CubeAccessor of(@NonNull CubeAccessor delegate, int depth, @NonNull Duration ttl, boolean refreshAhead, @NonNull Executor executor, @NonNull SdmxMetrics metrics) {
+        return of(delegate, depth, ttl, refreshAhead, executor, metrics, null);
+    }
+
+    /**
+     * Creates a bulk accessor whose keys are encoded with the code lists of
+     * a structure.
+     *
+     * @param codec the codec of the cube, loaded on first use; if null, the
+     * dictionaries are built from the keys of the cached results
+     */
+    @NonNull
+    public static CubeAccessor of(@NonNull CubeAccessor delegate, int depth, @NonNull Duration ttl, boolean refreshAhead, @NonNull Executor executor, @NonNull SdmxMetrics metrics, @Nullable IOSupplier<SdmxKeyCodec> codec) {
+        return of(delegate, depth, ttl, refreshAhead, executor, metrics, codec, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    static CubeAccessor of(CubeAccessor delegate, int depth, Duration ttl, boolean refreshAhead, Executor executor, SdmxMetrics metrics, IOSupplier<SdmxKeyCodec> codec, LongSupplier nanoClock) {
+        if (depth <= 0 || ttl.isZero() || ttl.isNegative()) {
+            return delegate;
+        }
+        int cacheLevel = Math.max(0, delegate.getRoot().getMaxLevel() - depth);
+        Cache<CubeId, Entry> cache = CacheBuilder.newBuilder()
+                .expireAfterWrite((refreshAhead ? ttl.multipliedBy(STALE_FACTOR) : ttl).toNanos(), TimeUnit.NANOSECONDS)
+                .<CubeId, Entry>removalListener(notification -> {
+                    if (notification.wasEvicted()) {
+                        metrics.recordBulkCacheEviction();
+                    }
+                })
+                .build();
+        int maxLevel = delegate.getRoot().getMaxLevel();
+        IOSupplier<SdmxKeyCodec> codecLoader = codec != null ? codec : () -> SdmxKeyCodec.of(maxLevel);
+        return new SdmxBulkCubeAccessor(delegate, cacheLevel, cache, refreshAhead ? ttl.toNanos() : -1, executor, metrics, codecLoader, nanoClock);
+    }
+
+    private final CubeAccessor delegate;
+    private final int cacheLevel;
+    private final Cache<CubeId, Entry> cache;
+    private final long refreshAheadTtl;
+    private final Executor executor;
+    private final SdmxMetrics metrics;
+    private final LongSupplier nanoClock;
+    private final Set<CubeId> refreshing;
+    private final IOSupplier<SdmxKeyCodec> codecLoader;
+    private final ReentrantLock codecLock = new ReentrantLock();
+    private volatile SdmxKeyCodec codec;
+
+    private SdmxBulkCubeAccessor(CubeAccessor delegate, int cacheLevel, Cache<CubeId, Entry> cache, long refreshAheadTtl, Executor executor, SdmxMetrics metrics, IOSupplier<SdmxKeyCodec> codecLoader, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.cacheLevel = cacheLevel;
+        this.cache = cache;
+        this.refreshAheadTtl = refreshAheadTtl;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.nanoClock = nanoClock;
+        this.refreshing = ConcurrentHashMap.newKeySet();
+        this.codecLoader = codecLoader;
+    }
+
+    @Override
+    public IOException testConnection() {
+        return delegate.testConnection();
+    }
+
+    @Override
+    public @NonNull CubeId getRoot() {
+        return delegate.getRoot();
+    }
+
+    @Override
+    public @NonNull TsCursor<CubeId> getAllSeries(@NonNull CubeId id) throws IOException {
+        return delegate.getAllSeries(id);
+    }
+
+    @Override
+    public @NonNull TsCursor<CubeId> getAllSeriesWithData(@NonNull CubeId id) throws IOException {
+        if (!id.isSeries()) {
+            if (id.getLevel() >= cacheLevel) {
+                return getCached(getAncestor(id), id);
+            }
+        }
+        return delegate.getAllSeriesWithData(id);
+    }
+
+    @Override
+    public @NonNull TsCursor<CubeId> getSeriesWithData(@NonNull CubeId id) throws IOException {
+        if (id.isSeries()) {
+            return getCached(getAncestor(id), id);
+        }
+        return delegate.getSeriesWithData(id);
+    }
+
+    @Override
+    public @NonNull IteratorWithIO<CubeId> getChildren(@NonNull CubeId id) throws IOException {
+        return delegate.getChildren(id);
+    }
+
+    @Override
+    public @NonNull String getDisplayName() throws IOException {
+        return delegate.getDisplayName();
+    }
+
+    @Override
+    public @NonNull String getDisplayName(@NonNull CubeId id) throws IOException {
+        return delegate.getDisplayName(id);
+    }
+
+    @Override
+    public @NonNull String getDisplayNodeName(@NonNull CubeId id) throws IOException {
+        return delegate.getDisplayNodeName(id);
+    }
+
+    @Override
+    public long getWeight() {
+        long result = HasWeight.weightOf(delegate, 0) + HasWeight.weightOf(codec, 0);
+        for (Entry entry : cache.asMap().values()) {
+            result += entry.getWeight();
+        }
+        return result;
+    }
+
+    private TsCursor<CubeId> getCached(CubeId node, CubeId id) throws IOException {
+        Entry entry = cache.getIfPresent(node);
+        if (entry != null) {
+            metrics.recordBulkCacheHit();
+            if (id.getLevel() > node.getLevel()) {
+                metrics.recordBulkCacheAncestorHit();
+            }
+        } else {
+            metrics.recordBulkCacheMiss();
+            entry = GuavaCaches.getOrThrowIOException(cache, node, () -> load(node));
+        }
+        if (refreshAheadTtl >= 0) {
+            long age = nanoClock.getAsLong() - entry.getLoadTime();
+            if (age >= refreshAheadTtl * REFRESH_AHEAD_FACTOR) {
+                refreshInBackground(node);
+            }
+            if (age >= refreshAheadTtl) {
+                return toCursor(entry, node, id).withMetaData(STALE);
+            }
+        }
+        return toCursor(entry, node, id);
+    }
+
+    private TsCursor<CubeId> toCursor(Entry entry, CubeId node, CubeId id) throws IOException {
+        SdmxKeyCodec codec = getCodec();
+        int depth = codec.getDepth();
+        int[] keys = entry.getKeys();
+        List<SdmxSeriesList.Item<Void>> items = entry.getData().getItems();
+        IntStream rows = IntStream.range(0, items.size());
+        if (id.getLevel() > node.getLevel()) {
+            int[] prefix = codec.lookup(id);
+            rows = prefix != null ? IntStream.of(entry.getIndex().getRows(prefix)) : IntStream.empty();
+        }
+        CubeId root = delegate.getRoot();
+        return TsCursor.from(rows.iterator(), row -> items.get(row).getData(), row -> items.get(row).getMeta(), row -> items.get(row).getLabel())
+                .transform(row -> codec.decode(root, keys, row * depth));
+    }
+
+    private void refreshInBackground(CubeId node) {
+        if (refreshing.add(node)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        cache.put(node, load(node));
+                    } catch (IOException | RuntimeException ex) {
+                        // the stale entry is kept until it expires
+                    } finally {
+                        refreshing.remove(node);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                refreshing.remove(node);
+            }
+        }
+    }
+
+    private Entry load(CubeId node) throws IOException {
+        SdmxKeyCodec codec = getCodec();
+        int depth = codec.getDepth();
+        try (TsCursor<CubeId> cursor = delegate.getAllSeriesWithData(node)) {
+            List<SdmxSeriesList.Item<Void>> items = new ArrayList<>();
+            int[] keys = new int[depth * 16];
+            while (cursor.nextSeries()) {
+                int offset = items.size() * depth;
+                if (offset + depth > keys.length) {
+                    keys = Arrays.copyOf(keys, keys.length * 2);
+                }
+                codec.encode(cursor.getSeriesId(), keys, offset);
+                items.add(new SdmxSeriesList.Item<>(null, cursor.getSeriesLabel(), cursor.getSeriesMetaData(), cursor.getSeriesData()));
+            }
+            SdmxSeriesList<Void> data = SdmxSeriesList.of(items);
+            keys = Arrays.copyOf(keys, items.size() * depth);
+            SdmxKeyIndex index = SdmxKeyIndex.of(keys, depth, cacheLevel);
+            return new Entry(data, keys, index, data.getWeight() + (long) Integer.BYTES * keys.length + index.getWeight(), nanoClock.getAsLong());
+        }
+    }
+
+    private SdmxKeyCodec getCodec() throws IOException {
+        SdmxKeyCodec result = codec;
+        if (result == null) {
+            codecLock.lock();
+            try {
+                result = codec;
+                if (result == null) {
+                    result = codecLoader.getWithIO();
+                    codec = result;
+                }
+            } finally {
+                codecLock.unlock();
+            }
+        }
+        return result;
+    }
+
+    private CubeId getAncestor(CubeId id) {
+        return getAncestor(delegate.getRoot(), id, cacheLevel);
+    }
+
+    static CubeId getAncestor(CubeId root, CubeId id, int level) {
+        if (id.getLevel() == level) {
+            return id;
+        }
+        if (level == 0) {
+            return root;
+        }
+        String[] values = new String[level];
+        for (int i = 0; i < level; i++) {
+            values[i] = id.getDimensionValue(i);
+        }
+        return root.child(values);
+    }
+
+    private static final Map<String, String> STALE = Collections.singletonMap(STALE_META, Boolean.TRUE.toString());
+
+    @lombok.Value
+    private static class Entry {
+
+        SdmxSeriesList<Void> data;
+        int[] keys;
+        SdmxKeyIndex index;
+        long weight;
+        long loadTime;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+/**
+ * Way of listing the children of a node.
+ *
+ * @author Philippe Charles
+ * @see SdmxQueryUtil#getChildrenStrategy(sdmxdl.Connection)
+ */
+public enum SdmxChildrenStrategy {
+
+    /**
+     * Distinct codes of a query of series keys that is filtered by the source,
+     * without attributes nor observations.
+     */
+    KEYS_ONLY,
+    /**
+     * Generic listing of sdmx-dl that works with any source.
+     */
+    GENERIC
+}
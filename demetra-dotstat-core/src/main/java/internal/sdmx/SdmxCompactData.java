@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.utils.OptionalTsData;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Compact encoding of an {@link OptionalTsData} that is decoded on access.
+ * <p>
+ * The domain is stored as frequency, start and length while the values are
+ * packed in a primitive array using the XOR compression of Gorilla: each
+ * value is XORed with the previous one and only the meaningful bits of the
+ * result are kept. Values that do not compress are stored as raw bits.
+ *
+ * @author Philippe Charles
+ * @see <a href="https://www.vldb.org/pvldb/vol8/p1816-teller.pdf">Gorilla: A
+ * Fast, Scalable, In-Memory Time Series Database</a>
+ */
+@lombok.EqualsAndHashCode
+@lombok.AllArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+final class SdmxCompactData {
+
+    @NonNull
+    static SdmxCompactData of(@NonNull OptionalTsData data) {
+        if (!data.isPresent()) {
+            return new SdmxCompactData(false, data.getNbrRows(), data.getNbrUselessRows(), data.getCause(), 0, 0, 0, 0, false, EMPTY);
+        }
+        TsData values = data.get();
+        TsPeriod start = values.getStart();
+        int length = values.getLength();
+        long[] xor = encode(values, length);
+        boolean compressed = xor.length < length;
+        return new SdmxCompactData(true, data.getNbrRows(), data.getNbrUselessRows(), null,
+                values.getFrequency().intValue(), start.getYear(), start.getPosition(), length,
+                compressed, compressed ? xor : raw(values, length));
+    }
+
+    private final boolean present;
+    private final int nbrRows;
+    private final int nbrUselessRows;
+    private final String cause;
+    private final int frequency;
+    private final int startYear;
+    private final int startPosition;
+    private final int length;
+    private final boolean compressed;
+    private final long[] bits;
+
+    @NonNull
+    OptionalTsData decode() {
+        if (!present) {
+            return OptionalTsData.absent(nbrRows, nbrUselessRows, cause);
+        }
+        double[] values = compressed ? decode(bits, length) : raw(bits);
+        return OptionalTsData.present(nbrRows, nbrUselessRows, new TsData(TsFrequency.valueOf(frequency), startYear, startPosition, values, false));
+    }
+
+    /**
+     * Gets the approximate size of the encoded values.
+     *
+     * @return a size in bytes
+     */
+    int getValuesSize() {
+        return bits.length * Long.BYTES;
+    }
+
+    private static final long[] EMPTY = new long[0];
+
+    private static long[] raw(TsData values, int length) {
+        long[] result = new long[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = Double.doubleToRawLongBits(values.get(i));
+        }
+        return result;
+    }
+
+    private static double[] raw(long[] bits) {
+        double[] result = new double[bits.length];
+        for (int i = 0; i < bits.length; i++) {
+            result[i] = Double.longBitsToDouble(bits[i]);
+        }
+        return result;
+    }
+
+    private static long[] encode(TsData values, int length) {
+        BitWriter out = new BitWriter(length);
+        long previous = 0;
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 0; i < length; i++) {
+            long current = Double.doubleToRawLongBits(values.get(i));
+            if (i == 0) {
+                out.write(current, 64);
+            } else {
+                long xor = current ^ previous;
+                if (xor == 0) {
+                    out.write(0, 1);
+                } else {
+                    int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                    int trailing = Long.numberOfTrailingZeros(xor);
+                    if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                        out.write(0b10, 2);
+                        out.write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                    } else {
+                        int significant = 64 - leading - trailing;
+                        out.write(0b11, 2);
+                        out.write(leading, 5);
+                        out.write(significant - 1, 6);
+                        out.write(xor >>> trailing, significant);
+                        previousLeading = leading;
+                        previousTrailing = trailing;
+                    }
+                }
+            }
+            previous = current;
+        }
+        return out.toArray();
+    }
+
+    private static double[] decode(long[] bits, int length) {
+        BitReader in = new BitReader(bits);
+        double[] result = new double[length];
+        long previous = 0;
+        int previousLeading = 0;
+        int previousTrailing = 0;
+        for (int i = 0; i < length; i++) {
+            long current;
+            if (i == 0) {
+                current = in.read(64);
+            } else if (in.read(1) == 0) {
+                current = previous;
+            } else {
+                if (in.read(1) != 0) {
+                    previousLeading = (int) in.read(5);
+                    int significant = (int) in.read(6) + 1;
+                    previousTrailing = 64 - previousLeading - significant;
+                }
+                current = previous ^ (in.read(64 - previousLeading - previousTrailing) << previousTrailing);
+            }
+            result[i] = Double.longBitsToDouble(current);
+            previous = current;
+        }
+        return result;
+    }
+
+    private static long mask(int n) {
+        return n == 64 ? -1L : (1L << n) - 1;
+    }
+
+    private static final class BitWriter {
+
+        private long[] words;
+        private int position;
+
+        BitWriter(int length) {
+            this.words = new long[Math.max(1, length / 2)];
+        }
+
+        void write(long value, int n) {
+            value &= mask(n);
+            int index = position >>> 6;
+            int free = 64 - (position & 63);
+            if (index + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            if (n <= free) {
+                words[index] |= value << (free - n);
+            } else {
+                words[index] |= value >>> (n - free);
+                words[index + 1] |= value << (64 - (n - free));
+            }
+            position += n;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(words, (position + 63) >>> 6);
+        }
+    }
+
+    @lombok.RequiredArgsConstructor
+    private static final class BitReader {
+
+        private final long[] words;
+        private int position;
+
+        long read(int n) {
+            int index = position >>> 6;
+            int free = 64 - (position & 63);
+            long result;
+            if (n <= free) {
+                result = (words[index] >>> (free - n)) & mask(n);
+            } else {
+                result = ((words[index] & mask(free)) << (n - free)) | (words[index + 1] >>> (64 - (n - free)));
+            }
+            position += n;
+            return result;
+        }
+    }
+}
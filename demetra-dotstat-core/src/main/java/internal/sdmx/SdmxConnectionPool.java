@@ -0,0 +1,435 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tstoolkit.design.ThreadSafe;
+import ec.tstoolkit.design.VisibleForTesting;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import sdmxdl.Connection;
+import sdmxdl.DatabaseRef;
+import sdmxdl.Flow;
+import sdmxdl.FlowRef;
+import sdmxdl.Languages;
+import sdmxdl.MetaSet;
+import sdmxdl.Query;
+import sdmxdl.Series;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Bounded pool of reusable connections, keyed by source and languages.
+ * <p>
+ * A borrowed connection is returned to the pool when it is closed. At most
+ * {@code maxIdle} idle connections are kept per key and those that have been
+ * idle for longer than {@code idleTimeout} are closed on the next access to
+ * any key of the pool or by {@link #evictIdle()}.
+ * <p>
+ * At most {@code maxTotal} connections, idle or borrowed, are open per source;
+ * a borrower waits for one of them to be returned for at most
+ * {@code maxWait}. A connection whose request failed with an I/O error is
+ * closed instead of being returned, and so is a connection borrowed before the
+ * last {@link #clear()}.
+ *
+ * @author Philippe Charles
+ */
+@ThreadSafe
+@lombok.RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SdmxConnectionPool implements Closeable {
+
+    public static final int DEFAULT_MAX_IDLE = 4;
+    public static final int DEFAULT_MAX_TOTAL = 8;
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(1);
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(30);
+
+    @NonNull
+    public static SdmxConnectionPool of(int maxIdle, @NonNull Duration idleTimeout) {
+        return of(maxIdle, DEFAULT_MAX_TOTAL, idleTimeout, DEFAULT_MAX_WAIT, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    static SdmxConnectionPool of(int maxIdle, int maxTotal, Duration idleTimeout, Duration maxWait, LongSupplier nanoClock) {
+        SdmxConnectionPool result = new SdmxConnectionPool(nanoClock, new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new AtomicInteger());
+        result.setMaxIdle(maxIdle);
+        result.setMaxTotal(maxTotal);
+        result.setIdleTimeout(idleTimeout);
+        result.setMaxWait(maxWait);
+        return result;
+    }
+
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<PoolKey, Deque<IdleConnection>> idles;
+    private final ConcurrentMap<String, Quota> quotas;
+    private final AtomicInteger generation;
+    private volatile int maxIdle;
+    private volatile int maxTotal;
+    private volatile long idleTimeoutNanos;
+    private volatile long maxWaitNanos;
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    public void setMaxIdle(int maxIdle) {
+        this.maxIdle = Math.max(maxIdle, 0);
+        evictIdle();
+    }
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Sets the maximum number of connections, idle or borrowed, open on a
+     * source.
+     *
+     * @param maxTotal a non-negative number, zero for no limit
+     */
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = Math.max(maxTotal, 0);
+        quotas.values().forEach(Quota::signalAll);
+    }
+
+    @NonNull
+    public Duration getIdleTimeout() {
+        return Duration.ofNanos(idleTimeoutNanos);
+    }
+
+    public void setIdleTimeout(@NonNull Duration idleTimeout) {
+        this.idleTimeoutNanos = idleTimeout.isNegative() ? 0 : idleTimeout.toNanos();
+        evictIdle();
+    }
+
+    @NonNull
+    public Duration getMaxWait() {
+        return Duration.ofNanos(maxWaitNanos);
+    }
+
+    public void setMaxWait(@NonNull Duration maxWait) {
+        this.maxWaitNanos = maxWait.isNegative() ? 0 : maxWait.toNanos();
+    }
+
+    /**
+     * Borrows an idle connection or opens a new one once the source has fewer
+     * than {@code maxTotal} open connections.
+     *
+     * @param source the name of the source
+     * @param languages the languages of the connection
+     * @param factory the function that opens a new connection
+     * @return a non-null connection that is returned to the pool when closed
+     * @throws IOException if the connection cannot be established, if no
+     * connection is available within {@code maxWait} or if the thread is
+     * interrupted while waiting
+     */
+    @NonNull
+    public Connection borrow(@NonNull String source, @NonNull Languages languages, @NonNull IOSupplier<Connection> factory) throws IOException {
+        PoolKey key = new PoolKey(source, languages);
+        evictIdle();
+        Quota quota = getQuota(source);
+        int current = generation.get();
+        IdleConnection idle = quota.reserve(key, current);
+        if (idle != null) {
+            return new PooledConnection(this, key, idle.getGeneration(), idle.getConnection());
+        }
+        try {
+            return new PooledConnection(this, key, current, factory.getWithIO());
+        } catch (IOException | RuntimeException ex) {
+            quota.free();
+            throw ex;
+        }
+    }
+
+    @NonNull
+    public IOSupplier<Connection> asSupplier(@NonNull String source, @NonNull Languages languages, @NonNull IOSupplier<Connection> factory) {
+        return () -> borrow(source, languages, factory);
+    }
+
+    /**
+     * Closes all the idle connections that have exceeded their idle timeout.
+     */
+    public void evictIdle() {
+        long now = nanoClock.getAsLong();
+        idles.forEach((key, deque) -> trim(key, deque, now));
+    }
+
+    /**
+     * Closes all the idle connections and the borrowed ones once they are
+     * returned.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        idles.forEach((key, deque) -> {
+            IdleConnection idle;
+            while ((idle = deque.pollLast()) != null) {
+                discard(key, idle.getConnection());
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        maxIdle = 0;
+        clear();
+    }
+
+    @VisibleForTesting
+    int getIdleCount() {
+        return idles.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    @VisibleForTesting
+    int getOpenCount(String source) {
+        Quota quota = quotas.get(source);
+        return quota != null ? quota.getOpen() : 0;
+    }
+
+    private Quota getQuota(String source) {
+        return quotas.computeIfAbsent(source, o -> new Quota());
+    }
+
+    private void release(PoolKey key, int connectionGeneration, Connection connection, boolean broken) throws IOException {
+        if (broken || maxIdle == 0 || connectionGeneration != generation.get()) {
+            try {
+                connection.close();
+            } finally {
+                getQuota(key.getSource()).free();
+            }
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        Deque<IdleConnection> deque = idles.computeIfAbsent(key, o -> new ConcurrentLinkedDeque<>());
+        deque.offerFirst(new IdleConnection(connection, connectionGeneration, now));
+        trim(key, deque, now);
+        getQuota(key.getSource()).signalAll();
+    }
+
+    private IdleConnection pollIdle(PoolKey key, int current) {
+        Deque<IdleConnection> deque = idles.get(key);
+        if (deque != null) {
+            long now = nanoClock.getAsLong();
+            IdleConnection idle;
+            while ((idle = deque.pollFirst()) != null) {
+                if (idle.getGeneration() == current && !isExpired(idle, now)) {
+                    return idle;
+                }
+                discard(key, idle.getConnection());
+            }
+        }
+        return null;
+    }
+
+    private boolean discardIdleOfOtherKey(PoolKey key) {
+        for (Map.Entry<PoolKey, Deque<IdleConnection>> o : idles.entrySet()) {
+            if (o.getKey().getSource().equals(key.getSource()) && !o.getKey().equals(key)) {
+                IdleConnection idle = o.getValue().pollLast();
+                if (idle != null) {
+                    discard(o.getKey(), idle.getConnection());
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void trim(PoolKey key, Deque<IdleConnection> deque, long now) {
+        int count = 0;
+        Iterator<IdleConnection> iterator = deque.iterator();
+        while (iterator.hasNext()) {
+            IdleConnection idle = iterator.next();
+            if (++count > maxIdle || isExpired(idle, now)) {
+                if (deque.removeFirstOccurrence(idle)) {
+                    discard(key, idle.getConnection());
+                }
+            }
+        }
+    }
+
+    private void discard(PoolKey key, Connection connection) {
+        closeQuietly(connection);
+        getQuota(key.getSource()).free();
+    }
+
+    private boolean isExpired(IdleConnection idle, long now) {
+        return now - idle.getSince() >= idleTimeoutNanos;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (IOException ex) {
+            // nothing to do: the connection is discarded anyway
+        }
+    }
+
+    @lombok.Value
+    private static class PoolKey {
+
+        String source;
+        Languages languages;
+    }
+
+    @lombok.Value
+    private static class IdleConnection {
+
+        Connection connection;
+        int generation;
+        long since;
+    }
+
+    /**
+     * Number of connections open on a source. Uses a lock instead of a
+     * monitor so that a waiting virtual thread does not pin its carrier
+     * thread.
+     */
+    private final class Quota {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private int open = 0;
+
+        IdleConnection reserve(PoolKey key, int current) throws IOException {
+            lock.lock();
+            try {
+                long remaining = maxWaitNanos;
+                while (true) {
+                    IdleConnection idle = pollIdle(key, current);
+                    if (idle != null) {
+                        return idle;
+                    }
+                    int max = maxTotal;
+                    if (max == 0 || open < max) {
+                        open++;
+                        return null;
+                    }
+                    if (discardIdleOfOtherKey(key)) {
+                        continue;
+                    }
+                    if (remaining <= 0) {
+                        throw new IOException("Timeout while waiting for a connection to source '" + key.getSource() + "'");
+                    }
+                    remaining = changed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                InterruptedIOException result = new InterruptedIOException("Interrupted while waiting for a connection to source '" + key.getSource() + "'");
+                result.initCause(ex);
+                throw result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void free() {
+            lock.lock();
+            try {
+                open--;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void signalAll() {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getOpen() {
+            lock.lock();
+            try {
+                return open;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @lombok.RequiredArgsConstructor
+    private static final class PooledConnection implements Connection {
+
+        private final SdmxConnectionPool pool;
+        private final PoolKey key;
+        private final int generation;
+
+        @lombok.experimental.Delegate(excludes = Closeable.class)
+        private final Connection delegate;
+
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        private volatile boolean broken = false;
+
+        @Override
+        public void testConnection() throws IOException {
+            report(() -> {
+                delegate.testConnection();
+                return null;
+            });
+        }
+
+        @Override
+        public MetaSet getMeta(DatabaseRef database, FlowRef flowRef) throws IOException {
+            return report(() -> delegate.getMeta(database, flowRef));
+        }
+
+        @Override
+        public Collection<Flow> getFlows(DatabaseRef database) throws IOException {
+            return report(() -> delegate.getFlows(database));
+        }
+
+        @Override
+        public Stream<Series> getDataStream(DatabaseRef database, FlowRef flowRef, Query query) throws IOException {
+            Stream<Series> result = report(() -> delegate.getDataStream(database, flowRef, query));
+            return SdmxConnections.onFailure(result, ex -> broken = true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (released.compareAndSet(false, true)) {
+                pool.release(key, generation, delegate, broken);
+            }
+        }
+
+        private <T> T report(IOSupplier<T> request) throws IOException {
+            try {
+                return request.getWithIO();
+            } catch (IOException ex) {
+                broken = true;
+                throw ex;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Helpers for the decorators of connections.
+ *
+ * @author Philippe Charles
+ */
+@lombok.experimental.UtilityClass
+class SdmxConnections {
+
+    /**
+     * Reports the I/O errors raised while consuming a lazy stream of a
+     * connection.
+     *
+     * @param <T>
+     * @param stream the stream of a connection
+     * @param listener the function notified of an error before it is rethrown
+     * @return a sequential stream that closes the original one
+     */
+    <T> Stream<T> onFailure(Stream<T> stream, Consumer<? super UncheckedIOException> listener) {
+        Iterator<T> iterator = stream.iterator();
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return iterator.hasNext();
+                } catch (UncheckedIOException ex) {
+                    listener.accept(ex);
+                    throw ex;
+                }
+            }
+
+            @Override
+            public T next() {
+                try {
+                    return iterator.next();
+                } catch (UncheckedIOException ex) {
+                    listener.accept(ex);
+                    throw ex;
+                }
+            }
+        }, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(stream::close);
+    }
+}
@@ -16,21 +16,32 @@
  */
 package internal.sdmx;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import ec.tss.tsproviders.cube.CubeAccessor;
 import ec.tss.tsproviders.cube.CubeId;
 import ec.tss.tsproviders.cursor.TsCursor;
 import ec.tss.tsproviders.utils.IteratorWithIO;
 import ec.tstoolkit.design.VisibleForTesting;
+import ec.tstoolkit.timeseries.TsAggregationType;
 import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import sdmxdl.*;
-import sdmxdl.ext.SdmxCubeUtil;
 import standalone_sdmxdl.nbbrd.io.WrappedIOException;
 import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -38,23 +49,84 @@ import java.util.stream.IntStream;
  * @author Philippe Charles
  */
 @lombok.RequiredArgsConstructor
-public final class SdmxCubeAccessor implements CubeAccessor {
+public final class SdmxCubeAccessor implements CubeAccessor, HasWeight {
 
-    public static SdmxCubeAccessor of(IOSupplier<Connection> supplier, DatabaseRef databaseRef, FlowRef flowRef, List<String> dimensions, String labelAttribute, String sourceLabel, boolean displayCodes) throws IOException {
-        try (Connection conn = supplier.getWithIO()) {
-            MetaSet meta = conn.getMeta(databaseRef, flowRef);
-            CubeId root = getOrLoadRoot(dimensions, meta.getStructure());
-            return new SdmxCubeAccessor(supplier, databaseRef, meta, root, labelAttribute, sourceLabel, displayCodes);
+    public static SdmxCubeAccessor of(IOSupplier<Connection> supplier, DatabaseRef databaseRef, FlowRef flowRef, List<String> dimensions, String labelAttribute, TsAggregationType aggregation, String sourceLabel, boolean displayCodes) throws IOException {
+        return of(supplier, null, null, Duration.ZERO, null, null, null, databaseRef, flowRef, dimensions, labelAttribute, aggregation, sourceLabel, displayCodes, false);
+    }
+
+    /**
+     * Creates an accessor whose queries are coalesced with the identical ones
+     * that are already in flight for the same source.
+     *
+     * @param supplier
+     * @param flight the shared single-flight of the source, null to disable
+     * coalescing and the batching of the leaves requested concurrently
+     * @param disk the persistent cache of the series, null to disable it; only
+     * used along with coalescing
+     * @param ttl the age after which a result of the persistent cache is
+     * downloaded again, capped by the time to live of the persistent cache,
+     * and after which the key index is rebuilt; zero to disable the persistent
+     * cache and to keep the key index as long as the accessor
+     * @param metrics the metrics of the provider, null to disable them
+     * @param structure the function that gets the structure of the flow,
+     * typically from a {@link SdmxStructureCache}; null to download it from
+     * the source
+     * @param languages the function that gets the languages of the
+     * connections, null if they are not relevant
+     * @param databaseRef
+     * @param flowRef
+     * @param dimensions the order of the dimensions in the cube; if not
+     * empty, the structure of the flow is only loaded on first use
+     * @param labelAttribute
+     * @param aggregation the aggregation of the observations that share a
+     * month, None to reject them
+     * @param source the identifier of the source, also used as its label
+     * @param displayCodes
+     * @param keyIndex true to download the keys of the flow once per ttl and
+     * answer the navigation in the cube from them
+     * @return
+     * @throws IOException
+     * @see SdmxKeyTrie
+     */
+    public static SdmxCubeAccessor of(IOSupplier<Connection> supplier, @Nullable SdmxSingleFlight flight, @Nullable SdmxDiskCache disk, @NonNull Duration ttl, @Nullable SdmxMetrics metrics, @Nullable IOSupplier<SdmxFlowInfo> structure, @Nullable Supplier<Languages> languages, DatabaseRef databaseRef, FlowRef flowRef, List<String> dimensions, String labelAttribute, TsAggregationType aggregation, String source, boolean displayCodes, boolean keyIndex) throws IOException {
+        IOSupplier<SdmxFlowInfo> loader = structure != null ? structure : () -> loadInfo(supplier, databaseRef, flowRef);
+        if (!dimensions.isEmpty()) {
+            return new SdmxCubeAccessor(supplier, flight, disk, ttl, metrics, loader, languages != null ? languages : () -> Languages.ANY, databaseRef, flowRef, CubeId.root(dimensions), labelAttribute, aggregation, source, displayCodes, keyIndex);
         }
+        SdmxFlowInfo info = loader.getWithIO();
+        SdmxCubeAccessor result = new SdmxCubeAccessor(supplier, flight, disk, ttl, metrics, loader, languages != null ? languages : () -> Languages.ANY, databaseRef, flowRef, CubeId.root(loadDefaultDimIds(info)), labelAttribute, aggregation, source, displayCodes, keyIndex);
+        result.info = info;
+        return result;
     }
 
     private final IOSupplier<Connection> supplier;
+    private final SdmxSingleFlight flight;
+    private final SdmxDiskCache disk;
+    private final Duration ttl;
+    private final SdmxMetrics metrics;
+    private final IOSupplier<SdmxFlowInfo> structure;
+    private final Supplier<Languages> languages;
     private final DatabaseRef databaseRef;
-    private final MetaSet meta;
+    private final FlowRef flowRef;
     private final CubeId root;
     private final String labelAttribute;
+    private final TsAggregationType aggregation;
     private final String sourceLabel;
     private final boolean displayCodes;
+    private final boolean keyIndex;
+    // locks instead of monitors so that a virtual thread waiting for a
+    // download does not pin its carrier thread
+    private final ReentrantLock infoLock = new ReentrantLock();
+    private final ReentrantLock keyTrieLock = new ReentrantLock();
+    private volatile SdmxFlowInfo info;
+    private volatile SdmxKeyTrie keyTrie;
+    private volatile long keyTrieLoadTime;
+    private volatile List<Map<String, String>> codeLabels;
+    private volatile SdmxKeyCodec keyCodec;
+    private final Cache<CubeId, String> displayNames = CacheBuilder.newBuilder().maximumSize(DISPLAY_NAMES_MAX_SIZE).build();
+    private final Cache<CubeId, String> displayNodeNames = CacheBuilder.newBuilder().maximumSize(DISPLAY_NAMES_MAX_SIZE).build();
+    private final SdmxLeafBatcher<Key, SdmxSeriesList.Item<Key>> batcher = SdmxLeafBatcher.of(this::loadBatch, SdmxLeafBatcher.DEFAULT_MAX_BATCH_SIZE);
 
     @Override
     public IOException testConnection() {
@@ -73,45 +145,63 @@ public final class SdmxCubeAccessor implements CubeAccessor {
 
     @Override
     public @NonNull TsCursor<CubeId> getAllSeries(@NonNull CubeId ref) throws IOException {
-        Connection conn = supplier.getWithIO();
-        try {
-            return getAllSeries(conn, databaseRef, meta, ref, labelAttribute).onClose(conn);
-        } catch (IOException ex) {
-            throw close(conn, ex);
-        } catch (RuntimeException ex) {
-            throw WrappedIOException.wrap(close(conn, ex));
+        if (keyIndex) {
+            return getKeyTrie().getAllSeries(ref);
         }
+        return getSeries(SdmxQueryKind.ALL_SERIES, ref);
     }
 
     @Override
     public @NonNull TsCursor<CubeId> getAllSeriesWithData(@NonNull CubeId ref) throws IOException {
-        Connection conn = supplier.getWithIO();
-        try {
-            return getAllSeriesWithData(conn, databaseRef, meta, ref, labelAttribute).onClose(conn);
-        } catch (IOException ex) {
-            throw close(conn, ex);
-        } catch (RuntimeException ex) {
-            throw WrappedIOException.wrap(close(conn, ex));
-        }
+        return getSeries(SdmxQueryKind.ALL_SERIES_WITH_DATA, ref);
     }
 
     @Override
     public @NonNull TsCursor<CubeId> getSeriesWithData(@NonNull CubeId ref) throws IOException {
-        Connection conn = supplier.getWithIO();
-        try {
-            return getSeriesWithData(conn, databaseRef, meta, ref, labelAttribute).onClose(conn);
-        } catch (IOException ex) {
-            throw close(conn, ex);
-        } catch (RuntimeException ex) {
-            throw WrappedIOException.wrap(close(conn, ex));
+        if (flight == null || !ref.isSeries()) {
+            return getSeries(SdmxQueryKind.SERIES_WITH_DATA, ref);
+        }
+        // the leaves requested concurrently are sent together
+        SdmxKeyConverter<CubeId> converter = SdmxKeyConverter.of(SdmxDimensionTable.of(getInfo()), ref);
+        SdmxSeriesList.Item<Key> result = batcher.get(converter.toKey(ref));
+        return toCursor(result != null ? Collections.singletonList(result) : Collections.emptyList()).transform(converter::fromKey);
+    }
+
+    /**
+     * Gets several leaves with their data in as few requests as possible.
+     * Leaves that cannot be found are absent from the result.
+     *
+     * @param leaves the leaves of this cube
+     * @return a cursor over the leaves that have been found
+     * @throws IOException
+     * @see SdmxKeyPlanner
+     */
+    public @NonNull TsCursor<CubeId> getSeriesWithData(@NonNull Collection<CubeId> leaves) throws IOException {
+        SdmxKeyConverter<CubeId> converter = SdmxKeyConverter.of(SdmxDimensionTable.of(getInfo()), root);
+        List<Key> keys = leaves.stream().map(converter::toKey).distinct().collect(Collectors.toList());
+        Map<Key, SdmxSeriesList.Item<Key>> loaded = loadBatch(keys);
+        List<SdmxSeriesList.Item<Key>> result = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            SdmxSeriesList.Item<Key> item = loaded.get(key);
+            if (item != null) {
+                result.add(item);
+            }
         }
+        return toCursor(result).transform(converter::fromKey);
     }
 
     @Override
     public @NonNull IteratorWithIO<CubeId> getChildren(@NonNull CubeId ref) throws IOException {
+        if (keyIndex) {
+            return IteratorWithIO.from(getKeyTrie().getChildren(ref).iterator()).transform(ref::child);
+        }
+        if (flight != null) {
+            return getSharedChildren(ref);
+        }
+        SdmxFlowInfo info = getInfo();
         Connection conn = supplier.getWithIO();
         try {
-            return getChildren(conn, databaseRef, meta, ref).onClose(conn);
+            return IteratorWithIO.from(getChildren(conn, info, ref).iterator()).transform(ref::child).onClose(conn);
         } catch (IOException ex) {
             throw close(conn, ex);
         } catch (RuntimeException ex) {
@@ -119,17 +209,92 @@ public final class SdmxCubeAccessor implements CubeAccessor {
         }
     }
 
+    /**
+     * Gets the dictionary encoding of the codes of this cube, initialized with
+     * the code lists of the structure of the flow.
+     *
+     * @return a non-null codec shared by all the callers
+     * @throws IOException if the structure cannot be loaded
+     */
+    public @NonNull SdmxKeyCodec getKeyCodec() throws IOException {
+        SdmxKeyCodec result = keyCodec;
+        if (result == null) {
+            List<Map<String, String>> codeLists = getCodeLabels(getInfo());
+            infoLock.lock();
+            try {
+                result = keyCodec;
+                if (result == null) {
+                    result = SdmxKeyCodec.of(codeLists.stream().map(Map::keySet).collect(Collectors.toList()));
+                    keyCodec = result;
+                }
+            } finally {
+                infoLock.unlock();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Loads the structure of the flow in the background if it is not loaded
+     * yet, so that the first use of this accessor does not wait for it.
+     *
+     * @param executor the executor that runs the download
+     */
+    public void warmUp(@NonNull Executor executor) {
+        if (info == null) {
+            executor.execute(() -> {
+                try {
+                    getInfo();
+                } catch (IOException | RuntimeException ex) {
+                    // loaded again on first use
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the estimated size of the structure of the flow, which is dominated
+     * by the code lists of its dimensions, of its key index and of the cached
+     * display names. Parts that are not loaded yet are ignored.
+     *
+     * @return a size in bytes
+     */
+    @Override
+    public long getWeight() {
+        SdmxFlowInfo info = this.info;
+        SdmxKeyTrie trie = keyTrie;
+        long result = STRUCTURE_WEIGHT + (trie != null ? trie.getWeight() : 0)
+                + (displayNames.size() + displayNodeNames.size()) * DISPLAY_NAME_WEIGHT;
+        if (info == null) {
+            return result;
+        }
+        for (SdmxFlowInfo.Component dimension : info.getDimensions()) {
+            for (Map.Entry<String, String> code : dimension.getCodes().entrySet()) {
+                result += SdmxSeriesList.OBJECT_WEIGHT + SdmxSeriesList.weightOf(code.getKey()) + SdmxSeriesList.weightOf(code.getValue());
+            }
+        }
+        return result;
+    }
+
     @Override
     public @NonNull String getDisplayName() {
-        return String.format(Locale.ROOT, "%s ~ %s", sourceLabel, meta.getFlow().getName());
+        SdmxFlowInfo info = this.info;
+        return String.format(Locale.ROOT, "%s ~ %s", sourceLabel, info != null ? info.getName() : flowRef.toString());
     }
 
     @Override
-    public @NonNull String getDisplayName(CubeId id) {
+    public @NonNull String getDisplayName(CubeId id) throws IOException {
         if (id.isVoid()) {
             return "All";
         }
-        return getKey(meta.getStructure(), id).toString();
+        String result = displayNames.getIfPresent(id);
+        if (result == null) {
+            // the key follows the order of the structure, which must be loaded
+            // so that a series never gets two different names
+            result = SdmxKeyConverter.of(SdmxDimensionTable.of(getInfo()), id).toKey(id).toString();
+            displayNames.put(id, result);
+        }
+        return result;
     }
 
     @Override
@@ -137,39 +302,240 @@ public final class SdmxCubeAccessor implements CubeAccessor {
         if (id.isVoid()) {
             return "All";
         }
-        return displayCodes
-                ? getDimensionCodeId(id)
-                : getDimensionCodeLabel(id, meta.getStructure());
+        SdmxFlowInfo info = this.info;
+        if (displayCodes || info == null) {
+            return getDimensionCodeId(id);
+        }
+        String result = displayNodeNames.getIfPresent(id);
+        if (result == null) {
+            result = getDimensionCodeLabel(id, getCodeLabels(info));
+            displayNodeNames.put(id, result);
+        }
+        return result;
     }
 
     //<editor-fold defaultstate="collapsed" desc="Implementation details">
-    private static TsCursor<CubeId> getAllSeries(Connection conn, DatabaseRef databaseRef, MetaSet meta, CubeId node, String labelAttribute) throws IOException {
-        KeyConverter converter = KeyConverter.of(meta.getStructure(), node);
-        return SdmxQueryUtil
-                .getAllSeries(conn, databaseRef, meta.getFlow().getRef(), converter.toKey(node), labelAttribute)
-                .transform(converter::fromKey);
+    private static final long STRUCTURE_WEIGHT = 4 * 1024;
+    private static final long DISPLAY_NAME_WEIGHT = 128;
+    private static final int DISPLAY_NAMES_MAX_SIZE = 10_000;
+
+    // called before opening a connection so that a source limited to one
+    // connection is never asked for a second one
+    private SdmxFlowInfo getInfo() throws IOException {
+        SdmxFlowInfo result = info;
+        if (result == null) {
+            infoLock.lock();
+            try {
+                result = info;
+                if (result == null) {
+                    result = structure.getWithIO();
+                    info = result;
+                }
+            } finally {
+                infoLock.unlock();
+            }
+        }
+        return result;
+    }
+
+    private static SdmxFlowInfo loadInfo(IOSupplier<Connection> supplier, DatabaseRef databaseRef, FlowRef flowRef) throws IOException {
+        try (Connection conn = supplier.getWithIO()) {
+            return SdmxFlowInfo.of(conn.getMeta(databaseRef, flowRef));
+        } catch (RuntimeException ex) {
+            throw WrappedIOException.wrap(ex);
+        }
     }
 
-    private static TsCursor<CubeId> getAllSeriesWithData(Connection conn, DatabaseRef databaseRef, MetaSet meta, CubeId node, String labelAttribute) throws IOException {
-        KeyConverter converter = KeyConverter.of(meta.getStructure(), node);
-        return SdmxQueryUtil
-                .getAllSeriesWithData(conn, databaseRef, meta.getFlow().getRef(), converter.toKey(node), labelAttribute)
-                .transform(converter::fromKey);
+    // the code lists of the dimensions in the order of the cube
+    private List<Map<String, String>> getCodeLabels(SdmxFlowInfo info) {
+        List<Map<String, String>> result = codeLabels;
+        if (result == null) {
+            SdmxDimensionTable table = SdmxDimensionTable.of(info);
+            result = new ArrayList<>(root.getMaxLevel());
+            for (int i = 0; i < root.getMaxLevel(); i++) {
+                result.add(info.getDimensions().get(table.getIndex(root.getDimensionId(i))).getCodes());
+            }
+            codeLabels = result;
+        }
+        return result;
+    }
+
+    private SdmxKeyTrie getKeyTrie() throws IOException {
+        SdmxKeyTrie result = keyTrie;
+        if (result == null) {
+            keyTrieLock.lock();
+            try {
+                result = keyTrie;
+                if (result == null) {
+                    result = reloadKeyTrie();
+                }
+            } finally {
+                keyTrieLock.unlock();
+            }
+        } else if (isKeyTrieExpired() && keyTrieLock.tryLock()) {
+            // the other callers keep the expired index while it is rebuilt
+            try {
+                result = isKeyTrieExpired() ? reloadKeyTrie() : keyTrie;
+            } finally {
+                keyTrieLock.unlock();
+            }
+        }
+        return result;
+    }
+
+    private boolean isKeyTrieExpired() {
+        return ttl.compareTo(Duration.ZERO) > 0 && System.nanoTime() - keyTrieLoadTime >= ttl.toNanos();
     }
 
-    private static TsCursor<CubeId> getSeriesWithData(Connection conn, DatabaseRef databaseRef, MetaSet meta, CubeId leaf, String labelAttribute) throws IOException {
-        KeyConverter converter = KeyConverter.of(meta.getStructure(), leaf);
-        return SdmxQueryUtil
-                .getSeriesWithData(conn, databaseRef, meta.getFlow().getRef(), converter.toKey(leaf), labelAttribute)
-                .transform(converter::fromKey);
+    private SdmxKeyTrie reloadKeyTrie() throws IOException {
+        long start = System.nanoTime();
+        SdmxKeyTrie result = loadKeyTrie();
+        keyTrieLoadTime = start;
+        keyTrie = result;
+        return result;
+    }
+
+    private SdmxKeyTrie loadKeyTrie() throws IOException {
+        int[] positions = SdmxDimensionTable.of(getInfo()).getPositions(SdmxKeyConverter.getDimensionIds(root));
+        try (TsCursor<Key> cursor = openSeries(SdmxQueryKind.ALL_SERIES, Key.ALL)) {
+            return SdmxKeyTrie.of(positions, cursor);
+        } catch (RuntimeException ex) {
+            throw WrappedIOException.wrap(ex);
+        }
+    }
+
+    private TsCursor<CubeId> getSeries(SdmxQueryKind kind, CubeId ref) throws IOException {
+        SdmxKeyConverter<CubeId> converter = SdmxKeyConverter.of(SdmxDimensionTable.of(getInfo()), ref);
+        Key key = converter.toKey(ref);
+        if (flight == null) {
+            return openSeries(kind, key).transform(converter::fromKey);
+        }
+        SdmxQueryKey queryKey = getQueryKey(key, kind);
+        if (!isDiskEnabled()) {
+            return flight.stream(queryKey, () -> openSeries(kind, key)).transform(converter::fromKey);
+        }
+        return getSeriesList(kind, key).toCursor().transform(converter::fromKey);
     }
 
-    private static IteratorWithIO<CubeId> getChildren(Connection conn, DatabaseRef databaseRef, MetaSet meta, CubeId node) throws IOException {
-        KeyConverter converter = KeyConverter.of(meta.getStructure(), node);
-        String dimensionId = node.getDimensionId(node.getLevel());
-        int dimensionIndex = SdmxCubeUtil.getDimensionIndexById(meta.getStructure(), dimensionId).orElseThrow(RuntimeException::new);
-        List<String> children = SdmxQueryUtil.getChildren(conn, databaseRef, meta.getFlow().getRef(), converter.toKey(node), dimensionIndex);
-        return IteratorWithIO.from(children.iterator()).transform(node::child);
+    private boolean isDiskEnabled() {
+        return disk != null && disk.isEnabled() && !ttl.isZero() && !ttl.isNegative();
+    }
+
+    // goes through the same layers as a single query: single-flight, disk
+    // cache and metrics
+    private SdmxSeriesList<Key> getSeriesList(SdmxQueryKind kind, Key key) throws IOException {
+        if (flight == null) {
+            return loadSeries(kind, key);
+        }
+        SdmxQueryKey queryKey = getQueryKey(key, kind);
+        return flight.execute(queryKey, isDiskEnabled()
+                ? () -> disk.getOrLoad(queryKey, ttl, () -> loadSeries(kind, key))
+                : () -> loadSeries(kind, key));
+    }
+
+    // one request per planned key, split by series key
+    private Map<Key, SdmxSeriesList.Item<Key>> loadBatch(List<Key> leaves) throws IOException {
+        Map<Key, SdmxSeriesList.Item<Key>> result = new HashMap<>();
+        for (Key batch : SdmxKeyPlanner.plan(leaves, SdmxKeyPlanner.DEFAULT_MAX_KEY_LENGTH)) {
+            for (SdmxSeriesList.Item<Key> item : getSeriesList(SdmxQueryKind.BATCH_SERIES_WITH_DATA, batch).getItems()) {
+                result.put(item.getId(), item);
+            }
+        }
+        return result;
+    }
+
+    private static TsCursor<Key> toCursor(List<SdmxSeriesList.Item<Key>> items) {
+        return TsCursor.from(items.iterator(), SdmxSeriesList.Item::getData, SdmxSeriesList.Item::getMeta, SdmxSeriesList.Item::getLabel)
+                .transform(SdmxSeriesList.Item::getId);
+    }
+
+    private IteratorWithIO<CubeId> getSharedChildren(CubeId ref) throws IOException {
+        SdmxKeyConverter<CubeId> converter = SdmxKeyConverter.of(SdmxDimensionTable.of(getInfo()), ref);
+        Key key = converter.toKey(ref);
+        List<String> result = flight.execute(getQueryKey(key, SdmxQueryKind.CHILDREN), () -> loadChildren(ref));
+        return IteratorWithIO.from(result.iterator()).transform(ref::child);
+    }
+
+    private SdmxQueryKey getQueryKey(Key key, SdmxQueryKind kind) {
+        return new SdmxQueryKey(sourceLabel, databaseRef, flowRef, key, kind, kind == SdmxQueryKind.ALL_SERIES ? TsAggregationType.None : aggregation, labelAttribute, languages.get());
+    }
+
+    private SdmxSeriesList<Key> loadSeries(SdmxQueryKind kind, Key key) throws IOException {
+        return copyOf(openSeries(kind, key));
+    }
+
+    // the request is metered here, where the connection is used, so that
+    // shared and cached results are not counted as requests
+    private TsCursor<Key> openSeries(SdmxQueryKind kind, Key key) throws IOException {
+        Connection conn = supplier.getWithIO();
+        long start = System.nanoTime();
+        try {
+            TsCursor<Key> result = openSeries(conn, kind, key);
+            return (metrics != null ? SdmxMeteredCursor.of(result, metrics, sourceLabel, kind, start) : result).onClose(conn);
+        } catch (IOException ex) {
+            recordFailure(kind, start);
+            throw close(conn, ex);
+        } catch (RuntimeException ex) {
+            recordFailure(kind, start);
+            throw WrappedIOException.wrap(close(conn, ex));
+        }
+    }
+
+    private void recordFailure(SdmxQueryKind kind, long start) {
+        if (metrics != null) {
+            metrics.recordRequest(sourceLabel, kind, System.nanoTime() - start, 0, true);
+        }
+    }
+
+    private TsCursor<Key> openSeries(Connection conn, SdmxQueryKind kind, Key key) throws IOException {
+        switch (kind) {
+            case ALL_SERIES:
+                return SdmxQueryUtil.getAllSeries(conn, databaseRef, flowRef, key, labelAttribute);
+            case ALL_SERIES_WITH_DATA:
+                return SdmxQueryUtil.getAllSeriesWithData(conn, databaseRef, flowRef, key, labelAttribute, aggregation);
+            case SERIES_WITH_DATA:
+                return SdmxQueryUtil.getSeriesWithData(conn, databaseRef, flowRef, key, labelAttribute, aggregation);
+            case BATCH_SERIES_WITH_DATA:
+                return SdmxQueryUtil.getBatchSeriesWithData(conn, databaseRef, flowRef, key, labelAttribute, aggregation);
+            default:
+                throw new IllegalArgumentException(kind.name());
+        }
+    }
+
+    private List<String> loadChildren(CubeId ref) throws IOException {
+        SdmxFlowInfo info = getInfo();
+        try (Connection conn = supplier.getWithIO()) {
+            return Collections.unmodifiableList(getChildren(conn, info, ref));
+        } catch (RuntimeException ex) {
+            throw WrappedIOException.wrap(ex);
+        }
+    }
+
+    private List<String> getChildren(Connection conn, SdmxFlowInfo info, CubeId node) throws IOException {
+        SdmxDimensionTable table = SdmxDimensionTable.of(info);
+        SdmxKeyConverter<CubeId> converter = SdmxKeyConverter.of(table, node);
+        int dimensionIndex = table.getIndex(node.getDimensionId(node.getLevel()));
+        SdmxChildrenStrategy strategy = SdmxQueryUtil.getChildrenStrategy(conn);
+        if (metrics != null) {
+            metrics.recordChildrenStrategy(sourceLabel, strategy);
+        }
+        long start = System.nanoTime();
+        try {
+            List<String> result = SdmxQueryUtil.getChildren(conn, databaseRef, flowRef, converter.toKey(node), dimensionIndex, strategy);
+            if (metrics != null) {
+                metrics.recordRequest(sourceLabel, SdmxQueryKind.CHILDREN, System.nanoTime() - start, 0, false);
+            }
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            recordFailure(SdmxQueryKind.CHILDREN, start);
+            throw ex;
+        }
+    }
+
+    private static SdmxSeriesList<Key> copyOf(TsCursor<Key> cursor) throws IOException {
+        try (TsCursor<Key> closeable = cursor) {
+            return SdmxSeriesList.copyOf(closeable);
+        }
     }
 
     private static <EX extends Throwable> EX close(Connection conn, EX ex) {
@@ -186,12 +552,12 @@ public final class SdmxCubeAccessor implements CubeAccessor {
         return ref.getDimensionValue(index);
     }
 
-    private static String getDimensionCodeLabel(CubeId ref, Structure dsd) {
+    private static String getDimensionCodeLabel(CubeId ref, List<Map<String, String>> codeLabels) {
         if (ref.isRoot()) {
             return "Invalid reference '" + dump(ref) + "'";
         }
         int index = ref.getLevel() - 1;
-        Map<String, String> codes = SdmxCubeUtil.getDimensionById(dsd, ref.getDimensionId(index)).orElseThrow(RuntimeException::new).getCodes();
+        Map<String, String> codes = codeLabels.get(index);
         String codeId = ref.getDimensionValue(index);
         return codes.getOrDefault(codeId, codeId);
     }
@@ -204,72 +570,14 @@ public final class SdmxCubeAccessor implements CubeAccessor {
 
     @VisibleForTesting
     static Key getKey(Structure dsd, CubeId ref) {
-        if (ref.isRoot()) {
-            return Key.ALL;
-        }
-        String[] result = new String[ref.getMaxLevel()];
-        for (int i = 0; i < result.length; i++) {
-            String id = ref.getDimensionId(i);
-            String value = i < ref.getLevel() ? ref.getDimensionValue(i) : "";
-            int index = SdmxCubeUtil.getDimensionIndexById(dsd, id).orElseThrow(RuntimeException::new);
-            result[index] = value;
-        }
-        return Key.of(result);
-    }
-
-    @lombok.RequiredArgsConstructor
-    static final class KeyConverter {
-
-        static KeyConverter of(Structure dsd, CubeId ref) {
-            return new KeyConverter(dsd, new CubeIdBuilder(dsd, ref));
-        }
-
-        final Structure dsd;
-        final CubeIdBuilder builder;
-
-        public Key toKey(CubeId a) {
-            return getKey(dsd, a);
-        }
-
-        public CubeId fromKey(Key b) {
-            return builder.getId(b);
-        }
-    }
-
-    private static final class CubeIdBuilder {
-
-        private final CubeId ref;
-        private final int[] indices;
-        private final String[] dimValues;
-
-        CubeIdBuilder(Structure dsd, CubeId ref) {
-            this.ref = ref;
-            this.indices = new int[ref.getDepth()];
-            for (int i = 0; i < indices.length; i++) {
-                indices[i] = SdmxCubeUtil.getDimensionIndexById(dsd, ref.getDimensionId(ref.getLevel() + i)).orElseThrow(RuntimeException::new);
-            }
-            this.dimValues = new String[indices.length];
-        }
-
-        public CubeId getId(Key o) {
-            for (int i = 0; i < indices.length; i++) {
-                dimValues[i] = o.get(indices[i]);
-            }
-            return ref.child(dimValues);
-        }
-    }
-
-    private static CubeId getOrLoadRoot(List<String> dimensions, Structure dsd) {
-        return dimensions.isEmpty()
-                ? CubeId.root(loadDefaultDimIds(dsd))
-                : CubeId.root(dimensions);
+        return SdmxKeyConverter.of(dsd, ref).toKey(ref);
     }
 
-    private static List<String> loadDefaultDimIds(Structure dsd) {
-        return dsd
+    private static List<String> loadDefaultDimIds(SdmxFlowInfo info) {
+        return info
                 .getDimensions()
                 .stream()
-                .map(Dimension::getId)
+                .map(SdmxFlowInfo.Component::getId)
                 .collect(Collectors.toList());
     }
     //</editor-fold>
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ec.tss.tsproviders.DataSource;
+import ec.tstoolkit.design.VisibleForTesting;
+import ec.tstoolkit.utilities.GuavaCaches;
+import lombok.NonNull;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of the items of data sources bounded by an explicit memory budget.
+ * <p>
+ * Items are weighted by the estimated size of their accessor, including the
+ * series it caches, and the least recently used ones are evicted when the
+ * budget is exceeded. Since weighing an accessor walks its structure, the
+ * weight of an item is computed on load and refreshed on access at most once
+ * per {@link #WEIGH_INTERVAL}.
+ * <p>
+ * The most recently used items are pinned so that they are never evicted.
+ * Pinned items are still counted against the budget and are kept as the most
+ * recently used ones, so that the others are evicted first. If the pinned items
+ * alone exceed the budget, they are kept anyway until they are unpinned and
+ * their weight is still reported by {@link #getWeight()}.
+ *
+ * @author Philippe Charles
+ */
+public final class SdmxCubeItemsCache {
+
+    public static final long DEFAULT_BUDGET = 128L * 1024 * 1024;
+    public static final int DEFAULT_MAX_PINNED = 3;
+
+    /**
+     * Weight of an item whose accessor cannot be weighted.
+     */
+    static final long DEFAULT_WEIGHT = 64L * 1024;
+
+    /**
+     * Minimum delay between two weighings of an item.
+     */
+    static final long WEIGH_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+    @NonNull
+    public static SdmxCubeItemsCache of(long budget, int maxPinned) {
+        return of(budget, maxPinned, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    static SdmxCubeItemsCache of(long budget, int maxPinned, LongSupplier nanoClock) {
+        return new SdmxCubeItemsCache(Math.max(0, budget), Math.max(0, maxPinned), nanoClock);
+    }
+
+    private volatile Cache<DataSource, Entry> cache;
+    private final LinkedHashMap<DataSource, Entry> pinned;
+    private final LongSupplier nanoClock;
+    private long budget;
+    private int maxPinned;
+
+    private SdmxCubeItemsCache(long budget, int maxPinned, LongSupplier nanoClock) {
+        this.cache = newCache(budget);
+        this.pinned = new LinkedHashMap<>(16, 0.75f, true);
+        this.nanoClock = nanoClock;
+        this.budget = budget;
+        this.maxPinned = maxPinned;
+    }
+
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    public synchronized void setBudget(long budget) {
+        this.budget = Math.max(0, budget);
+        Cache<DataSource, Entry> old = cache;
+        this.cache = newCache(this.budget);
+        cache.putAll(old.asMap());
+        old.invalidateAll();
+    }
+
+    public synchronized int getMaxPinned() {
+        return maxPinned;
+    }
+
+    public synchronized void setMaxPinned(int maxPinned) {
+        this.maxPinned = Math.max(0, maxPinned);
+        trimPinned();
+    }
+
+    @NonNull
+    public SdmxCubeItems get(@NonNull DataSource dataSource, @NonNull IOSupplier<SdmxCubeItems> loader) throws IOException {
+        Cache<DataSource, Entry> current = cache;
+        Entry result = getPinned(dataSource);
+        if (result != null) {
+            // keeps the pinned item as the most recently used one of the budget
+            Entry entry = current.getIfPresent(dataSource);
+            if (entry != null) {
+                reweighIfNeeded(current, dataSource, entry);
+            }
+        } else {
+            result = GuavaCaches.getOrThrowIOException(current, dataSource, () -> new Entry(loader.getWithIO(), nanoClock.getAsLong()));
+            result = reweighIfNeeded(current, dataSource, result);
+            pin(dataSource, result);
+        }
+        return result.getItems();
+    }
+
+    public void invalidate(@NonNull DataSource dataSource) {
+        synchronized (this) {
+            pinned.remove(dataSource);
+        }
+        cache.invalidate(dataSource);
+    }
+
+    public void invalidateAll() {
+        synchronized (this) {
+            pinned.clear();
+        }
+        cache.invalidateAll();
+    }
+
+    /**
+     * Gets the number of items that are subject to the budget.
+     *
+     * @return a positive number
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Gets the total weight of the items, including the pinned ones that
+     * exceed the budget.
+     *
+     * @return a size in bytes
+     */
+    public long getWeight() {
+        Cache<DataSource, Entry> current = cache;
+        long result = current.asMap().values().stream().mapToLong(Entry::getWeight).sum();
+        synchronized (this) {
+            for (Entry entry : pinned.values()) {
+                if (!current.asMap().containsValue(entry)) {
+                    result += entry.getWeight();
+                }
+            }
+        }
+        return result;
+    }
+
+    static long weigh(SdmxCubeItems items) {
+        return HasWeight.weightOf(items.getAccessor(), DEFAULT_WEIGHT);
+    }
+
+    private Entry reweighIfNeeded(Cache<DataSource, Entry> current, DataSource dataSource, Entry entry) {
+        long now = nanoClock.getAsLong();
+        if (now - entry.getWeighedAt() < WEIGH_INTERVAL) {
+            return entry;
+        }
+        Entry result = new Entry(entry.getItems(), now);
+        if (Math.abs(result.getWeight() - entry.getWeight()) > entry.getWeight() / 4) {
+            current.put(dataSource, result);
+            synchronized (this) {
+                pinned.replace(dataSource, entry, result);
+            }
+            return result;
+        }
+        entry.setWeighedAt(now);
+        return entry;
+    }
+
+    private synchronized Entry getPinned(DataSource dataSource) {
+        return pinned.get(dataSource);
+    }
+
+    private synchronized void pin(DataSource dataSource, Entry entry) {
+        pinned.put(dataSource, entry);
+        trimPinned();
+    }
+
+    private void trimPinned() {
+        while (pinned.size() > maxPinned) {
+            pinned.remove(pinned.keySet().iterator().next());
+        }
+    }
+
+    private static Cache<DataSource, Entry> newCache(long budget) {
+        // a single segment so that the whole budget is available to each item
+        return CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(budget)
+                .weigher((DataSource key, Entry value) -> (int) Math.min(Integer.MAX_VALUE, value.getWeight()))
+                .build();
+    }
+
+    @lombok.Getter
+    private static final class Entry {
+
+        private final SdmxCubeItems items;
+        private final long weight;
+        @lombok.Setter
+        private volatile long weighedAt;
+
+        Entry(SdmxCubeItems items, long weighedAt) {
+            this.items = items;
+            this.weight = weigh(items);
+            this.weighedAt = weighedAt;
+        }
+    }
+}
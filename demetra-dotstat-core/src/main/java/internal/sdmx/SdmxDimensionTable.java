@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import lombok.NonNull;
+import sdmxdl.Dimension;
+import sdmxdl.Structure;
+import sdmxdl.ext.SdmxCubeUtil;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Precomputed positions of the dimensions of a structure.
+ * <p>
+ * A table is shared by all the users of a structure instance and lives as
+ * long as its {@link sdmxdl.MetaSet} or its {@link SdmxFlowInfo}, so that
+ * converting a key is an array lookup instead of a search over the
+ * dimensions.
+ *
+ * @author Philippe Charles
+ */
+public final class SdmxDimensionTable {
+
+    @NonNull
+    public static SdmxDimensionTable of(@NonNull Structure dsd) {
+        return TABLES.getUnchecked(dsd);
+    }
+
+    @NonNull
+    public static SdmxDimensionTable of(@NonNull SdmxFlowInfo info) {
+        return INFO_TABLES.getUnchecked(info);
+    }
+
+    // weak keys are compared by identity
+    private static final LoadingCache<Structure, SdmxDimensionTable> TABLES = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(SdmxDimensionTable::new));
+
+    private static final LoadingCache<SdmxFlowInfo, SdmxDimensionTable> INFO_TABLES = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(CacheLoader.from(SdmxDimensionTable::new));
+
+    private final Map<String, Integer> indexById;
+    private final ConcurrentMap<List<String>, int[]> positionsByOrder;
+
+    private SdmxDimensionTable(Structure dsd) {
+        this.indexById = new HashMap<>();
+        for (Dimension dimension : dsd.getDimensions()) {
+            SdmxCubeUtil.getDimensionIndexById(dsd, dimension.getId()).ifPresent(index -> indexById.put(dimension.getId(), index));
+        }
+        this.positionsByOrder = new ConcurrentHashMap<>();
+    }
+
+    private SdmxDimensionTable(SdmxFlowInfo info) {
+        this.indexById = new HashMap<>();
+        for (SdmxFlowInfo.Component dimension : info.getDimensions()) {
+            indexById.put(dimension.getId(), indexById.size());
+        }
+        this.positionsByOrder = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the number of dimensions.
+     *
+     * @return a non-negative number
+     */
+    public int size() {
+        return indexById.size();
+    }
+
+    /**
+     * Gets the position of a dimension in the keys of the structure.
+     *
+     * @param dimensionId the identifier of the dimension
+     * @return a zero-based position
+     * @throws IllegalArgumentException if the dimension does not exist
+     */
+    public int getIndex(@NonNull String dimensionId) throws IllegalArgumentException {
+        Integer result = indexById.get(dimensionId);
+        if (result == null) {
+            throw new IllegalArgumentException("Dimension not found: '" + dimensionId + "'");
+        }
+        return result;
+    }
+
+    /**
+     * Gets the positions of some dimensions in the keys of the structure.
+     * The result is shared and must not be modified.
+     *
+     * @param dimensionIds the identifiers of the dimensions, in a custom order
+     * @return an array of positions in the same order as the identifiers
+     * @throws IllegalArgumentException if a dimension does not exist
+     */
+    @NonNull
+    public int[] getPositions(@NonNull String... dimensionIds) throws IllegalArgumentException {
+        List<String> order = Arrays.asList(dimensionIds);
+        int[] result = positionsByOrder.get(order);
+        if (result == null) {
+            result = new int[dimensionIds.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = getIndex(dimensionIds[i]);
+            }
+            positionsByOrder.putIfAbsent(Arrays.asList(dimensionIds.clone()), result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import com.google.common.hash.Hashing;
+import ec.tss.tsproviders.utils.OptionalTsData;
+import ec.tstoolkit.design.VisibleForTesting;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import sdmxdl.Key;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Persistent cache of decoded series that survives restarts.
+ * <p>
+ * Each query result is stored in its own file whose name is derived from the
+ * identity of the query. Files are read in a single call on a heap buffer
+ * rather than memory-mapped, so that they can still be replaced or deleted
+ * right after on Windows. Entries expire after
+ * a time to live, that a caller can shorten to match its own caching policy,
+ * and the least recently used ones are evicted when the folder exceeds its
+ * maximum size.
+ * <p>
+ * The cache is best-effort: an entry that cannot be read or written is
+ * considered as missing. The counts and lengths read from an entry are
+ * checked against its remaining bytes so that a corrupt entry cannot exhaust
+ * the memory.
+ *
+ * @author Philippe Charles
+ */
+public final class SdmxDiskCache {
+
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+    public static final Duration DEFAULT_TTL = Duration.ofDays(1);
+
+    @NonNull
+    public static SdmxDiskCache of(@Nullable Path folder, long maxSize, @NonNull Duration ttl) {
+        return of(folder, maxSize, ttl, System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    static SdmxDiskCache of(Path folder, long maxSize, Duration ttl, LongSupplier clock) {
+        return new SdmxDiskCache(clock, folder, Math.max(0, maxSize), ttl);
+    }
+
+    private static final String EXTENSION = ".series";
+    private static final int MAGIC = 0x53444D58;
+    private static final int VERSION = 2;
+    private static final long UNKNOWN_SIZE = -1;
+
+    private final LongSupplier clock;
+    private volatile Path folder;
+    private volatile long maxSize;
+    private volatile Duration ttl;
+    // size of the folder, tracked on writes so that it is only listed when it
+    // must be trimmed
+    private final AtomicLong size = new AtomicLong(UNKNOWN_SIZE);
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    private SdmxDiskCache(LongSupplier clock, Path folder, long maxSize, Duration ttl) {
+        this.clock = clock;
+        this.folder = folder;
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+    @Nullable
+    public Path getFolder() {
+        return folder;
+    }
+
+    public void setFolder(@Nullable Path folder) {
+        this.folder = folder;
+        size.set(UNKNOWN_SIZE);
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+        evictIfNeeded();
+    }
+
+    @NonNull
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(@NonNull Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public boolean isEnabled() {
+        return folder != null && maxSize > 0 && !ttl.isZero() && !ttl.isNegative();
+    }
+
+    /**
+     * Gets the result of a query from the disk or loads it and stores it on
+     * the disk.
+     *
+     * @param key the identity of the query
+     * @param loader the function that sends the query
+     * @return a non-null result
+     * @throws IOException if the result cannot be loaded
+     */
+    @NonNull
+    public SdmxSeriesList<Key> getOrLoad(@NonNull SdmxQueryKey key, @NonNull IOSupplier<SdmxSeriesList<Key>> loader) throws IOException {
+        return getOrLoad(key, ttl, loader);
+    }
+
+    /**
+     * Gets the result of a query from the disk if it is younger than a
+     * maximum age or loads it and stores it on the disk.
+     *
+     * @param key the identity of the query
+     * @param maxAge the maximum age of the stored result, capped by the time
+     * to live of this cache
+     * @param loader the function that sends the query
+     * @return a non-null result
+     * @throws IOException if the result cannot be loaded
+     */
+    @NonNull
+    public SdmxSeriesList<Key> getOrLoad(@NonNull SdmxQueryKey key, @NonNull Duration maxAge, @NonNull IOSupplier<SdmxSeriesList<Key>> loader) throws IOException {
+        if (!isEnabled() || maxAge.isZero() || maxAge.isNegative()) {
+            return loader.getWithIO();
+        }
+        SdmxSeriesList<Key> result = get(key, maxAge);
+        if (result == null) {
+            result = loader.getWithIO();
+            put(key, result);
+        }
+        return result;
+    }
+
+    @Nullable
+    public SdmxSeriesList<Key> get(@NonNull SdmxQueryKey key) {
+        return get(key, ttl);
+    }
+
+    @Nullable
+    public SdmxSeriesList<Key> get(@NonNull SdmxQueryKey key, @NonNull Duration maxAge) {
+        Path root = folder;
+        if (root == null) {
+            return null;
+        }
+        Path file = root.resolve(getFileName(key));
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            long now = clock.getAsLong();
+            if (maxAge.compareTo(ttl) < 0 && readCreation(file) <= now - maxAge.toMillis()) {
+                // too old for the caller but still valid for the others
+                return null;
+            }
+            SdmxSeriesList<Key> result = read(file, toString(key), now - ttl.toMillis());
+            if (result == null) {
+                delete(file);
+            } else {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(now));
+            }
+            return result;
+        } catch (IOException | RuntimeException ex) {
+            delete(file);
+            return null;
+        }
+    }
+
+    public void put(@NonNull SdmxQueryKey key, @NonNull SdmxSeriesList<Key> value) {
+        Path root = folder;
+        if (root == null) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(root);
+            tmp = Files.createTempFile(root, "put", ".tmp");
+            try (OutputStream stream = Files.newOutputStream(tmp)) {
+                write(stream, toString(key), clock.getAsLong(), value);
+            }
+            Path target = root.resolve(getFileName(key));
+            long replaced = sizeOf(target);
+            Path file = Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(clock.getAsLong()));
+            addSize(sizeOf(file) - replaced);
+        } catch (IOException | RuntimeException ex) {
+            if (tmp != null) {
+                deleteQuietly(tmp);
+            }
+            return;
+        }
+        evictIfNeeded();
+    }
+
+    /**
+     * Removes all the entries of this cache.
+     */
+    public void clear() {
+        for (Path file : list()) {
+            deleteQuietly(file);
+        }
+        size.set(UNKNOWN_SIZE);
+    }
+
+    /**
+     * Gets the size on disk of this cache.
+     *
+     * @return a size in bytes
+     */
+    public long getSize() {
+        return list().stream().mapToLong(SdmxDiskCache::sizeOf).sum();
+    }
+
+    private void evictIfNeeded() {
+        long current = size.get();
+        if (current == UNKNOWN_SIZE || current > maxSize) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        evictLock.lock();
+        try {
+            long now = clock.getAsLong();
+            List<Entry> entries = new ArrayList<>();
+            for (Path file : list()) {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    entries.add(new Entry(file, attrs.size(), attrs.lastModifiedTime().toMillis()));
+                } catch (IOException ex) {
+                    // removed concurrently
+                }
+            }
+            long total = entries.stream().mapToLong(Entry::getSize).sum();
+            entries.sort(Comparator.comparingLong(Entry::getLastAccess));
+            for (Entry entry : entries) {
+                if (total <= maxSize && now - entry.getLastAccess() < ttl.toMillis()) {
+                    break;
+                }
+                if (deleteQuietly(entry.getFile())) {
+                    total -= entry.getSize();
+                }
+            }
+            size.set(total);
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    private void addSize(long delta) {
+        size.getAndUpdate(current -> current != UNKNOWN_SIZE ? current + delta : current);
+    }
+
+    private void delete(Path file) {
+        long fileSize = sizeOf(file);
+        if (deleteQuietly(file)) {
+            addSize(-fileSize);
+        }
+    }
+
+    private List<Path> list() {
+        List<Path> result = new ArrayList<>();
+        Path root = folder;
+        if (root != null && Files.isDirectory(root)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*" + EXTENSION)) {
+                files.forEach(result::add);
+            } catch (IOException ex) {
+                // unreadable folder is an empty cache
+            }
+        }
+        return result;
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private static boolean deleteQuietly(Path file) {
+        try {
+            return Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            // opened files cannot be deleted on some platforms
+            return false;
+        }
+    }
+
+    @VisibleForTesting
+    static String getFileName(SdmxQueryKey key) {
+        return Hashing.sha256().hashString(toString(key), StandardCharsets.UTF_8) + EXTENSION;
+    }
+
+    private static String toString(SdmxQueryKey key) {
+        return key.getKind() + "|" + key.getAggregation() + "|" + key.getSource() + "|" + key.getDatabase() + "|" + key.getFlow() + "|" + key.getKey() + "|" + key.getLabelAttribute() + "|" + key.getLanguages();
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Implementation details">
+    // id and label lengths, meta size and the shortest data
+    private static final int MIN_ITEM_BYTES = Integer.BYTES * 3 + 1 + Integer.BYTES * 3;
+
+    @VisibleForTesting
+    static void write(OutputStream stream, String id, long creation, SdmxSeriesList<Key> value) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(creation);
+        writeString(out, id);
+        out.writeInt(value.getItems().size());
+        for (SdmxSeriesList.Item<Key> item : value.getItems()) {
+            writeString(out, item.getId().toString());
+            writeString(out, item.getLabel());
+            out.writeInt(item.getMeta().size());
+            for (Map.Entry<String, String> o : item.getMeta().entrySet()) {
+                writeString(out, o.getKey());
+                writeString(out, o.getValue());
+            }
+            writeData(out, item.getData());
+        }
+        out.flush();
+    }
+
+    @VisibleForTesting
+    static SdmxSeriesList<Key> read(Path file, String id, long minCreation) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Oversized entry '" + file + "'");
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+            return read(buffer, id, minCreation);
+        } catch (BufferUnderflowException ex) {
+            throw new IOException("Truncated entry '" + file + "'", ex);
+        }
+    }
+
+    private static long readCreation(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * 2 + Long.BYTES);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+            if (buffer.remaining() < buffer.capacity() || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Invalid entry '" + file + "'");
+            }
+            return buffer.getLong();
+        }
+    }
+
+    private static SdmxSeriesList<Key> read(ByteBuffer in, String id, long minCreation) throws IOException {
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("Invalid entry");
+        }
+        if (in.getLong() <= minCreation || !id.equals(readString(in))) {
+            return null;
+        }
+        int size = readLength(in, MIN_ITEM_BYTES);
+        List<SdmxSeriesList.Item<Key>> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Key key = Key.parse(readString(in));
+            String label = readString(in);
+            int metaSize = readLength(in, Integer.BYTES * 2);
+            Map<String, String> meta = new HashMap<>(metaSize);
+            for (int j = 0; j < metaSize; j++) {
+                meta.put(readString(in), readString(in));
+            }
+            items.add(new SdmxSeriesList.Item<>(key, label, meta, readData(in)));
+        }
+        return SdmxSeriesList.of(items);
+    }
+
+    private static void writeData(DataOutputStream out, OptionalTsData data) throws IOException {
+        out.writeBoolean(data.isPresent());
+        out.writeInt(data.getNbrRows());
+        out.writeInt(data.getNbrUselessRows());
+        if (data.isPresent()) {
+            TsData values = data.get();
+            TsPeriod start = values.getStart();
+            out.writeInt(values.getFrequency().intValue());
+            out.writeInt(start.getYear());
+            out.writeInt(start.getPosition());
+            out.writeInt(values.getLength());
+            for (int i = 0; i < values.getLength(); i++) {
+                out.writeDouble(values.get(i));
+            }
+        } else {
+            writeString(out, data.getCause());
+        }
+    }
+
+    private static OptionalTsData readData(ByteBuffer in) throws IOException {
+        boolean present = in.get() != 0;
+        int nbrRows = in.getInt();
+        int nbrUselessRows = in.getInt();
+        if (present) {
+            TsFrequency freq = TsFrequency.valueOf(in.getInt());
+            int year = in.getInt();
+            int position = in.getInt();
+            double[] values = new double[readLength(in, Double.BYTES)];
+            in.asDoubleBuffer().get(values);
+            in.position(in.position() + values.length * Double.BYTES);
+            return OptionalTsData.present(nbrRows, nbrUselessRows, new TsData(freq, year, position, values, false));
+        }
+        return OptionalTsData.absent(nbrRows, nbrUselessRows, readString(in));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int length = in.getInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a count of elements and checks that the remaining bytes can hold
+     * them, so that a corrupt entry cannot trigger a huge allocation.
+     */
+    private static int readLength(ByteBuffer in, int minBytesPerElement) throws IOException {
+        int result = in.getInt();
+        if (result < 0 || (long) result * minBytesPerElement > in.remaining()) {
+            throw new IOException("Invalid length " + result);
+        }
+        return result;
+    }
+
+    @lombok.Value
+    private static class Entry {
+
+        Path file;
+        long size;
+        long lastAccess;
+    }
+    //</editor-fold>
+}
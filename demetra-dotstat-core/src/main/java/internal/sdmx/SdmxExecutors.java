@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.NonNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors used to run queries in the background.
+ *
+ * @author Philippe Charles
+ */
+@lombok.experimental.UtilityClass
+public class SdmxExecutors {
+
+    public static final int DEFAULT_PLATFORM_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Creates an executor that uses virtual threads when they are available
+     * (Java 21+) and a bounded pool of daemon threads otherwise.
+     *
+     * @return a new executor
+     */
+    @NonNull
+    public ExecutorService newDefaultExecutor() {
+        return isVirtualThreadAvailable() ? newVirtualThreadExecutor() : newPlatformThreadExecutor(DEFAULT_PLATFORM_THREADS);
+    }
+
+    /**
+     * Creates a bounded pool of daemon threads.
+     *
+     * @param nThreads the number of threads
+     * @return a new executor
+     */
+    @NonNull
+    public ExecutorService newPlatformThreadExecutor(int nThreads) {
+        return Executors.newFixedThreadPool(nThreads, new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("sdmx-query-%d")
+                .build());
+    }
+
+    /**
+     * Creates an unbounded pool of low-priority daemon threads for
+     * background work.
+     *
+     * @return a new executor
+     */
+    @NonNull
+    public ExecutorService newBackgroundExecutor() {
+        return Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .setNameFormat("sdmx-background-%d")
+                .build());
+    }
+
+    public boolean isVirtualThreadAvailable() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke();
+        } catch (Throwable ex) {
+            throw new IllegalStateException("Failed to create virtual thread executor", ex);
+        }
+    }
+
+    private static final MethodHandle NEW_VIRTUAL_THREAD_EXECUTOR = lookupNewVirtualThreadExecutor();
+
+    private static MethodHandle lookupNewVirtualThreadExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException ex) {
+            return null;
+        }
+    }
+}
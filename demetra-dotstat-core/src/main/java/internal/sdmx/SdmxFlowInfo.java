@@ -0,0 +1,109 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import sdmxdl.Attribute;
+import sdmxdl.Dimension;
+import sdmxdl.MetaSet;
+import sdmxdl.Structure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of the structure of a flow that is needed to browse it: its name,
+ * its dimensions in the order of the keys with their code lists and its
+ * attributes.
+ * <p>
+ * Unlike {@link MetaSet}, it can be stored and read back by
+ * {@link SdmxStructureCache}.
+ *
+ * @author Philippe Charles
+ */
+@lombok.Value
+public class SdmxFlowInfo {
+
+    @NonNull
+    public static SdmxFlowInfo of(@NonNull MetaSet meta) {
+        Structure dsd = meta.getStructure();
+        SdmxDimensionTable table = SdmxDimensionTable.of(dsd);
+        List<Component> dimensions = new ArrayList<>(dsd.getDimensions().size());
+        dsd.getDimensions()
+                .stream()
+                .sorted(Comparator.comparingInt(o -> table.getIndex(o.getId())))
+                .map(SdmxFlowInfo::componentOf)
+                .forEach(dimensions::add);
+        List<Component> attributes = new ArrayList<>(dsd.getAttributes().size());
+        dsd.getAttributes()
+                .stream()
+                .map(SdmxFlowInfo::componentOf)
+                .forEach(attributes::add);
+        return new SdmxFlowInfo(meta.getFlow().getName(), Collections.unmodifiableList(dimensions), Collections.unmodifiableList(attributes));
+    }
+
+    @NonNull
+    String name;
+
+    /**
+     * The dimensions in the order of the keys.
+     */
+    @NonNull
+    List<Component> dimensions;
+
+    @NonNull
+    List<Component> attributes;
+
+    @Nullable
+    public Component getDimension(@NonNull String id) {
+        for (Component o : dimensions) {
+            if (o.getId().equals(id)) {
+                return o;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A dimension or an attribute. Attributes have no codes.
+     */
+    @lombok.Value
+    public static class Component {
+
+        @NonNull
+        String id;
+
+        @Nullable
+        String name;
+
+        @NonNull
+        Map<String, String> codes;
+    }
+
+    private static Component componentOf(Dimension dimension) {
+        return new Component(dimension.getId(), dimension.getName(), Collections.unmodifiableMap(new LinkedHashMap<>(dimension.getCodes())));
+    }
+
+    private static Component componentOf(Attribute attribute) {
+        return new Component(attribute.getId(), attribute.getName(), Collections.emptyMap());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import lombok.NonNull;
+import sdmxdl.Obs;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Period;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps the durations of SDMX periods to time series frequencies.
+ * <p>
+ * Durations are memoized by value so that the lookup of an observation
+ * does not format its duration.
+ *
+ * @author Philippe Charles
+ */
+@lombok.experimental.UtilityClass
+class SdmxFrequencyTable {
+
+    /**
+     * Gets the frequency of the period of an observation. Durations shorter
+     * than a month, such as days, weeks or hours, map to
+     * {@link TsFrequency#Monthly} since their observations have to be
+     * aggregated into months.
+     *
+     * @param obs an observation
+     * @return a frequency, {@link TsFrequency#Undefined} if the duration of
+     * its period is unknown
+     */
+    @NonNull
+    TsFrequency getFrequency(@NonNull Obs obs) {
+        Object duration = obs.getPeriod().getDuration();
+        TsFrequency result = MEMO.get(duration);
+        if (result == null) {
+            result = parse(duration.toString());
+            if (MEMO.size() < MAX_MEMO_SIZE) {
+                MEMO.put(duration, result);
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    TsFrequency parse(@NonNull String duration) {
+        TsFrequency result = EXACT.get(duration);
+        if (result != null) {
+            return result;
+        }
+        return isShorterThanMonth(duration) ? TsFrequency.Monthly : TsFrequency.Undefined;
+    }
+
+    private static final int MAX_MEMO_SIZE = 64;
+    private static final ConcurrentMap<Object, TsFrequency> MEMO = new ConcurrentHashMap<>();
+    private static final Map<String, TsFrequency> EXACT = initExact();
+
+    private static Map<String, TsFrequency> initExact() {
+        Map<String, TsFrequency> result = new HashMap<>();
+        result.put("P1Y", TsFrequency.Yearly);
+        result.put("P12M", TsFrequency.Yearly);
+        result.put("P6M", TsFrequency.HalfYearly);
+        result.put("P4M", TsFrequency.QuadriMonthly);
+        result.put("P3M", TsFrequency.Quarterly);
+        result.put("P2M", TsFrequency.BiMonthly);
+        result.put("P1M", TsFrequency.Monthly);
+        return result;
+    }
+
+    private static boolean isShorterThanMonth(String duration) {
+        try {
+            Period period = Period.parse(duration);
+            return period.getYears() == 0 && period.getMonths() == 0 && period.getDays() > 0 && period.getDays() < 28;
+        } catch (DateTimeException ex) {
+            // not a date-based duration
+        }
+        try {
+            Duration time = Duration.parse(duration);
+            return !time.isNegative() && !time.isZero() && time.toDays() < 28;
+        } catch (DateTimeException ex) {
+            return false;
+        }
+    }
+}
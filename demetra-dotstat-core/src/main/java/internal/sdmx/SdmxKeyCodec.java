@@ -0,0 +1,223 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeId;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary encoding of the codes of the dimensions of a cube.
+ * <p>
+ * Each level of the cube has its own dictionary that maps a code to an int.
+ * When the code lists of the structure are known, a code is encoded as its
+ * index in the code list. Codes that are not in the code lists (or all the
+ * codes if the code lists are unknown) are appended to the dictionaries as
+ * they are encountered, so that the encoding of a code never changes.
+ * <p>
+ * A set of keys is stored as a flat int array of {@link #getDepth()} ints
+ * per key, which avoids an object per key and per code. Strings are only
+ * produced when a key is decoded to a {@link CubeId}.
+ *
+ * @author Philippe Charles
+ */
+public final class SdmxKeyCodec implements HasWeight {
+
+    /**
+     * Creates a codec whose dictionaries are initially empty.
+     *
+     * @param depth the number of levels of the cube
+     * @return a non-null codec
+     */
+    @NonNull
+    public static SdmxKeyCodec of(int depth) {
+        List<Collection<String>> codeLists = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            codeLists.add(Collections.emptyList());
+        }
+        return of(codeLists);
+    }
+
+    /**
+     * Creates a codec whose dictionaries are initialized with some code
+     * lists.
+     *
+     * @param codeLists the code lists of the dimensions, in the order of the
+     * levels of the cube
+     * @return a non-null codec
+     */
+    @NonNull
+    public static SdmxKeyCodec of(@NonNull List<? extends Collection<String>> codeLists) {
+        Dictionary[] dictionaries = new Dictionary[codeLists.size()];
+        for (int i = 0; i < dictionaries.length; i++) {
+            dictionaries[i] = new Dictionary(codeLists.get(i));
+        }
+        return new SdmxKeyCodec(dictionaries);
+    }
+
+    private final Dictionary[] dictionaries;
+
+    private SdmxKeyCodec(Dictionary[] dictionaries) {
+        this.dictionaries = dictionaries;
+    }
+
+    /**
+     * Gets the number of levels.
+     *
+     * @return a non-negative number
+     */
+    public int getDepth() {
+        return dictionaries.length;
+    }
+
+    /**
+     * Encodes the codes of a node and adds the unknown codes to the
+     * dictionaries.
+     *
+     * @param id a node of the cube
+     * @param target the array that receives the codes of the node
+     * @param offset the position of the first code in the target
+     */
+    public void encode(@NonNull CubeId id, @NonNull int[] target, int offset) {
+        for (int i = 0; i < id.getLevel(); i++) {
+            target[offset + i] = dictionaries[i].add(id.getDimensionValue(i));
+        }
+    }
+
+    /**
+     * Encodes the codes of a node without modifying the dictionaries.
+     *
+     * @param id a node of the cube
+     * @return the codes of the node, or null if one of them is unknown and
+     * therefore cannot match any encoded key
+     */
+    public int[] lookup(@NonNull CubeId id) {
+        int[] result = new int[id.getLevel()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = dictionaries[i].indexOf(id.getDimensionValue(i));
+            if (result[i] < 0) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decodes a key of a flat array.
+     *
+     * @param root the root of the cube
+     * @param source the flat array of keys
+     * @param offset the position of the first code of the key in the source
+     * @return a non-null series of the cube
+     */
+    @NonNull
+    public CubeId decode(@NonNull CubeId root, @NonNull int[] source, int offset) {
+        String[] values = new String[dictionaries.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = dictionaries[i].get(source[offset + i]);
+        }
+        return root.child(values);
+    }
+
+    /**
+     * Checks if a key of a flat array starts with some codes.
+     *
+     * @param source the flat array of keys
+     * @param offset the position of the first code of the key in the source
+     * @param prefix the codes of a node, as returned by {@link #lookup(CubeId)}
+     * @return true if the key is a descendant of the node or the node itself
+     */
+    public static boolean startsWith(@NonNull int[] source, int offset, @NonNull int[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (source[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getWeight() {
+        long result = SdmxSeriesList.OBJECT_WEIGHT;
+        for (Dictionary dictionary : dictionaries) {
+            result += dictionary.getWeight();
+        }
+        return result;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Implementation details">
+    private static final class Dictionary {
+
+        private final Map<String, Integer> indexByCode = new ConcurrentHashMap<>();
+        private volatile String[] codes;
+        private int size;
+
+        Dictionary(Collection<String> codeList) {
+            this.codes = new String[Math.max(codeList.size(), 8)];
+            for (String code : codeList) {
+                add(code);
+            }
+        }
+
+        int indexOf(String code) {
+            Integer result = indexByCode.get(code);
+            return result != null ? result : -1;
+        }
+
+        int add(String code) {
+            Integer result = indexByCode.get(code);
+            return result != null ? result : append(code);
+        }
+
+        // the code is stored before its index is published so that a reader
+        // that gets an index always finds its code
+        private synchronized int append(String code) {
+            Integer result = indexByCode.get(code);
+            if (result != null) {
+                return result;
+            }
+            String[] array = codes;
+            if (size == array.length) {
+                array = Arrays.copyOf(array, size * 2);
+            }
+            array[size] = code;
+            codes = array;
+            indexByCode.put(code, size);
+            return size++;
+        }
+
+        String get(int index) {
+            return codes[index];
+        }
+
+        synchronized long getWeight() {
+            long result = SdmxSeriesList.OBJECT_WEIGHT + (long) Integer.BYTES * codes.length;
+            for (int i = 0; i < size; i++) {
+                result += SdmxSeriesList.OBJECT_WEIGHT + SdmxSeriesList.weightOf(codes[i]);
+            }
+            return result;
+        }
+    }
+    //</editor-fold>
+}
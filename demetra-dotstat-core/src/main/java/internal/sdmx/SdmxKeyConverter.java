@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tss.tsproviders.db.DbSetId;
+import lombok.NonNull;
+import sdmxdl.Key;
+import sdmxdl.Structure;
+
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Converts keys and ids of a node using the precomputed positions of its
+ * dimensions. An instance reuses its buffer and must not be shared between
+ * threads.
+ *
+ * @param <ID> the type of id, such as {@link CubeId} or {@link DbSetId}
+ * @author Philippe Charles
+ */
+public final class SdmxKeyConverter<ID> {
+
+    @NonNull
+    public static SdmxKeyConverter<CubeId> of(@NonNull Structure dsd, @NonNull CubeId ref) {
+        return of(SdmxDimensionTable.of(dsd), ref);
+    }
+
+    @NonNull
+    public static SdmxKeyConverter<CubeId> of(@NonNull SdmxDimensionTable table, @NonNull CubeId ref) {
+        return new SdmxKeyConverter<>(table.getPositions(getDimensionIds(ref)), ref.getLevel(), ref.getDepth(), CubeId::getLevel, CubeId::getDimensionValue, ref::child);
+    }
+
+    @NonNull
+    public static SdmxKeyConverter<DbSetId> of(@NonNull Structure dsd, @NonNull DbSetId ref) {
+        return of(SdmxDimensionTable.of(dsd), ref);
+    }
+
+    @NonNull
+    public static SdmxKeyConverter<DbSetId> of(@NonNull SdmxDimensionTable table, @NonNull DbSetId ref) {
+        return new SdmxKeyConverter<>(table.getPositions(getColumns(ref)), ref.getLevel(), ref.getDepth(), DbSetId::getLevel, DbSetId::getValue, ref::child);
+    }
+
+    private final int[] positions;
+    private final int offset;
+    private final ToIntFunction<ID> levelFunc;
+    private final ValueFunc<ID> valueFunc;
+    private final Function<String[], ID> childFunc;
+    private final String[] dimValues;
+
+    private SdmxKeyConverter(int[] positions, int offset, int depth, ToIntFunction<ID> levelFunc, ValueFunc<ID> valueFunc, Function<String[], ID> childFunc) {
+        this.positions = positions;
+        this.offset = offset;
+        this.levelFunc = levelFunc;
+        this.valueFunc = valueFunc;
+        this.childFunc = childFunc;
+        this.dimValues = new String[depth];
+    }
+
+    @NonNull
+    public Key toKey(@NonNull ID a) {
+        int level = levelFunc.applyAsInt(a);
+        if (level == 0) {
+            return Key.ALL;
+        }
+        String[] result = new String[positions.length];
+        for (int i = 0; i < result.length; i++) {
+            result[positions[i]] = i < level ? valueFunc.apply(a, i) : "";
+        }
+        return Key.of(result);
+    }
+
+    @NonNull
+    public ID fromKey(@NonNull Key b) {
+        for (int i = 0; i < dimValues.length; i++) {
+            dimValues[i] = b.get(positions[offset + i]);
+        }
+        return childFunc.apply(dimValues);
+    }
+
+    static String[] getDimensionIds(CubeId ref) {
+        String[] result = new String[ref.getMaxLevel()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ref.getDimensionId(i);
+        }
+        return result;
+    }
+
+    private static String[] getColumns(DbSetId ref) {
+        String[] result = new String[ref.getMaxLevel()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ref.getColumn(i);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface ValueFunc<ID> {
+
+        String apply(ID id, int index);
+    }
+}
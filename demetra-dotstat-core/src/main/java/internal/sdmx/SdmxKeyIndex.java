@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Hash index over a flat array of keys encoded by a {@link SdmxKeyCodec}.
+ * <p>
+ * Each indexed level has a chained hash table of the prefixes of the keys:
+ * a bucket points to its first row and each row points to the next row of
+ * the same bucket, in ascending order. Finding the rows of a node is then
+ * proportional to the number of its rows instead of the number of keys.
+ *
+ * @author Philippe Charles
+ */
+final class SdmxKeyIndex implements HasWeight {
+
+    /**
+     * Indexes the prefixes of some keys.
+     *
+     * @param keys a flat array of keys
+     * @param depth the number of codes per key
+     * @param from the level of the common ancestor of the keys; the prefixes
+     * that are longer than this level are indexed
+     * @return a non-null index
+     */
+    @NonNull
+    static SdmxKeyIndex of(@NonNull int[] keys, int depth, int from) {
+        int size = depth > 0 ? keys.length / depth : 0;
+        int mask = Integer.highestOneBit(Math.max(size, 1) * 2 - 1) - 1;
+        int[][] heads = new int[depth - from][];
+        int[][] nexts = new int[depth - from][];
+        for (int level = from + 1; level <= depth; level++) {
+            int[] head = new int[mask + 1];
+            int[] next = new int[size];
+            Arrays.fill(head, -1);
+            for (int row = size - 1; row >= 0; row--) {
+                int bucket = hash(keys, row * depth, level) & mask;
+                next[row] = head[bucket];
+                head[bucket] = row;
+            }
+            heads[level - from - 1] = head;
+            nexts[level - from - 1] = next;
+        }
+        return new SdmxKeyIndex(keys, depth, from, mask, heads, nexts);
+    }
+
+    private final int[] keys;
+    private final int depth;
+    private final int from;
+    private final int mask;
+    private final int[][] heads;
+    private final int[][] nexts;
+
+    private SdmxKeyIndex(int[] keys, int depth, int from, int mask, int[][] heads, int[][] nexts) {
+        this.keys = keys;
+        this.depth = depth;
+        this.from = from;
+        this.mask = mask;
+        this.heads = heads;
+        this.nexts = nexts;
+    }
+
+    /**
+     * Gets the rows of the keys that start with a prefix.
+     *
+     * @param prefix the codes of a node, longer than the level of the common
+     * ancestor of the keys
+     * @return a non-null array of rows in ascending order
+     * @throws IllegalArgumentException if the prefix is not indexed
+     */
+    @NonNull
+    int[] getRows(@NonNull int[] prefix) throws IllegalArgumentException {
+        if (prefix.length <= from || prefix.length > depth) {
+            throw new IllegalArgumentException("Prefix not indexed: " + prefix.length);
+        }
+        int[] next = nexts[prefix.length - from - 1];
+        int[] result = new int[4];
+        int count = 0;
+        for (int row = heads[prefix.length - from - 1][hash(prefix, 0, prefix.length) & mask]; row >= 0; row = next[row]) {
+            if (SdmxKeyCodec.startsWith(keys, row * depth, prefix)) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    @Override
+    public long getWeight() {
+        long result = SdmxSeriesList.OBJECT_WEIGHT;
+        for (int i = 0; i < heads.length; i++) {
+            result += (long) Integer.BYTES * (heads[i].length + nexts[i].length);
+        }
+        return result;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Implementation details">
+    private static int hash(int[] source, int offset, int length) {
+        int result = 1;
+        for (int i = 0; i < length; i++) {
+            result = 31 * result + source[offset + i];
+        }
+        return result ^ (result >>> 16);
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import lombok.NonNull;
+import sdmxdl.Key;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Compiled form of {@link Key#contains(Key)} for a reference key that is
+ * tested against many series keys.
+ * <p>
+ * The reference is parsed once: wildcard dimensions are skipped, a single
+ * code is an exact match and several codes joined by the SDMX OR operator
+ * ('+') are a set lookup.
+ *
+ * @author Philippe Charles
+ */
+final class SdmxKeyMatcher implements Predicate<Key> {
+
+    /**
+     * Compiles a reference key.
+     *
+     * @param ref the reference key
+     * @param exact true if the source is known to return only the series
+     * that match the reference, in which case nothing is checked
+     * @return a non-null predicate
+     */
+    @NonNull
+    static Predicate<Key> of(@NonNull Key ref, boolean exact) {
+        if (exact || ref.equals(Key.ALL)) {
+            return ANY;
+        }
+        int size = ref.size();
+        int[] positions = new int[size];
+        String[] codes = new String[size];
+        List<Set<String>> alternatives = new ArrayList<>(size);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            String code = ref.get(i);
+            if (code.isEmpty()) {
+                continue;
+            }
+            positions[count] = i;
+            if (code.contains(OR)) {
+                alternatives.add(new HashSet<>(Arrays.asList(code.split(OR_REGEX))));
+            } else {
+                codes[count] = code;
+                alternatives.add(null);
+            }
+            count++;
+        }
+        return new SdmxKeyMatcher(size, Arrays.copyOf(positions, count), Arrays.copyOf(codes, count), alternatives);
+    }
+
+    private final int size;
+    private final int[] positions;
+    private final String[] codes;
+    private final List<Set<String>> alternatives;
+
+    private SdmxKeyMatcher(int size, int[] positions, String[] codes, List<Set<String>> alternatives) {
+        this.size = size;
+        this.positions = positions;
+        this.codes = codes;
+        this.alternatives = alternatives;
+    }
+
+    @Override
+    public boolean test(Key key) {
+        if (key.size() != size) {
+            return false;
+        }
+        for (int i = 0; i < positions.length; i++) {
+            String code = key.get(positions[i]);
+            if (codes[i] != null ? !codes[i].equals(code) : !alternatives.get(i).contains(code)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Implementation details">
+    private static final String OR = "+";
+    private static final String OR_REGEX = "\\+";
+
+    private static final Predicate<Key> ANY = key -> true;
+    //</editor-fold>
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import lombok.NonNull;
+import sdmxdl.Key;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Plans the keys needed to fetch a set of series in as few requests as
+ * possible by combining their codes with the SDMX OR operator ('+').
+ * <p>
+ * Keys are merged only when they differ on a single dimension so that the
+ * planned keys match exactly the requested series.
+ *
+ * @author Philippe Charles
+ */
+@lombok.experimental.UtilityClass
+public class SdmxKeyPlanner {
+
+    /**
+     * Default maximum length of a planned key, chosen to keep request URLs
+     * well below the limits of common web servers.
+     */
+    public static final int DEFAULT_MAX_KEY_LENGTH = 1000;
+
+    private static final String OR = "+";
+
+    /**
+     * Plans the keys of a set of series.
+     *
+     * @param series the keys of the series
+     * @param maxKeyLength the maximum length of a planned key
+     * @return a non-null list of keys
+     * @throws IllegalArgumentException if a key is not a series key or if
+     * keys have different sizes
+     */
+    @NonNull
+    public static List<Key> plan(@NonNull Collection<Key> series, int maxKeyLength) throws IllegalArgumentException {
+        List<List<Set<String>>> boxes = toBoxes(series);
+        if (boxes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int size = boxes.get(0).size();
+        boolean changed;
+        do {
+            changed = false;
+            for (int dimension = size - 1; dimension >= 0; dimension--) {
+                List<List<Set<String>>> merged = merge(boxes, dimension, maxKeyLength);
+                changed |= merged.size() < boxes.size();
+                boxes = merged;
+            }
+        } while (changed);
+        return boxes.stream().map(SdmxKeyPlanner::toKey).collect(Collectors.toList());
+    }
+
+    private static List<List<Set<String>>> toBoxes(Collection<Key> series) {
+        Set<List<Set<String>>> result = new LinkedHashSet<>();
+        int size = -1;
+        for (Key key : series) {
+            if (!key.isSeries()) {
+                throw new IllegalArgumentException("Not a series key: '" + key + "'");
+            }
+            if (size != -1 && size != key.size()) {
+                throw new IllegalArgumentException("Invalid key size: '" + key + "'");
+            }
+            size = key.size();
+            List<Set<String>> box = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Set<String> codes = new TreeSet<>();
+                codes.add(key.get(i));
+                box.add(codes);
+            }
+            result.add(box);
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static List<List<Set<String>>> merge(List<List<Set<String>>> boxes, int dimension, int maxKeyLength) {
+        Map<List<Set<String>>, Set<String>> groups = new LinkedHashMap<>();
+        for (List<Set<String>> box : boxes) {
+            List<Set<String>> others = new ArrayList<>(box);
+            others.set(dimension, null);
+            groups.computeIfAbsent(others, o -> new TreeSet<>()).addAll(box.get(dimension));
+        }
+        List<List<Set<String>>> result = new ArrayList<>();
+        groups.forEach((others, codes) -> {
+            int othersLength = getLength(others);
+            Set<String> chunk = new TreeSet<>();
+            int chunkLength = 0;
+            for (String code : codes) {
+                int codeLength = chunk.isEmpty() ? code.length() : code.length() + OR.length();
+                if (!chunk.isEmpty() && othersLength + chunkLength + codeLength > maxKeyLength) {
+                    result.add(with(others, dimension, chunk));
+                    chunk = new TreeSet<>();
+                    codeLength = code.length();
+                    chunkLength = 0;
+                }
+                chunk.add(code);
+                chunkLength += codeLength;
+            }
+            result.add(with(others, dimension, chunk));
+        });
+        return result;
+    }
+
+    private static List<Set<String>> with(List<Set<String>> others, int dimension, Set<String> codes) {
+        List<Set<String>> result = new ArrayList<>(others);
+        result.set(dimension, codes);
+        return result;
+    }
+
+    private static int getLength(List<Set<String>> box) {
+        int result = box.size() - 1;
+        for (Set<String> codes : box) {
+            if (codes != null) {
+                result += codes.stream().mapToInt(String::length).sum() + (codes.size() - 1) * OR.length();
+            }
+        }
+        return result;
+    }
+
+    private static Key toKey(List<Set<String>> box) {
+        return Key.of(box.stream().map(codes -> String.join(OR, codes)).toArray(String[]::new));
+    }
+}
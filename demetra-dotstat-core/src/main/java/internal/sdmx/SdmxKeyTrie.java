@@ -0,0 +1,307 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.OptionalTsData;
+import lombok.NonNull;
+import sdmxdl.Key;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Compact in-memory index of the series keys of a flow.
+ * <p>
+ * The keys are stored as a trie whose levels follow the dimensions of a cube
+ * root. The codes of each dimension are dictionary-encoded as ints sorted by
+ * code, so that a node is an int per level, the children of a node are
+ * contiguous and sorted, and the series of a node are a contiguous range of
+ * leaves.
+ *
+ * @author Philippe Charles
+ */
+final class SdmxKeyTrie implements HasWeight {
+
+    /**
+     * Creates a trie from the series of a cursor.
+     *
+     * @param positions the positions in the keys of the dimensions of the cube,
+     * in the order of its levels
+     * @param cursor a cursor over the series of the flow, whose data is ignored
+     * @return a non-null trie
+     * @throws IOException
+     */
+    @NonNull
+    static SdmxKeyTrie of(@NonNull int[] positions, @NonNull TsCursor<Key> cursor) throws IOException {
+        int depth = positions.length;
+        List<Map<String, Integer>> dictionaries = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            dictionaries.add(new HashMap<>());
+        }
+        List<int[]> rows = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        List<Map<String, String>> metas = new ArrayList<>();
+        Map<Map<String, String>, Map<String, String>> sharedMetas = new HashMap<>();
+
+        while (cursor.nextSeries()) {
+            Key key = cursor.getSeriesId();
+            int[] row = new int[depth + 1];
+            for (int i = 0; i < depth; i++) {
+                Map<String, Integer> dictionary = dictionaries.get(i);
+                String code = key.get(positions[i]);
+                Integer index = dictionary.get(code);
+                if (index == null) {
+                    index = dictionary.size();
+                    dictionary.put(code, index);
+                }
+                row[i] = index;
+            }
+            row[depth] = rows.size();
+            rows.add(row);
+            String label = cursor.getSeriesLabel();
+            labels.add(label.equals(key.toString()) ? null : label);
+            metas.add(sharedMetas.computeIfAbsent(copyOf(cursor.getSeriesMetaData()), Function.identity()));
+        }
+
+        String[][] codes = new String[depth][];
+        for (int i = 0; i < depth; i++) {
+            codes[i] = dictionaries.get(i).keySet().toArray(new String[0]);
+            Arrays.sort(codes[i]);
+            int[] ranks = new int[codes[i].length];
+            for (int j = 0; j < ranks.length; j++) {
+                ranks[dictionaries.get(i).get(codes[i][j])] = j;
+            }
+            for (int[] row : rows) {
+                row[i] = ranks[row[i]];
+            }
+        }
+        rows.sort(SdmxKeyTrie::compareRows);
+
+        int[][] nodes = new int[depth][rows.size()];
+        int[][] parents = new int[depth][rows.size()];
+        int[] counts = new int[depth];
+        List<String> leafLabels = new ArrayList<>(rows.size());
+        List<Map<String, String>> leafMetas = new ArrayList<>(rows.size());
+        int[] previous = null;
+        for (int[] row : rows) {
+            int first = previous != null ? getFirstDifference(previous, row, depth) : 0;
+            if (first == depth) {
+                continue;
+            }
+            for (int i = first; i < depth; i++) {
+                nodes[i][counts[i]] = row[i];
+                parents[i][counts[i]] = i > 0 ? counts[i - 1] - 1 : -1;
+                counts[i]++;
+            }
+            leafLabels.add(labels.get(row[depth]));
+            leafMetas.add(metas.get(row[depth]));
+            previous = row;
+        }
+
+        int[][] offsets = new int[Math.max(depth - 1, 0)][];
+        for (int i = 0; i < depth; i++) {
+            nodes[i] = Arrays.copyOf(nodes[i], counts[i]);
+            parents[i] = Arrays.copyOf(parents[i], counts[i]);
+            if (i > 0) {
+                offsets[i - 1] = new int[counts[i - 1] + 1];
+                for (int j = 0; j < counts[i]; j++) {
+                    offsets[i - 1][parents[i][j] + 1] = j + 1;
+                }
+            }
+        }
+
+        return new SdmxKeyTrie(positions, codes, nodes, parents, offsets,
+                leafLabels.toArray(new String[0]), leafMetas);
+    }
+
+    private final int[] positions;
+    private final String[][] codes;
+    private final int[][] nodes;
+    private final int[][] parents;
+    private final int[][] offsets;
+    private final String[] labels;
+    private final List<Map<String, String>> metas;
+
+    private SdmxKeyTrie(int[] positions, String[][] codes, int[][] nodes, int[][] parents, int[][] offsets, String[] labels, List<Map<String, String>> metas) {
+        this.positions = positions;
+        this.codes = codes;
+        this.nodes = nodes;
+        this.parents = parents;
+        this.offsets = offsets;
+        this.labels = labels;
+        this.metas = metas;
+    }
+
+    /**
+     * Gets the number of series.
+     *
+     * @return a non-negative number
+     */
+    int size() {
+        return labels.length;
+    }
+
+    /**
+     * Gets the sorted codes of the children of a node.
+     *
+     * @param ref a node of the cube
+     * @return a non-null list, empty if the node has no children
+     */
+    @NonNull
+    List<String> getChildren(@NonNull CubeId ref) {
+        int level = ref.getLevel();
+        if (level == positions.length) {
+            return Collections.emptyList();
+        }
+        int[] range = getRange(ref);
+        int from = range[0];
+        int size = range[1] - range[0];
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return codes[level][nodes[level][from + index]];
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Gets the series of a node, without data.
+     *
+     * @param ref a node of the cube
+     * @return a non-null cursor
+     */
+    @NonNull
+    TsCursor<CubeId> getAllSeries(@NonNull CubeId ref) {
+        int[] range = getRange(ref);
+        int lo = range[0];
+        int hi = range[1];
+        for (int i = Math.min(ref.getLevel(), positions.length - 1); i < positions.length - 1; i++) {
+            lo = offsets[i][lo];
+            hi = offsets[i][hi];
+        }
+        String[] dimValues = new String[positions.length - ref.getLevel()];
+        return TsCursor.from(IntStream.range(lo, hi).iterator(), leaf -> NO_DATA, leaf -> metas.get(leaf), this::getLabel)
+                .transform(leaf -> ref.child(getDimValues(leaf, ref.getLevel(), dimValues)));
+    }
+
+    @Override
+    public long getWeight() {
+        long result = SdmxSeriesList.OBJECT_WEIGHT;
+        for (int i = 0; i < positions.length; i++) {
+            for (String code : codes[i]) {
+                result += SdmxSeriesList.weightOf(code);
+            }
+            result += Integer.BYTES * 2L * nodes[i].length;
+        }
+        for (String label : labels) {
+            result += Integer.BYTES + SdmxSeriesList.weightOf(label);
+        }
+        Set<Map<String, String>> distinctMetas = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinctMetas.addAll(metas);
+        for (Map<String, String> meta : distinctMetas) {
+            for (Map.Entry<String, String> o : meta.entrySet()) {
+                result += SdmxSeriesList.OBJECT_WEIGHT + SdmxSeriesList.weightOf(o.getKey()) + SdmxSeriesList.weightOf(o.getValue());
+            }
+        }
+        return result;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Implementation details">
+    private static final OptionalTsData NO_DATA = OptionalTsData.absent("No data");
+
+    private int[] getRange(CubeId ref) {
+        int lo = 0;
+        int hi = nodes.length > 0 ? nodes[0].length : 0;
+        for (int i = 0; i < ref.getLevel(); i++) {
+            int code = Arrays.binarySearch(codes[i], ref.getDimensionValue(i));
+            int node = code >= 0 ? Arrays.binarySearch(nodes[i], lo, hi, code) : -1;
+            if (node < 0) {
+                return new int[]{0, 0};
+            }
+            if (i < positions.length - 1) {
+                lo = offsets[i][node];
+                hi = offsets[i][node + 1];
+            } else {
+                lo = node;
+                hi = node + 1;
+            }
+        }
+        return new int[]{lo, hi};
+    }
+
+    private String[] getDimValues(int leaf, int from, String[] buffer) {
+        int node = leaf;
+        for (int i = positions.length - 1; i >= from; i--) {
+            buffer[i - from] = codes[i][nodes[i][node]];
+            node = parents[i][node];
+        }
+        return buffer;
+    }
+
+    private String getLabel(int leaf) {
+        String result = labels[leaf];
+        if (result != null) {
+            return result;
+        }
+        String[] items = new String[positions.length];
+        String[] dimValues = getDimValues(leaf, 0, new String[positions.length]);
+        for (int i = 0; i < positions.length; i++) {
+            items[positions[i]] = dimValues[i];
+        }
+        return Key.of(items).toString();
+    }
+
+    private static int compareRows(int[] l, int[] r) {
+        for (int i = 0; i < l.length; i++) {
+            int result = Integer.compare(l[i], r[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static int getFirstDifference(int[] l, int[] r, int depth) {
+        int result = 0;
+        while (result < depth && l[result] == r[result]) {
+            result++;
+        }
+        return result;
+    }
+
+    private static Map<String, String> copyOf(Map<String, String> meta) {
+        return meta.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(meta));
+    }
+    //</editor-fold>
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.utils.FunctionWithIO;
+import ec.tstoolkit.design.ThreadSafe;
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import standalone_sdmxdl.nbbrd.io.WrappedIOException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Groups into batches the requests of single series that are made
+ * concurrently.
+ * <p>
+ * A request made while no batch is in flight is loaded at once, alone. The
+ * requests made while a batch is in flight are queued and loaded together by
+ * one of their callers as soon as that batch completes, so that a burst of
+ * requests becomes a few batches without delaying any request on a timer.
+ *
+ * @param <K> the type of the keys of the series
+ * @param <V> the type of the series
+ * @author Philippe Charles
+ */
+@ThreadSafe
+final class SdmxLeafBatcher<K, V> {
+
+    static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    /**
+     * Creates a batcher.
+     *
+     * @param <K>
+     * @param <V>
+     * @param loader the function that loads a batch of series by key; keys
+     * that are not found are absent from its result
+     * @param maxBatchSize the maximum number of keys of a batch
+     * @return a non-null batcher
+     */
+    @NonNull
+    static <K, V> SdmxLeafBatcher<K, V> of(@NonNull FunctionWithIO<List<K>, Map<K, V>> loader, int maxBatchSize) {
+        return new SdmxLeafBatcher<>(loader, Math.max(1, maxBatchSize));
+    }
+
+    private final FunctionWithIO<List<K>, Map<K, V>> loader;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Request<K, V>> pending = new ArrayList<>();
+    private boolean running = false;
+
+    private SdmxLeafBatcher(FunctionWithIO<List<K>, Map<K, V>> loader, int maxBatchSize) {
+        this.loader = loader;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Gets a series, possibly along with other series requested concurrently.
+     *
+     * @param key the key of the series
+     * @return the series, null if it has not been found
+     * @throws IOException if the batch of the series failed
+     */
+    @Nullable
+    V get(@NonNull K key) throws IOException {
+        Request<K, V> request = new Request<>(key);
+        boolean leader;
+        lock.lock();
+        try {
+            pending.add(request);
+            leader = !running;
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+        if (leader || awaitTurn(request)) {
+            runBatch();
+        }
+        return getResult(request);
+    }
+
+    private boolean awaitTurn(Request<K, V> request) throws IOException {
+        try {
+            CompletableFuture.anyOf(request.result, request.turn).get();
+            return !request.result.isDone();
+        } catch (InterruptedException ex) {
+            leave(request);
+            Thread.currentThread().interrupt();
+            InterruptedIOException result = new InterruptedIOException("Interrupted while waiting for a batch");
+            result.initCause(ex);
+            throw result;
+        } catch (ExecutionException ex) {
+            // failure of the batch of the request
+            return false;
+        }
+    }
+
+    // a caller that gives up must not keep the turn that it may have been given
+    private void leave(Request<K, V> request) {
+        lock.lock();
+        try {
+            if (pending.remove(request) && request.turn.isDone()) {
+                handOver();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runBatch() {
+        List<Request<K, V>> batch;
+        lock.lock();
+        try {
+            List<Request<K, V>> head = pending.subList(0, Math.min(maxBatchSize, pending.size()));
+            batch = new ArrayList<>(head);
+            head.clear();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            List<K> keys = new ArrayList<>(batch.size());
+            batch.forEach(request -> keys.add(request.key));
+            Map<K, V> result = loader.apply(keys);
+            batch.forEach(request -> request.result.complete(result.get(request.key)));
+        } catch (IOException | RuntimeException | Error ex) {
+            batch.forEach(request -> request.result.completeExceptionally(ex));
+        } finally {
+            lock.lock();
+            try {
+                handOver();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // called with the lock held so that the next caller cannot leave in
+    // between
+    private void handOver() {
+        if (pending.isEmpty()) {
+            running = false;
+        } else {
+            pending.get(0).turn.complete(null);
+        }
+    }
+
+    private static <V> V getResult(Request<?, V> request) throws IOException {
+        try {
+            return request.result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException result = new InterruptedIOException("Interrupted while waiting for a batch");
+            result.initCause(ex);
+            throw result;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw WrappedIOException.wrap(cause);
+        }
+    }
+
+    @lombok.RequiredArgsConstructor
+    private static final class Request<K, V> {
+
+        final K key;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        final CompletableFuture<Void> turn = new CompletableFuture<>();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.OptionalTsData;
+import ec.tstoolkit.design.VisibleForTesting;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Cursor that records the request whose response it streams.
+ * <p>
+ * The request is recorded once, when the end of the stream is reached, when
+ * reading the stream fails or when the cursor is closed early, so that its
+ * latency does not include the time spent by the consumer after the last
+ * series.
+ *
+ * @param <T>
+ * @author Philippe Charles
+ */
+final class SdmxMeteredCursor<T> implements TsCursor<T> {
+
+    /**
+     * Meters a response.
+     *
+     * @param <T>
+     * @param delegate the cursor over the response
+     * @param metrics the metrics of the provider
+     * @param source the name of the source
+     * @param kind the kind of request
+     * @param start the value of {@link System#nanoTime()} when the request
+     * was sent
+     * @return a non-null cursor
+     */
+    @NonNull
+    static <T> TsCursor<T> of(@NonNull TsCursor<T> delegate, @NonNull SdmxMetrics metrics, @NonNull String source, @NonNull SdmxQueryKind kind, long start) {
+        return of(delegate, metrics, source, kind, start, System::nanoTime);
+    }
+
+    @VisibleForTesting
+    static <T> TsCursor<T> of(TsCursor<T> delegate, SdmxMetrics metrics, String source, SdmxQueryKind kind, long start, LongSupplier nanoClock) {
+        return new SdmxMeteredCursor<>(delegate, metrics, source, kind, start, nanoClock);
+    }
+
+    private final TsCursor<T> delegate;
+    private final SdmxMetrics metrics;
+    private final String source;
+    private final SdmxQueryKind kind;
+    private final long start;
+    private final LongSupplier nanoClock;
+    private long series;
+    private boolean recorded;
+
+    private SdmxMeteredCursor(TsCursor<T> delegate, SdmxMetrics metrics, String source, SdmxQueryKind kind, long start, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.source = source;
+        this.kind = kind;
+        this.start = start;
+        this.nanoClock = nanoClock;
+        this.series = 0;
+        this.recorded = false;
+    }
+
+    @Override
+    public boolean isClosed() throws IOException {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public Map<String, String> getMetaData() throws IOException {
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public boolean nextSeries() throws IOException {
+        boolean result;
+        try {
+            result = delegate.nextSeries();
+        } catch (IOException | RuntimeException | Error ex) {
+            record(true);
+            throw ex;
+        }
+        if (result) {
+            series++;
+        } else {
+            record(false);
+        }
+        return result;
+    }
+
+    @Override
+    public T getSeriesId() throws IOException {
+        return delegate.getSeriesId();
+    }
+
+    @Override
+    public String getSeriesLabel() throws IOException {
+        return delegate.getSeriesLabel();
+    }
+
+    @Override
+    public Map<String, String> getSeriesMetaData() throws IOException {
+        return delegate.getSeriesMetaData();
+    }
+
+    @Override
+    public OptionalTsData getSeriesData() throws IOException {
+        return delegate.getSeriesData();
+    }
+
+    @Override
+    public void close() throws IOException {
+        record(false);
+        delegate.close();
+    }
+
+    private void record(boolean error) {
+        if (!recorded) {
+            recorded = true;
+            metrics.recordRequest(source, kind, nanoClock.getAsLong() - start, series, error);
+        }
+    }
+}
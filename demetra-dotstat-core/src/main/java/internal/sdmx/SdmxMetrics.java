@@ -0,0 +1,356 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Lock-free recorder of the metrics of a provider, exposed through JMX.
+ * <p>
+ * Counters are backed by {@link LongAdder} and latencies by a histogram of
+ * power-of-two buckets so that recording is cheap on the hot path.
+ *
+ * @author Philippe Charles
+ */
+public final class SdmxMetrics implements SdmxMetricsMXBean {
+
+    public static final String DOMAIN = "be.nbb.demetra.sdmx";
+
+    @NonNull
+    public static SdmxMetrics of(@Nullable SdmxCubeItemsCache cache) {
+        return new SdmxMetrics(cache);
+    }
+
+    /**
+     * Number of latency buckets: the upper bounds go from 1ms to about 9
+     * minutes.
+     */
+    static final int BUCKETS = 21;
+
+    private final SdmxCubeItemsCache cache;
+    // one array per source, indexed by ordinal, so that recording does not
+    // build a key
+    private final ConcurrentHashMap<String, Meter[]> meters;
+    private final ConcurrentHashMap<String, LongAdder[]> childrenStrategies;
+    private final LongAdder bulkCacheHits;
+    private final LongAdder bulkCacheMisses;
+    private final LongAdder bulkCacheAncestorHits;
+    private final LongAdder bulkCacheEvictions;
+    private ObjectName objectName;
+
+    private SdmxMetrics(SdmxCubeItemsCache cache) {
+        this.cache = cache;
+        this.meters = new ConcurrentHashMap<>();
+        this.childrenStrategies = new ConcurrentHashMap<>();
+        this.bulkCacheHits = new LongAdder();
+        this.bulkCacheMisses = new LongAdder();
+        this.bulkCacheAncestorHits = new LongAdder();
+        this.bulkCacheEvictions = new LongAdder();
+    }
+
+    /**
+     * Records a request to a source.
+     *
+     * @param source the name of the source
+     * @param kind the operation
+     * @param nanos the latency of the request
+     * @param series the number of series received
+     * @param error true if the request failed
+     */
+    public void recordRequest(@NonNull String source, @NonNull SdmxQueryKind kind, long nanos, long series, boolean error) {
+        Meter[] result = meters.get(source);
+        if (result == null) {
+            result = meters.computeIfAbsent(source, key -> newMeters());
+        }
+        result[kind.ordinal()].record(nanos, series, error);
+    }
+
+    /**
+     * Records the way the children of a node have been listed.
+     *
+     * @param source the name of the source
+     * @param strategy the strategy used
+     */
+    public void recordChildrenStrategy(@NonNull String source, @NonNull SdmxChildrenStrategy strategy) {
+        LongAdder[] result = childrenStrategies.get(source);
+        if (result == null) {
+            result = childrenStrategies.computeIfAbsent(source, key -> newCounters());
+        }
+        result[strategy.ordinal()].increment();
+    }
+
+    public void recordBulkCacheHit() {
+        bulkCacheHits.increment();
+    }
+
+    public void recordBulkCacheMiss() {
+        bulkCacheMisses.increment();
+    }
+
+    /**
+     * Records a hit of the bulk cache that served a descendant of the cached
+     * node, which is also counted as a hit.
+     */
+    public void recordBulkCacheAncestorHit() {
+        bulkCacheAncestorHits.increment();
+    }
+
+    public void recordBulkCacheEviction() {
+        bulkCacheEvictions.increment();
+    }
+
+    /**
+     * Registers these metrics in the platform MBean server. Registration is
+     * best-effort and fails silently if the name is already taken.
+     *
+     * @param provider the name of the provider
+     */
+    public synchronized void register(@NonNull String provider) {
+        if (objectName != null) {
+            return;
+        }
+        try {
+            ObjectName name = new ObjectName(DOMAIN + ":type=Metrics,provider=" + ObjectName.quote(provider));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            objectName = name;
+        } catch (JMException | SecurityException ex) {
+            // metrics are still recorded but not exposed
+        }
+    }
+
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException | SecurityException ex) {
+            // already unregistered
+        }
+        objectName = null;
+    }
+
+    @Override
+    public Map<String, Long> getRequestCounts() {
+        return collect(meter -> meter.count.sum());
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        return collect(meter -> meter.errors.sum());
+    }
+
+    @Override
+    public Map<String, Long> getSeriesCounts() {
+        return collect(meter -> meter.series.sum());
+    }
+
+    @Override
+    public Map<String, Double> getMeanLatencyMillis() {
+        Map<String, Double> result = new TreeMap<>();
+        forEachMeter((key, meter) -> {
+            long count = meter.count.sum();
+            result.put(key, count != 0 ? meter.nanos.sum() / 1e6 / count : 0);
+        });
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getMedianLatencyMillis() {
+        return collect(meter -> meter.getPercentile(0.5));
+    }
+
+    @Override
+    public Map<String, Long> getP99LatencyMillis() {
+        return collect(meter -> meter.getPercentile(0.99));
+    }
+
+    @Override
+    public Map<String, long[]> getLatencyHistograms() {
+        Map<String, long[]> result = new TreeMap<>();
+        forEachMeter((key, meter) -> result.put(key, meter.getHistogram()));
+        return result;
+    }
+
+    @Override
+    public long[] getLatencyBucketBoundsMillis() {
+        long[] result = new long[BUCKETS - 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = 1L << i;
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getChildrenStrategyCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        SdmxChildrenStrategy[] strategies = SdmxChildrenStrategy.values();
+        childrenStrategies.forEach((source, counters) -> {
+            for (SdmxChildrenStrategy strategy : strategies) {
+                long count = counters[strategy.ordinal()].sum();
+                if (count != 0) {
+                    result.put(source + "/" + strategy, count);
+                }
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public long getBulkCacheHits() {
+        return bulkCacheHits.sum();
+    }
+
+    @Override
+    public long getBulkCacheMisses() {
+        return bulkCacheMisses.sum();
+    }
+
+    @Override
+    public long getBulkCacheAncestorHits() {
+        return bulkCacheAncestorHits.sum();
+    }
+
+    @Override
+    public long getBulkCacheEvictions() {
+        return bulkCacheEvictions.sum();
+    }
+
+    @Override
+    public long getCubeItemsCacheSize() {
+        return cache != null ? cache.size() : -1;
+    }
+
+    @Override
+    public long getCubeItemsCacheWeight() {
+        return cache != null ? cache.getWeight() : -1;
+    }
+
+    @Override
+    public void reset() {
+        meters.clear();
+        childrenStrategies.clear();
+        bulkCacheHits.reset();
+        bulkCacheMisses.reset();
+        bulkCacheAncestorHits.reset();
+        bulkCacheEvictions.reset();
+    }
+
+    private Map<String, Long> collect(ToLongFunction<Meter> function) {
+        Map<String, Long> result = new TreeMap<>();
+        forEachMeter((key, meter) -> result.put(key, function.applyAsLong(meter)));
+        return result;
+    }
+
+    // the keys of the exposed maps are only built when they are read
+    private void forEachMeter(BiConsumer<String, Meter> consumer) {
+        SdmxQueryKind[] kinds = SdmxQueryKind.values();
+        meters.forEach((source, sourceMeters) -> {
+            for (SdmxQueryKind kind : kinds) {
+                Meter meter = sourceMeters[kind.ordinal()];
+                if (meter.count.sum() != 0) {
+                    consumer.accept(source + "/" + kind, meter);
+                }
+            }
+        });
+    }
+
+    private static Meter[] newMeters() {
+        Meter[] result = new Meter[SdmxQueryKind.values().length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new Meter();
+        }
+        return result;
+    }
+
+    private static LongAdder[] newCounters() {
+        LongAdder[] result = new LongAdder[SdmxChildrenStrategy.values().length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new LongAdder();
+        }
+        return result;
+    }
+
+    static int getBucket(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+    }
+
+    private static final class Meter {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder series = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+        Meter() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, long series, boolean error) {
+            this.count.increment();
+            this.nanos.add(nanos);
+            this.series.add(series);
+            if (error) {
+                this.errors.increment();
+            }
+            buckets[getBucket(nanos)].increment();
+        }
+
+        long[] getHistogram() {
+            long[] result = new long[buckets.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = buckets[i].sum();
+            }
+            return result;
+        }
+
+        long getPercentile(double percentile) {
+            long[] histogram = getHistogram();
+            long total = 0;
+            for (long o : histogram) {
+                total += o;
+            }
+            long threshold = (long) Math.ceil(total * percentile);
+            long cumulated = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                cumulated += histogram[i];
+                if (cumulated >= threshold && cumulated > 0) {
+                    return 1L << i;
+                }
+            }
+            return 0;
+        }
+    }
+}
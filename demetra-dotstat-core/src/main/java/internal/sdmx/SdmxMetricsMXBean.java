@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import java.util.Map;
+
+/**
+ * Management interface of the metrics of a provider.
+ * <p>
+ * Metrics of requests are keyed by source and operation, such as
+ * {@code ECB/ALL_SERIES_WITH_DATA}. Latencies are measured from the request
+ * to the end of the consumption of its result.
+ *
+ * @author Philippe Charles
+ */
+public interface SdmxMetricsMXBean {
+
+    Map<String, Long> getRequestCounts();
+
+    Map<String, Long> getErrorCounts();
+
+    Map<String, Long> getSeriesCounts();
+
+    Map<String, Double> getMeanLatencyMillis();
+
+    Map<String, Long> getMedianLatencyMillis();
+
+    Map<String, Long> getP99LatencyMillis();
+
+    /**
+     * Gets the number of requests per latency bucket.
+     *
+     * @return a histogram per source and operation
+     * @see #getLatencyBucketBoundsMillis()
+     */
+    Map<String, long[]> getLatencyHistograms();
+
+    /**
+     * Gets the exclusive upper bounds of the latency buckets, the last bucket
+     * being unbounded.
+     *
+     * @return a non-null array
+     */
+    long[] getLatencyBucketBoundsMillis();
+
+    /**
+     * Gets the number of child listings per strategy.
+     *
+     * @return a count per source and strategy, such as {@code ECB/KEYS_ONLY}
+     */
+    Map<String, Long> getChildrenStrategyCounts();
+
+    long getBulkCacheHits();
+
+    long getBulkCacheMisses();
+
+    /**
+     * Gets the number of bulk cache hits that served a descendant of a cached
+     * node from its index.
+     *
+     * @return a non-negative count
+     */
+    long getBulkCacheAncestorHits();
+
+    long getBulkCacheEvictions();
+
+    long getCubeItemsCacheSize();
+
+    long getCubeItemsCacheWeight();
+
+    void reset();
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tstoolkit.design.ThreadSafe;
+import ec.tstoolkit.design.VisibleForTesting;
+import lombok.NonNull;
+import standalone_sdmxdl.nbbrd.io.function.IORunnable;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs best-effort background tasks per source with bounded parallelism.
+ * <p>
+ * Background tasks of a source are started only while no foreground request
+ * of that source is running. Pending tasks are deduplicated by id and can be
+ * cancelled at any time; running tasks are interrupted on cancellation. The
+ * threads that run background tasks are reported by {@link #isBackground()}
+ * so that they can yield shared resources to foreground requests.
+ *
+ * @author Philippe Charles
+ */
+@ThreadSafe
+@lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public final class SdmxPrefetcher {
+
+    @NonNull
+    public static SdmxPrefetcher of(@NonNull Executor executor) {
+        return new SdmxPrefetcher(executor, new ConcurrentHashMap<>());
+    }
+
+    private static final ThreadLocal<Boolean> BACKGROUND = ThreadLocal.withInitial(() -> false);
+
+    /**
+     * Checks if the current thread is running a background task.
+     *
+     * @return true if running a background task, false otherwise
+     */
+    public static boolean isBackground() {
+        return BACKGROUND.get();
+    }
+
+    private final Executor executor;
+    private final ConcurrentMap<String, Lane> lanes;
+
+    /**
+     * Schedules a background task.
+     *
+     * @param source the source queried by the task
+     * @param parallelism the maximum number of tasks running concurrently on
+     * this source
+     * @param id the identity of the task, used to skip duplicates
+     * @param task the task
+     */
+    public void prefetch(@NonNull String source, int parallelism, @NonNull Object id, @NonNull IORunnable task) {
+        getLane(source).submit(id, task, Math.max(parallelism, 1));
+    }
+
+    /**
+     * Runs a foreground request, delaying the start of background tasks on the
+     * same source until it completes.
+     *
+     * @param <T>
+     * @param source the source queried by the request
+     * @param request the request
+     * @return the result of the request
+     * @throws IOException
+     */
+    public <T> T foreground(@NonNull String source, @NonNull IOSupplier<T> request) throws IOException {
+        Lane lane = getLane(source);
+        lane.enterForeground();
+        try {
+            return request.getWithIO();
+        } finally {
+            lane.exitForeground();
+        }
+    }
+
+    /**
+     * Opens a foreground cursor, delaying the start of background tasks on the
+     * same source until it is closed.
+     *
+     * @param <T>
+     * @param source the source queried by the request
+     * @param request the request that opens the cursor
+     * @return the cursor
+     * @throws IOException
+     */
+    @NonNull
+    public <T> TsCursor<T> foregroundCursor(@NonNull String source, @NonNull IOSupplier<TsCursor<T>> request) throws IOException {
+        Lane lane = getLane(source);
+        lane.enterForeground();
+        try {
+            AtomicBoolean exited = new AtomicBoolean(false);
+            return request.getWithIO().onClose(() -> {
+                if (exited.compareAndSet(false, true)) {
+                    lane.exitForeground();
+                }
+            });
+        } catch (IOException | RuntimeException ex) {
+            lane.exitForeground();
+            throw ex;
+        }
+    }
+
+    /**
+     * Cancels all the pending and running background tasks.
+     */
+    public void cancel() {
+        lanes.values().forEach(Lane::cancel);
+    }
+
+    @VisibleForTesting
+    int getPendingCount() {
+        return lanes.values().stream().mapToInt(Lane::getPendingCount).sum();
+    }
+
+    private Lane getLane(String source) {
+        return lanes.computeIfAbsent(source, o -> new Lane());
+    }
+
+    private final class Lane {
+
+        private final Map<Object, IORunnable> pending = new LinkedHashMap<>();
+        private final Map<Object, Thread> running = new HashMap<>();
+        private int parallelism = 1;
+        private int foreground = 0;
+        private long generation = 0;
+
+        synchronized void submit(Object id, IORunnable task, int parallelism) {
+            this.parallelism = parallelism;
+            if (!running.containsKey(id)) {
+                pending.putIfAbsent(id, task);
+            }
+            drain();
+        }
+
+        synchronized void enterForeground() {
+            foreground++;
+        }
+
+        synchronized void exitForeground() {
+            foreground--;
+            drain();
+        }
+
+        synchronized void cancel() {
+            generation++;
+            pending.clear();
+            running.values().forEach(thread -> {
+                if (thread != null) {
+                    thread.interrupt();
+                }
+            });
+        }
+
+        synchronized int getPendingCount() {
+            return pending.size();
+        }
+
+        private void drain() {
+            Iterator<Map.Entry<Object, IORunnable>> iterator = pending.entrySet().iterator();
+            while (foreground == 0 && running.size() < parallelism && iterator.hasNext()) {
+                Map.Entry<Object, IORunnable> next = iterator.next();
+                iterator.remove();
+                Object id = next.getKey();
+                IORunnable task = next.getValue();
+                long expected = generation;
+                running.put(id, null);
+                try {
+                    executor.execute(() -> run(id, task, expected));
+                } catch (RejectedExecutionException ex) {
+                    running.remove(id);
+                }
+            }
+        }
+
+        private void run(Object id, IORunnable task, long expected) {
+            synchronized (this) {
+                if (generation != expected) {
+                    running.remove(id);
+                    drain();
+                    return;
+                }
+                running.put(id, Thread.currentThread());
+            }
+            BACKGROUND.set(true);
+            try {
+                task.runWithIO();
+            } catch (IOException | RuntimeException ex) {
+                // best effort: a failure is reported by the foreground request if any
+            } finally {
+                BACKGROUND.remove();
+                synchronized (this) {
+                    running.remove(id);
+                    Thread.interrupted();
+                    drain();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeAccessor;
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.IteratorWithIO;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cube accessor that loads the data of the children of a node in the
+ * background as soon as they are listed.
+ * <p>
+ * The delegate is expected to be a bulk accessor: only the nodes that are
+ * cached by it (those at or below the cache level) are prefetched, by loading
+ * their ancestor at the cache level.
+ *
+ * @author Philippe Charles
+ */
+public final class SdmxPrefetchingCubeAccessor implements CubeAccessor, HasWeight {
+
+    @NonNull
+    public static CubeAccessor of(@NonNull CubeAccessor delegate, @NonNull SdmxPrefetcher prefetcher, @NonNull String source, int parallelism, int cacheDepth) {
+        if (parallelism <= 0 || cacheDepth <= 0) {
+            return delegate;
+        }
+        int cacheLevel = Math.max(0, delegate.getRoot().getMaxLevel() - cacheDepth);
+        return new SdmxPrefetchingCubeAccessor(delegate, prefetcher, source, parallelism, cacheLevel);
+    }
+
+    private final CubeAccessor delegate;
+    private final SdmxPrefetcher prefetcher;
+    private final String source;
+    private final int parallelism;
+    private final int cacheLevel;
+
+    private SdmxPrefetchingCubeAccessor(CubeAccessor delegate, SdmxPrefetcher prefetcher, String source, int parallelism, int cacheLevel) {
+        this.delegate = delegate;
+        this.prefetcher = prefetcher;
+        this.source = source;
+        this.parallelism = parallelism;
+        this.cacheLevel = cacheLevel;
+    }
+
+    @Override
+    public long getWeight() {
+        return HasWeight.weightOf(delegate, 0);
+    }
+
+    @Override
+    public IOException testConnection() {
+        return delegate.testConnection();
+    }
+
+    @Override
+    public @NonNull CubeId getRoot() {
+        return delegate.getRoot();
+    }
+
+    @Override
+    public @NonNull TsCursor<CubeId> getAllSeries(@NonNull CubeId id) throws IOException {
+        return prefetcher.foregroundCursor(source, () -> delegate.getAllSeries(id));
+    }
+
+    @Override
+    public @NonNull TsCursor<CubeId> getAllSeriesWithData(@NonNull CubeId id) throws IOException {
+        return prefetcher.foregroundCursor(source, () -> delegate.getAllSeriesWithData(id));
+    }
+
+    @Override
+    public @NonNull TsCursor<CubeId> getSeriesWithData(@NonNull CubeId id) throws IOException {
+        return prefetcher.foregroundCursor(source, () -> delegate.getSeriesWithData(id));
+    }
+
+    @Override
+    public @NonNull IteratorWithIO<CubeId> getChildren(@NonNull CubeId id) throws IOException {
+        List<CubeId> result = prefetcher.foreground(source, () -> toList(delegate.getChildren(id)));
+        getPrefetchTargets(result).forEach(target -> prefetcher.prefetch(source, parallelism, target, () -> load(target)));
+        return IteratorWithIO.from(result.iterator());
+    }
+
+    @Override
+    public @NonNull String getDisplayName() throws IOException {
+        return delegate.getDisplayName();
+    }
+
+    @Override
+    public @NonNull String getDisplayName(@NonNull CubeId id) throws IOException {
+        return delegate.getDisplayName(id);
+    }
+
+    @Override
+    public @NonNull String getDisplayNodeName(@NonNull CubeId id) throws IOException {
+        return delegate.getDisplayNodeName(id);
+    }
+
+    private Set<CubeId> getPrefetchTargets(List<CubeId> children) {
+        Set<CubeId> result = new LinkedHashSet<>();
+        for (CubeId child : children) {
+            if (child.getLevel() >= cacheLevel) {
+                result.add(SdmxBulkCubeAccessor.getAncestor(delegate.getRoot(), child, cacheLevel));
+            }
+        }
+        return result;
+    }
+
+    private void load(CubeId target) throws IOException {
+        try (TsCursor<CubeId> cursor = delegate.getAllSeriesWithData(target)) {
+            while (cursor.nextSeries()) {
+                // the delegate caches the data
+            }
+        }
+    }
+
+    private static List<CubeId> toList(IteratorWithIO<CubeId> iterator) throws IOException {
+        try (IteratorWithIO<CubeId> closeable = iterator) {
+            List<CubeId> result = new ArrayList<>();
+            while (closeable.hasNext()) {
+                result.add(closeable.next());
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tstoolkit.timeseries.TsAggregationType;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import sdmxdl.DatabaseRef;
+import sdmxdl.FlowRef;
+import sdmxdl.Key;
+import sdmxdl.Languages;
+
+/**
+ * Identity of a query sent to a source.
+ *
+ * @author Philippe Charles
+ */
+@lombok.Value
+public class SdmxQueryKey {
+
+    @lombok.NonNull
+    String source;
+
+    @lombok.NonNull
+    DatabaseRef database;
+
+    @lombok.NonNull
+    FlowRef flow;
+
+    @lombok.NonNull
+    Key key;
+
+    @lombok.NonNull
+    SdmxQueryKind kind;
+
+    @lombok.NonNull
+    TsAggregationType aggregation;
+
+    @Nullable
+    String labelAttribute;
+
+    @lombok.NonNull
+    Languages languages;
+}
@@ -21,6 +21,7 @@ import ec.tss.tsproviders.utils.ObsCharacteristics;
 import ec.tss.tsproviders.utils.ObsGathering;
 import ec.tss.tsproviders.utils.OptionalTsData;
 import ec.tstoolkit.timeseries.TsAggregationType;
+import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsFrequency;
 import standalone_sdmxdl.nbbrd.io.IOIterator;
 import standalone_sdmxdl.nbbrd.io.function.IORunnable;
@@ -32,10 +33,16 @@ import sdmxdl.ext.SdmxCubeUtil;
 import java.io.Closeable;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -51,41 +58,265 @@ public class SdmxQueryUtil {
     @NonNull
     public TsCursor<Key> getAllSeries(Connection conn, DatabaseRef databaseRef, FlowRef flow, Key node, @Nullable String labelAttribute) throws IOException {
         Stream<Series> result = SdmxCubeUtil.getAllSeries(conn, databaseRef, flow, node);
-        return new SdmxDataAdapter(node, result, labelAttribute);
+        return new SdmxDataAdapter(SdmxKeyMatcher.of(node, isKeyExact(conn)), result, labelAttribute, TsAggregationType.None);
     }
 
     @NonNull
     public TsCursor<Key> getAllSeriesWithData(Connection conn, DatabaseRef databaseRef, FlowRef flow, Key node, @Nullable String labelAttribute) throws IOException {
+        return getAllSeriesWithData(conn, databaseRef, flow, node, labelAttribute, TsAggregationType.None);
+    }
+
+    /**
+     * Gets all the series of a node with their data.
+     *
+     * @param conn
+     * @param databaseRef
+     * @param flow
+     * @param node
+     * @param labelAttribute
+     * @param aggregation the aggregation of the observations that share a
+     * month, None to reject them
+     * @return
+     * @throws IOException
+     */
+    @NonNull
+    public TsCursor<Key> getAllSeriesWithData(Connection conn, DatabaseRef databaseRef, FlowRef flow, Key node, @Nullable String labelAttribute, @NonNull TsAggregationType aggregation) throws IOException {
         Stream<Series> result = SdmxCubeUtil.getAllSeriesWithData(conn, databaseRef, flow, node);
-        return new SdmxDataAdapter(node, result, labelAttribute);
+        return new SdmxDataAdapter(SdmxKeyMatcher.of(node, isKeyExact(conn)), result, labelAttribute, aggregation);
     }
 
     @NonNull
     public TsCursor<Key> getSeriesWithData(Connection conn, DatabaseRef databaseRef, FlowRef flow, Key leaf, @Nullable String labelAttribute) throws IOException {
+        return getSeriesWithData(conn, databaseRef, flow, leaf, labelAttribute, TsAggregationType.None);
+    }
+
+    @NonNull
+    public TsCursor<Key> getSeriesWithData(Connection conn, DatabaseRef databaseRef, FlowRef flow, Key leaf, @Nullable String labelAttribute, @NonNull TsAggregationType aggregation) throws IOException {
         Optional<Series> result = SdmxCubeUtil.getSeriesWithData(conn, databaseRef, flow, leaf);
-        return new SdmxDataAdapter(leaf, result.map(Stream::of).orElse(Stream.empty()), labelAttribute);
+        return new SdmxDataAdapter(SdmxKeyMatcher.of(leaf, isKeyExact(conn)), result.map(Stream::of).orElse(Stream.empty()), labelAttribute, aggregation);
+    }
+
+    /**
+     * Gets several series with their data in one request, from a key planned
+     * by {@link SdmxKeyPlanner} whose codes may be combined with the SDMX OR
+     * operator ('+'). A source that does not support key queries is queried
+     * for the whole flow, whose series are then filtered by the planned key.
+     *
+     * @param conn
+     * @param databaseRef
+     * @param flow
+     * @param batch the planned key
+     * @param labelAttribute
+     * @param aggregation the aggregation of the observations that share a
+     * month, None to reject them
+     * @return a cursor over the series that have been found
+     * @throws IOException
+     */
+    @NonNull
+    public TsCursor<Key> getBatchSeriesWithData(Connection conn, DatabaseRef databaseRef, FlowRef flow, Key batch, @Nullable String labelAttribute, @NonNull TsAggregationType aggregation) throws IOException {
+        boolean keyExact = isKeyExact(conn);
+        Stream<Series> result = conn.getDataStream(databaseRef, flow, Query.builder().key(keyExact ? batch : Key.ALL).detail(Detail.FULL).build());
+        return new SdmxDataAdapter(SdmxKeyMatcher.of(batch, keyExact), result, labelAttribute, aggregation);
     }
 
     @NonNull
     public List<String> getChildren(Connection conn, DatabaseRef databaseRef, FlowRef flow, Key node, int dimensionPosition) throws IOException {
-        Stream<String> result = SdmxCubeUtil.getChildren(conn, databaseRef, flow, node, dimensionPosition);
-        return result.sorted().collect(Collectors.toList());
+        return getChildren(conn, databaseRef, flow, node, dimensionPosition, getChildrenStrategy(conn));
+    }
+
+    /**
+     * Gets the sorted codes of the children of a node.
+     *
+     * @param conn
+     * @param databaseRef
+     * @param flow
+     * @param node
+     * @param dimensionPosition the position of the dimension of the children
+     * in the keys
+     * @param strategy the way of listing the children
+     * @return a non-null list
+     * @throws IOException
+     * @see #getChildrenStrategy(Connection)
+     */
+    @NonNull
+    public List<String> getChildren(Connection conn, DatabaseRef databaseRef, FlowRef flow, Key node, int dimensionPosition, @NonNull SdmxChildrenStrategy strategy) throws IOException {
+        switch (strategy) {
+            case KEYS_ONLY:
+                return getChildrenByKeys(conn, databaseRef, flow, node, dimensionPosition);
+            case GENERIC:
+                Stream<String> result = SdmxCubeUtil.getChildren(conn, databaseRef, flow, node, dimensionPosition);
+                return result.sorted().collect(Collectors.toList());
+            default:
+                throw new IllegalArgumentException(strategy.name());
+        }
+    }
+
+    /**
+     * Gets the best way of listing the children of a node supported by a
+     * source.
+     *
+     * @param conn
+     * @return a non-null strategy
+     * @throws IOException
+     */
+    @NonNull
+    public SdmxChildrenStrategy getChildrenStrategy(Connection conn) throws IOException {
+        Set<Feature> features = conn.getSupportedFeatures();
+        return features.contains(Feature.DATA_QUERY_KEY) && features.contains(Feature.DATA_QUERY_DETAIL)
+                ? SdmxChildrenStrategy.KEYS_ONLY
+                : SdmxChildrenStrategy.GENERIC;
+    }
+
+    // a source that supports key queries returns only the series matching the
+    // key, so that the series do not need to be checked again
+    private static boolean isKeyExact(Connection conn) throws IOException {
+        return conn.getSupportedFeatures().contains(Feature.DATA_QUERY_KEY);
+    }
+
+    private static List<String> getChildrenByKeys(Connection conn, DatabaseRef databaseRef, FlowRef flow, Key node, int dimensionPosition) throws IOException {
+        Set<String> result = new TreeSet<>();
+        Predicate<Key> filter = SdmxKeyMatcher.of(node, false);
+        try (Stream<Series> series = conn.getDataStream(databaseRef, flow, Query.builder().key(node).detail(Detail.SERIES_KEYS_ONLY).build())) {
+            series.map(Series::getKey)
+                    .filter(key -> key.isSeries() && filter.test(key))
+                    .forEach(key -> result.add(key.get(dimensionPosition)));
+        }
+        return new ArrayList<>(result);
+    }
+
+    @Nullable
+    TsData toDataByMonth(@NonNull Iterable<Obs> obs) {
+        return toDataByMonth(obs, TsAggregationType.None);
+    }
+
+    /**
+     * Converts ordered observations to a time series by index arithmetic on
+     * their months, without the per-observation allocations of
+     * {@link OptionalTsData#builderByLocalDate}. The frequency is guessed the
+     * same way: the lowest one that puts each observation in its own period.
+     * <p>
+     * Observations that share a month, such as daily or weekly data, are
+     * aggregated into a monthly series in the same pass.
+     *
+     * @param obs observations ordered by period
+     * @param aggregation the aggregation of the observations that share a
+     * month, None to reject them
+     * @return a time series, null if the observations need the generic builder
+     */
+    @Nullable
+    TsData toDataByMonth(@NonNull Iterable<Obs> obs, @NonNull TsAggregationType aggregation) {
+        int spans = (1 << MONTH_SPANS.length) - 1;
+        int first = 0;
+        int last = 0;
+        boolean empty = true;
+        boolean shared = false;
+        for (Obs o : obs) {
+            int month = getMonthIndex(o);
+            if (empty) {
+                first = month;
+                empty = false;
+            } else if (month < last) {
+                return null;
+            } else if (month == last) {
+                if (aggregation == TsAggregationType.None) {
+                    return null;
+                }
+                shared = true;
+            } else {
+                spans &= getSeparatingSpans(last, month);
+            }
+            last = month;
+        }
+        if (empty) {
+            return null;
+        }
+        if (shared) {
+            return aggregateByMonth(obs, aggregation, first, last);
+        }
+        int span = MONTH_SPANS[Integer.numberOfTrailingZeros(spans)];
+        int start = Math.floorDiv(first, span);
+        double[] values = new double[Math.floorDiv(last, span) - start + 1];
+        Arrays.fill(values, Double.NaN);
+        for (Obs o : obs) {
+            values[Math.floorDiv(getMonthIndex(o), span) - start] = o.getValue();
+        }
+        int frequency = 12 / span;
+        return new TsData(TsFrequency.valueOf(frequency), Math.floorDiv(start, frequency), Math.floorMod(start, frequency), values, false);
+    }
+
+    private static TsData aggregateByMonth(Iterable<Obs> obs, TsAggregationType aggregation, int first, int last) {
+        double[] values = new double[last - first + 1];
+        int[] counts = new int[values.length];
+        Arrays.fill(values, Double.NaN);
+        for (Obs o : obs) {
+            double value = o.getValue();
+            if (!Double.isNaN(value)) {
+                int index = getMonthIndex(o) - first;
+                values[index] = counts[index]++ == 0 ? value : aggregate(aggregation, values[index], value);
+            }
+        }
+        if (aggregation == TsAggregationType.Average) {
+            for (int i = 0; i < values.length; i++) {
+                if (counts[i] > 1) {
+                    values[i] /= counts[i];
+                }
+            }
+        }
+        return new TsData(TsFrequency.Monthly, Math.floorDiv(first, 12), Math.floorMod(first, 12), values, false);
+    }
+
+    private static double aggregate(TsAggregationType aggregation, double previous, double current) {
+        switch (aggregation) {
+            case First:
+                return previous;
+            case Last:
+                return current;
+            case Min:
+                return Math.min(previous, current);
+            case Max:
+                return Math.max(previous, current);
+            case Sum:
+            case Average:
+                return previous + current;
+            default:
+                throw new IllegalArgumentException(aggregation.name());
+        }
+    }
+
+    // number of months per period, from the lowest frequency to the highest
+    private static final int[] MONTH_SPANS = {12, 6, 4, 3, 2, 1};
+
+    private static int getMonthIndex(Obs obs) {
+        LocalDateTime start = obs.getPeriod().getStart();
+        return start.getYear() * 12 + start.getMonthValue() - 1;
+    }
+
+    private static int getSeparatingSpans(int previous, int current) {
+        int result = 0;
+        for (int i = 0; i < MONTH_SPANS.length; i++) {
+            if (Math.floorDiv(previous, MONTH_SPANS[i]) != Math.floorDiv(current, MONTH_SPANS[i])) {
+                result |= 1 << i;
+            }
+        }
+        return result;
     }
 
     private static final class SdmxDataAdapter implements TsCursor<Key> {
 
-        private final Key ref;
+        private final Predicate<Key> filter;
         private final IOIterator<Series> cursor;
         private final Closeable closeable;
         private final String labelAttribute;
+        private final TsAggregationType aggregation;
         private boolean closed;
         private Series currentSeries;
 
-        SdmxDataAdapter(@NonNull Key ref, @NonNull Stream<Series> cursor, @Nullable String labelAttribute) {
-            this.ref = ref;
+        SdmxDataAdapter(@NonNull Predicate<Key> filter, @NonNull Stream<Series> cursor, @Nullable String labelAttribute, @NonNull TsAggregationType aggregation) {
+            this.filter = filter;
             this.cursor = IOIterator.checked(cursor.iterator());
             this.closeable = IORunnable.checked(cursor::close).asCloseable();
             this.labelAttribute = labelAttribute;
+            this.aggregation = aggregation;
             this.closed = false;
             this.currentSeries = null;
         }
@@ -104,7 +335,7 @@ public class SdmxQueryUtil {
         public boolean nextSeries() throws IOException {
             while (cursor.hasNextWithIO()) {
                 currentSeries = cursor.nextWithIO();
-                if (currentSeries != null && currentSeries.getKey().isSeries() && ref.contains(currentSeries.getKey())) {
+                if (currentSeries != null && currentSeries.getKey().isSeries() && filter.test(currentSeries.getKey())) {
                     return true;
                 }
             }
@@ -155,6 +386,10 @@ public class SdmxQueryUtil {
                             .addAll(currentSeries.getObs().stream(), SdmxDataAdapter::toLocalDate, Obs::getValue)
                             .build();
                 default:
+                    TsData regular = toDataByMonth(currentSeries.getObs(), aggregation);
+                    if (regular != null) {
+                        return OptionalTsData.present(regular);
+                    }
                     return OptionalTsData
                             .builderByLocalDate(DEFAULT_GATHERING, ObsCharacteristics.ORDERED)
                             .addAll(currentSeries.getObs().stream(), SdmxDataAdapter::toLocalDate, Obs::getValue)
@@ -173,20 +408,7 @@ public class SdmxQueryUtil {
         private static final ObsGathering DEFAULT_GATHERING = ObsGathering.includingMissingValues(TsFrequency.Undefined, TsAggregationType.None);
 
         private static TsFrequency getTsFrequency(Obs obs) {
-            switch (obs.getPeriod().getDuration().toString()) {
-                case "P6M":
-                    return TsFrequency.HalfYearly;
-                case "P4M":
-                    return TsFrequency.QuadriMonthly;
-                case "P3M":
-                    return TsFrequency.Quarterly;
-                case "P2M":
-                    return TsFrequency.BiMonthly;
-                case "P1M":
-                    return TsFrequency.Monthly;
-                default:
-                    return TsFrequency.Yearly;
-            }
+            return SdmxFrequencyTable.getFrequency(obs);
         }
     }
 }
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tstoolkit.design.ThreadSafe;
+import ec.tstoolkit.design.VisibleForTesting;
+import lombok.AccessLevel;
+import lombok.NonNull;
+import sdmxdl.Connection;
+import sdmxdl.DatabaseRef;
+import sdmxdl.Flow;
+import sdmxdl.FlowRef;
+import sdmxdl.MetaSet;
+import sdmxdl.Query;
+import sdmxdl.Series;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+import standalone_sdmxdl.nbbrd.io.http.HttpResponseException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Governs the requests sent to each source with a token bucket, a maximum
+ * number of concurrent connections and an adaptive backoff.
+ * <p>
+ * A token is taken by each query sent through a connection, not by the
+ * connection itself, so that a reused connection is throttled as well. A
+ * throttling response (HTTP 429 or 503), received when sending a query or
+ * while reading its data, blocks the source for the delay
+ * given by its Retry-After header or, if absent, for an exponentially
+ * growing delay that is reset by the next successful request.
+ * <p>
+ * Background tasks of the {@link SdmxPrefetcher} give way to foreground
+ * requests: they never take the last connection slot of a source and they
+ * wait while a foreground request is waiting for a slot.
+ *
+ * @author Philippe Charles
+ */
+@ThreadSafe
+@lombok.RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class SdmxRateLimiter {
+
+    public static final Duration DEFAULT_REQUEST_INTERVAL = Duration.ZERO;
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 0;
+
+    static final Duration MIN_BACKOFF = Duration.ofSeconds(1);
+    static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    @NonNull
+    public static SdmxRateLimiter of(@NonNull Duration requestInterval, int maxConcurrentRequests) {
+        return of(requestInterval, maxConcurrentRequests, System::nanoTime, TimeUnit.NANOSECONDS::sleep);
+    }
+
+    @VisibleForTesting
+    static SdmxRateLimiter of(Duration requestInterval, int maxConcurrentRequests, LongSupplier nanoClock, Sleeper sleeper) {
+        SdmxRateLimiter result = new SdmxRateLimiter(nanoClock, sleeper, new ConcurrentHashMap<>());
+        result.setRequestInterval(requestInterval);
+        result.setMaxConcurrentRequests(maxConcurrentRequests);
+        return result;
+    }
+
+    @VisibleForTesting
+    @FunctionalInterface
+    interface Sleeper {
+
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    private final LongSupplier nanoClock;
+    private final Sleeper sleeper;
+    private final ConcurrentMap<String, Gate> gates;
+    private volatile long requestIntervalNanos;
+    private volatile int maxConcurrentRequests;
+
+    @NonNull
+    public Duration getRequestInterval() {
+        return Duration.ofNanos(requestIntervalNanos);
+    }
+
+    /**
+     * Sets the minimum average interval between two requests on a source.
+     *
+     * @param requestInterval a non-negative interval, zero for no limit
+     */
+    public void setRequestInterval(@NonNull Duration requestInterval) {
+        this.requestIntervalNanos = requestInterval.isNegative() ? 0 : requestInterval.toNanos();
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    /**
+     * Sets the maximum number of connections opened concurrently on a source.
+     * Background tasks can use all but one of them.
+     *
+     * @param maxConcurrentRequests a non-negative number, zero for no limit
+     */
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = Math.max(maxConcurrentRequests, 0);
+        gates.values().forEach(Gate::signalAll);
+    }
+
+    /**
+     * Opens a connection once the source allows it. The returned connection
+     * waits for a token before each query, reports throttling responses to
+     * this limiter and frees its slot when closed.
+     *
+     * @param source the name of the source
+     * @param factory the function that opens the connection
+     * @return a non-null connection
+     * @throws IOException if the connection cannot be established or if the
+     * thread is interrupted while waiting
+     */
+    @NonNull
+    public Connection acquire(@NonNull String source, @NonNull IOSupplier<Connection> factory) throws IOException {
+        Gate gate = gates.computeIfAbsent(source, Gate::new);
+        gate.enter(SdmxPrefetcher.isBackground());
+        try {
+            return new GovernedConnection(gate, factory.getWithIO());
+        } catch (IOException ex) {
+            gate.onFailure(ex);
+            gate.exit();
+            throw ex;
+        } catch (RuntimeException ex) {
+            gate.exit();
+            throw ex;
+        }
+    }
+
+    @NonNull
+    public IOSupplier<Connection> asSupplier(@NonNull String source, @NonNull IOSupplier<Connection> factory) {
+        return () -> acquire(source, factory);
+    }
+
+    /**
+     * Gets the remaining delay imposed on a source by previous throttling
+     * responses.
+     *
+     * @param source the name of the source
+     * @return a non-null duration, zero if the source is not blocked
+     */
+    @NonNull
+    public Duration getBackoff(@NonNull String source) {
+        Gate gate = gates.get(source);
+        return gate != null ? Duration.ofNanos(gate.getBackoffNanos()) : Duration.ZERO;
+    }
+
+    /**
+     * State of a source. Uses a lock instead of a monitor so that a virtual
+     * thread waiting for a slot does not pin its carrier thread.
+     */
+    @lombok.RequiredArgsConstructor
+    private final class Gate {
+
+        private final String source;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition changed = lock.newCondition();
+        private double tokens = 1;
+        private long lastRefill = nanoClock.getAsLong();
+        private long blockedUntil = lastRefill;
+        private int failures = 0;
+        private int running = 0;
+        private int waitingForeground = 0;
+
+        void enter(boolean background) throws IOException {
+            try {
+                awaitBackoff();
+                awaitSlot(background);
+            } catch (InterruptedException ex) {
+                throw interrupted(ex);
+            }
+        }
+
+        void awaitToken() throws IOException {
+            try {
+                awaitBackoff();
+                long delay = reserveToken();
+                if (delay > 0) {
+                    sleeper.sleep(delay);
+                }
+            } catch (InterruptedException ex) {
+                throw interrupted(ex);
+            }
+        }
+
+        private void awaitBackoff() throws InterruptedException {
+            long delay;
+            while ((delay = getBackoffNanos()) > 0) {
+                sleeper.sleep(delay);
+            }
+        }
+
+        private void awaitSlot(boolean background) throws InterruptedException {
+            lock.lock();
+            try {
+                if (!background) {
+                    waitingForeground++;
+                }
+                try {
+                    while (!canEnter(background)) {
+                        changed.await();
+                    }
+                } finally {
+                    if (!background) {
+                        waitingForeground--;
+                        changed.signalAll();
+                    }
+                }
+                running++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private InterruptedIOException interrupted(InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException result = new InterruptedIOException("Interrupted while waiting for source '" + source + "'");
+            result.initCause(ex);
+            return result;
+        }
+
+        private boolean canEnter(boolean background) {
+            int max = maxConcurrentRequests;
+            if (max == 0) {
+                return true;
+            }
+            if (background) {
+                // keeps a slot for the foreground requests if possible
+                return waitingForeground == 0 && running < (max > 1 ? max - 1 : max);
+            }
+            return running < max;
+        }
+
+        void exit() {
+            lock.lock();
+            try {
+                running--;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void signalAll() {
+            lock.lock();
+            try {
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long getBackoffNanos() {
+            lock.lock();
+            try {
+                return Math.max(0, blockedUntil - nanoClock.getAsLong());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void onSuccess() {
+            lock.lock();
+            try {
+                failures = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void onFailure(IOException ex) {
+            getThrottlingResponse(ex).ifPresent(response -> {
+                long delay = getRetryAfter(response)
+                        .map(Duration::toNanos)
+                        .orElse(-1L);
+                lock.lock();
+                try {
+                    if (delay < 0) {
+                        delay = MIN_BACKOFF.toNanos() << Math.min(failures, 30);
+                    }
+                    delay = Math.min(delay, MAX_BACKOFF.toNanos());
+                    failures++;
+                    blockedUntil = Math.max(blockedUntil, nanoClock.getAsLong() + delay);
+                } finally {
+                    lock.unlock();
+                }
+            });
+        }
+
+        private long reserveToken() {
+            long interval = requestIntervalNanos;
+            if (interval <= 0) {
+                return 0;
+            }
+            lock.lock();
+            try {
+                long now = nanoClock.getAsLong();
+                double capacity = Math.max(1, (double) TimeUnit.SECONDS.toNanos(1) / interval);
+                tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / interval);
+                lastRefill = now;
+                tokens -= 1;
+                return tokens >= 0 ? 0 : (long) (-tokens * interval);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @lombok.RequiredArgsConstructor
+    private static final class GovernedConnection implements Connection {
+
+        private final Gate gate;
+
+        @lombok.experimental.Delegate(excludes = Closeable.class)
+        private final Connection delegate;
+
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        @Override
+        public void testConnection() throws IOException {
+            report(() -> {
+                delegate.testConnection();
+                return null;
+            });
+        }
+
+        @Override
+        public MetaSet getMeta(DatabaseRef database, FlowRef flowRef) throws IOException {
+            return report(() -> delegate.getMeta(database, flowRef));
+        }
+
+        @Override
+        public Collection<Flow> getFlows(DatabaseRef database) throws IOException {
+            return report(() -> delegate.getFlows(database));
+        }
+
+        @Override
+        public Stream<Series> getDataStream(DatabaseRef database, FlowRef flowRef, Query query) throws IOException {
+            Stream<Series> result = report(() -> delegate.getDataStream(database, flowRef, query));
+            return SdmxConnections.onFailure(result, ex -> gate.onFailure(ex.getCause()));
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed.compareAndSet(false, true)) {
+                gate.exit();
+                delegate.close();
+            }
+        }
+
+        private <T> T report(IOSupplier<T> request) throws IOException {
+            gate.awaitToken();
+            try {
+                T result = request.getWithIO();
+                gate.onSuccess();
+                return result;
+            } catch (IOException ex) {
+                gate.onFailure(ex);
+                throw ex;
+            }
+        }
+    }
+
+    @VisibleForTesting
+    static Optional<HttpResponseException> getThrottlingResponse(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpResponseException) {
+                int code = ((HttpResponseException) cause).getResponseCode();
+                return code == 429 || code == 503 ? Optional.of((HttpResponseException) cause) : Optional.empty();
+            }
+        }
+        return Optional.empty();
+    }
+
+    @VisibleForTesting
+    static Optional<Duration> getRetryAfter(HttpResponseException response) {
+        Map<String, List<String>> headers = response.getHeaderFields();
+        if (headers == null) {
+            return Optional.empty();
+        }
+        return headers.entrySet()
+                .stream()
+                .filter(header -> "Retry-After".equalsIgnoreCase(header.getKey()))
+                .flatMap(header -> header.getValue().stream())
+                .map(SdmxRateLimiter::parseRetryAfter)
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .findFirst();
+    }
+
+    private static Optional<Duration> parseRetryAfter(String value) {
+        String text = value.trim();
+        try {
+            return Optional.of(Duration.ofSeconds(Math.max(0, Long.parseLong(text))));
+        } catch (NumberFormatException ex) {
+            try {
+                Instant date = ZonedDateTime.parse(text, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                Duration result = Duration.between(Instant.now(), date);
+                return Optional.of(result.isNegative() ? Duration.ZERO : result);
+            } catch (DateTimeParseException other) {
+                return Optional.empty();
+            }
+        }
+    }
+}
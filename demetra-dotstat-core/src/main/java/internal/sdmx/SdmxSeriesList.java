@@ -0,0 +1,110 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.OptionalTsData;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the content of a cursor that can be replayed as many
+ * times as needed.
+ * <p>
+ * The data of the series is kept in a compact form and decoded on access.
+ *
+ * @param <ID>
+ * @author Philippe Charles
+ */
+@lombok.Value
+@lombok.AllArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public class SdmxSeriesList<ID> implements HasWeight {
+
+    @NonNull
+    public static <ID> SdmxSeriesList<ID> copyOf(@NonNull TsCursor<ID> cursor) throws IOException {
+        List<Item<ID>> result = new ArrayList<>();
+        while (cursor.nextSeries()) {
+            result.add(new Item<>(cursor.getSeriesId(), cursor.getSeriesLabel(), copyOf(cursor.getSeriesMetaData()), cursor.getSeriesData()));
+        }
+        return new SdmxSeriesList<>(Collections.unmodifiableList(result));
+    }
+
+    @NonNull
+    public static <ID> SdmxSeriesList<ID> of(@NonNull List<Item<ID>> items) {
+        List<Item<ID>> result = new ArrayList<>(items.size());
+        for (Item<ID> item : items) {
+            result.add(new Item<>(item.getId(), item.getLabel(), copyOf(item.getMeta()), item.data));
+        }
+        return new SdmxSeriesList<>(Collections.unmodifiableList(result));
+    }
+
+    List<Item<ID>> items;
+
+    @Override
+    public long getWeight() {
+        long result = OBJECT_WEIGHT;
+        for (Item<ID> item : items) {
+            result += OBJECT_WEIGHT * 3 + weightOf(item.getLabel()) + item.data.getValuesSize();
+            for (Map.Entry<String, String> o : item.getMeta().entrySet()) {
+                result += OBJECT_WEIGHT + weightOf(o.getKey()) + weightOf(o.getValue());
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    public TsCursor<ID> toCursor() {
+        return TsCursor.from(items.iterator(), Item::getData, Item::getMeta, Item::getLabel).transform(Item::getId);
+    }
+
+    @lombok.Value
+    @lombok.AllArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+    public static class Item<ID> {
+
+        ID id;
+        String label;
+        Map<String, String> meta;
+
+        @lombok.Getter(lombok.AccessLevel.NONE)
+        SdmxCompactData data;
+
+        public Item(ID id, String label, Map<String, String> meta, @NonNull OptionalTsData data) {
+            this(id, label, meta, SdmxCompactData.of(data));
+        }
+
+        @NonNull
+        public OptionalTsData getData() {
+            return data.decode();
+        }
+    }
+
+    static final long OBJECT_WEIGHT = 32;
+
+    static long weightOf(String value) {
+        return value != null ? OBJECT_WEIGHT + 2L * value.length() : 0;
+    }
+
+    private static Map<String, String> copyOf(Map<String, String> meta) {
+        return meta.isEmpty() ? Collections.emptyMap() : Collections.unmodifiableMap(new HashMap<>(meta));
+    }
+}
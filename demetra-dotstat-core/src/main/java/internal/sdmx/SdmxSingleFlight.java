@@ -0,0 +1,294 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.OptionalTsData;
+import ec.tstoolkit.design.ThreadSafe;
+import ec.tstoolkit.design.VisibleForTesting;
+import lombok.NonNull;
+import standalone_sdmxdl.nbbrd.io.WrappedIOException;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Coalesces identical queries that are executed concurrently.
+ * <p>
+ * The first caller of a query loads the result while the other callers of the
+ * same query wait for it and share it. Nothing is kept once the query is
+ * completed: caching is left to the caller.
+ * <p>
+ * If the first caller is interrupted or gives up, for example when a
+ * prefetch is cancelled, the waiting callers are not failed: they run the
+ * query again.
+ *
+ * @author Philippe Charles
+ */
+@ThreadSafe
+@lombok.RequiredArgsConstructor(access = lombok.AccessLevel.PRIVATE)
+public final class SdmxSingleFlight {
+
+    @NonNull
+    public static SdmxSingleFlight create() {
+        return new SdmxSingleFlight(new ConcurrentHashMap<>());
+    }
+
+    private final ConcurrentMap<SdmxQueryKey, Call> inFlight;
+
+    /**
+     * Executes a query or waits for the identical one that is already in
+     * flight.
+     *
+     * @param <T> the type of the result, which must be safe to share between
+     * threads
+     * @param key the identity of the query
+     * @param loader the function that loads the result
+     * @return the result of the query
+     * @throws IOException if the query failed
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(@NonNull SdmxQueryKey key, @NonNull IOSupplier<T> loader) throws IOException {
+        while (true) {
+            Call created = new Call(true);
+            Call existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                if (!existing.join()) {
+                    return loader.getWithIO();
+                }
+                Object result = await(existing);
+                if (result != RETRY) {
+                    return (T) result;
+                }
+                continue;
+            }
+            try {
+                T result = loader.getWithIO();
+                created.result.complete(result);
+                return result;
+            } catch (IOException | RuntimeException | Error ex) {
+                created.fail(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(key, created);
+            }
+        }
+    }
+
+    /**
+     * Streams a query or joins the identical one that is already in flight.
+     * <p>
+     * The first caller streams the series without copying them. A caller
+     * that arrives before the first caller has read any series joins it: the
+     * first caller then records the series that it reads and the joiner
+     * replays them once they have all been read. A caller that arrives later
+     * runs its own query.
+     *
+     * @param <T> the type of the series ids
+     * @param key the identity of the query
+     * @param loader the function that opens the cursor of the query
+     * @return a non-null cursor
+     * @throws IOException if the query failed
+     */
+    @SuppressWarnings("unchecked")
+    @NonNull
+    public <T> TsCursor<T> stream(@NonNull SdmxQueryKey key, @NonNull IOSupplier<TsCursor<T>> loader) throws IOException {
+        while (true) {
+            Call created = new Call(false);
+            Call existing = inFlight.putIfAbsent(key, created);
+            if (existing != null) {
+                if (!existing.join()) {
+                    return loader.getWithIO();
+                }
+                Object result = await(existing);
+                if (result != RETRY) {
+                    return ((SdmxSeriesList<T>) result).toCursor();
+                }
+                continue;
+            }
+            try {
+                return new LeaderCursor<>(loader.getWithIO(), created, () -> inFlight.remove(key, created));
+            } catch (IOException | RuntimeException | Error ex) {
+                created.fail(ex);
+                inFlight.remove(key, created);
+                throw ex;
+            }
+        }
+    }
+
+    @VisibleForTesting
+    int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private static final Object RETRY = new Object();
+
+    private static Object await(Call call) throws IOException {
+        try {
+            return call.result.get();
+        } catch (CancellationException ex) {
+            return RETRY;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException result = new InterruptedIOException("Interrupted while waiting for a shared query");
+            result.initCause(ex);
+            throw result;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw WrappedIOException.wrap(cause);
+        }
+    }
+
+    private static boolean isInterruption(Throwable ex) {
+        return ex instanceof InterruptedIOException
+                || ex instanceof ClosedByInterruptException
+                || Thread.currentThread().isInterrupted();
+    }
+
+    private static final class Call {
+
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        private boolean shared;
+        private boolean sealed;
+
+        Call(boolean shared) {
+            this.shared = shared;
+        }
+
+        synchronized boolean join() {
+            if (sealed) {
+                return false;
+            }
+            shared = true;
+            return true;
+        }
+
+        // called by the first caller before reading its first series
+        synchronized boolean seal() {
+            sealed = true;
+            return shared;
+        }
+
+        void fail(Throwable ex) {
+            if (isInterruption(ex)) {
+                result.cancel(false);
+            } else {
+                result.completeExceptionally(ex);
+            }
+        }
+    }
+
+    private static final class LeaderCursor<T> implements TsCursor<T> {
+
+        private final TsCursor<T> delegate;
+        private final Call call;
+        private final Runnable onSealed;
+        private boolean started;
+        private List<SdmxSeriesList.Item<T>> recorded;
+        private SdmxSeriesList.Item<T> current;
+
+        LeaderCursor(TsCursor<T> delegate, Call call, Runnable onSealed) {
+            this.delegate = delegate;
+            this.call = call;
+            this.onSealed = onSealed;
+        }
+
+        @Override
+        public boolean isClosed() throws IOException {
+            return delegate.isClosed();
+        }
+
+        @Override
+        public Map<String, String> getMetaData() throws IOException {
+            return delegate.getMetaData();
+        }
+
+        @Override
+        public boolean nextSeries() throws IOException {
+            if (!started) {
+                started = true;
+                if (call.seal()) {
+                    recorded = new ArrayList<>();
+                } else {
+                    onSealed.run();
+                }
+            }
+            if (recorded == null) {
+                return delegate.nextSeries();
+            }
+            try {
+                if (delegate.nextSeries()) {
+                    current = new SdmxSeriesList.Item<>(delegate.getSeriesId(), delegate.getSeriesLabel(), delegate.getSeriesMetaData(), delegate.getSeriesData());
+                    recorded.add(current);
+                    return true;
+                }
+                current = null;
+                call.result.complete(SdmxSeriesList.of(recorded));
+                onSealed.run();
+                return false;
+            } catch (IOException | RuntimeException | Error ex) {
+                call.fail(ex);
+                onSealed.run();
+                throw ex;
+            }
+        }
+
+        @Override
+        public T getSeriesId() throws IOException {
+            return current != null ? current.getId() : delegate.getSeriesId();
+        }
+
+        @Override
+        public String getSeriesLabel() throws IOException {
+            return current != null ? current.getLabel() : delegate.getSeriesLabel();
+        }
+
+        @Override
+        public OptionalTsData getSeriesData() throws IOException {
+            return current != null ? current.getData() : delegate.getSeriesData();
+        }
+
+        @Override
+        public Map<String, String> getSeriesMetaData() throws IOException {
+            return current != null ? current.getMeta() : delegate.getSeriesMetaData();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the joiners run the query again if the series were not all read
+            call.result.cancel(false);
+            onSealed.run();
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import ec.tstoolkit.design.VisibleForTesting;
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import sdmxdl.DatabaseRef;
+import sdmxdl.FlowRef;
+import sdmxdl.Languages;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.LongSupplier;
+
+/**
+ * Cache of the structures of flows that survives restarts.
+ * <p>
+ * Entries are identified by source, database, flow and languages. They are
+ * kept in memory as long as there is no memory pressure and, if a folder is
+ * set, stored in a compact binary file each. An entry older than the time to
+ * live is still returned but is reloaded in the background so that the next
+ * use gets a fresh one; it is replaced only if the reload succeeds.
+ * <p>
+ * The structures themselves are shared through a {@link SdmxStructureRegistry}
+ * so that the caches of several providers hold a single instance of each
+ * structure and do not download it twice.
+ * <p>
+ * The cache is best-effort: an entry that cannot be read or written is
+ * considered as missing.
+ *
+ * @author Philippe Charles
+ */
+public final class SdmxStructureCache {
+
+    public static final Duration DEFAULT_TTL = Duration.ofDays(7);
+
+    @NonNull
+    public static SdmxStructureCache of(@Nullable Path folder, @NonNull Duration ttl, @NonNull Executor revalidator) {
+        return of(folder, ttl, revalidator, SdmxStructureRegistry.getDefault(), System::currentTimeMillis);
+    }
+
+    @VisibleForTesting
+    static SdmxStructureCache of(Path folder, Duration ttl, Executor revalidator, SdmxStructureRegistry registry, LongSupplier clock) {
+        return new SdmxStructureCache(clock, revalidator, registry, folder, ttl);
+    }
+
+    private static final String EXTENSION = ".structure";
+    private static final int MAGIC = 0x53444D53;
+    private static final int VERSION = 1;
+
+    private final LongSupplier clock;
+    private final Executor revalidator;
+    private final SdmxStructureRegistry registry;
+    private final Cache<String, Entry> entries;
+    private final Set<String> revalidating;
+    private volatile Path folder;
+    private volatile Duration ttl;
+
+    private SdmxStructureCache(LongSupplier clock, Executor revalidator, SdmxStructureRegistry registry, Path folder, Duration ttl) {
+        this.clock = clock;
+        this.revalidator = revalidator;
+        this.registry = registry;
+        this.entries = CacheBuilder.newBuilder().softValues().build();
+        this.revalidating = ConcurrentHashMap.newKeySet();
+        this.folder = folder;
+        this.ttl = ttl;
+    }
+
+    @Nullable
+    public Path getFolder() {
+        return folder;
+    }
+
+    public void setFolder(@Nullable Path folder) {
+        this.folder = folder;
+    }
+
+    @NonNull
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(@NonNull Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public boolean isEnabled() {
+        return !ttl.isZero() && !ttl.isNegative();
+    }
+
+    /**
+     * Gets the structure of a flow from the cache or loads it and stores it in
+     * the cache. A stale entry is returned as is and reloaded in the
+     * background.
+     *
+     * @param source the identifier of the source
+     * @param languages the languages of the labels
+     * @param database
+     * @param flow
+     * @param loader the function that downloads the structure
+     * @return a non-null structure
+     * @throws IOException if the structure is not cached and cannot be loaded
+     */
+    @NonNull
+    public SdmxFlowInfo getOrLoad(@NonNull String source, @NonNull Languages languages, @NonNull DatabaseRef database, @NonNull FlowRef flow, @NonNull IOSupplier<SdmxFlowInfo> loader) throws IOException {
+        if (!isEnabled()) {
+            return loader.getWithIO();
+        }
+        String id = SdmxStructureRegistry.getId(source, languages, database, flow);
+        Entry entry = get(id);
+        if (entry == null) {
+            SdmxFlowInfo result = registry.getOrLoad(id, loader);
+            put(id, new Entry(result, clock.getAsLong()));
+            return result;
+        }
+        if (clock.getAsLong() - entry.getLoadedAt() >= ttl.toMillis()) {
+            revalidate(id, loader);
+        }
+        return entry.getInfo();
+    }
+
+    /**
+     * Removes the entries kept in memory; the persisted ones are read again
+     * from the disk on next use.
+     */
+    public void invalidateAll() {
+        entries.asMap().keySet().forEach(registry::invalidate);
+        entries.invalidateAll();
+    }
+
+    /**
+     * Removes all the entries of this cache so that they are loaded again on
+     * next use.
+     */
+    public void clear() {
+        invalidateAll();
+        for (Path file : list()) {
+            deleteQuietly(file);
+        }
+    }
+
+    private Entry get(String id) {
+        Entry result = entries.getIfPresent(id);
+        if (result == null) {
+            result = read(id);
+            if (result != null) {
+                result = new Entry(registry.put(id, result.getInfo()), result.getLoadedAt());
+                entries.put(id, result);
+            }
+        }
+        return result;
+    }
+
+    private void put(String id, Entry entry) {
+        entries.put(id, entry);
+        write(id, entry);
+    }
+
+    private void revalidate(String id, IOSupplier<SdmxFlowInfo> loader) {
+        if (!revalidating.add(id)) {
+            return;
+        }
+        try {
+            revalidator.execute(() -> {
+                try {
+                    put(id, new Entry(registry.put(id, loader.getWithIO()), clock.getAsLong()));
+                } catch (IOException | RuntimeException ex) {
+                    // the stale entry is kept and reloaded on next use
+                } finally {
+                    revalidating.remove(id);
+                }
+            });
+        } catch (RuntimeException ex) {
+            revalidating.remove(id);
+        }
+    }
+
+    private Entry read(String id) {
+        Path root = folder;
+        if (root == null) {
+            return null;
+        }
+        Path file = root.resolve(getFileName(id));
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (InputStream stream = Files.newInputStream(file)) {
+            return read(stream, id, Files.size(file));
+        } catch (IOException | RuntimeException ex) {
+            deleteQuietly(file);
+            return null;
+        }
+    }
+
+    private void write(String id, Entry entry) {
+        Path root = folder;
+        if (root == null) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(root);
+            tmp = Files.createTempFile(root, "put", ".tmp");
+            try (OutputStream stream = Files.newOutputStream(tmp)) {
+                write(stream, id, entry);
+            }
+            Files.move(tmp, root.resolve(getFileName(id)), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException ex) {
+            if (tmp != null) {
+                deleteQuietly(tmp);
+            }
+        }
+    }
+
+    private List<Path> list() {
+        List<Path> result = new ArrayList<>();
+        Path root = folder;
+        if (root != null && Files.isDirectory(root)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*" + EXTENSION)) {
+                files.forEach(result::add);
+            } catch (IOException ex) {
+                // unreadable folder is an empty cache
+            }
+        }
+        return result;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            // deleted on next clear
+        }
+    }
+
+    @VisibleForTesting
+    static String getFileName(String id) {
+        return Hashing.sha256().hashString(id, StandardCharsets.UTF_8) + EXTENSION;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Implementation details">
+    private static void write(OutputStream stream, String id, Entry entry) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(entry.getLoadedAt());
+        writeString(out, id);
+        SdmxFlowInfo info = entry.getInfo();
+        writeString(out, info.getName());
+        writeComponents(out, info.getDimensions());
+        writeComponents(out, info.getAttributes());
+        out.flush();
+    }
+
+    private static Entry read(InputStream stream, String id, long fileSize) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Invalid entry");
+        }
+        long loadedAt = in.readLong();
+        if (!id.equals(readString(in, fileSize))) {
+            return null;
+        }
+        String name = readString(in, fileSize);
+        List<SdmxFlowInfo.Component> dimensions = readComponents(in, fileSize);
+        List<SdmxFlowInfo.Component> attributes = readComponents(in, fileSize);
+        return new Entry(new SdmxFlowInfo(name, dimensions, attributes), loadedAt);
+    }
+
+    private static void writeComponents(DataOutputStream out, List<SdmxFlowInfo.Component> components) throws IOException {
+        out.writeInt(components.size());
+        for (SdmxFlowInfo.Component component : components) {
+            writeString(out, component.getId());
+            writeString(out, component.getName());
+            out.writeInt(component.getCodes().size());
+            for (Map.Entry<String, String> code : component.getCodes().entrySet()) {
+                writeString(out, code.getKey());
+                writeString(out, code.getValue());
+            }
+        }
+    }
+
+    private static List<SdmxFlowInfo.Component> readComponents(DataInputStream in, long fileSize) throws IOException {
+        // a component has at least two string lengths and a size
+        int size = readLength(in, fileSize, Integer.BYTES * 3);
+        List<SdmxFlowInfo.Component> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String id = readString(in, fileSize);
+            String name = readString(in, fileSize);
+            int codesSize = readLength(in, fileSize, Integer.BYTES * 2);
+            Map<String, String> codes = new LinkedHashMap<>(codesSize);
+            for (int j = 0; j < codesSize; j++) {
+                codes.put(readString(in, fileSize), readString(in, fileSize));
+            }
+            result.add(new SdmxFlowInfo.Component(id, name, Collections.unmodifiableMap(codes)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in, long fileSize) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < 0 || length > fileSize) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a count of elements and checks that the file can hold them, so
+     * that a corrupt entry cannot trigger a huge allocation.
+     */
+    private static int readLength(DataInputStream in, long fileSize, int minBytesPerElement) throws IOException {
+        int result = in.readInt();
+        if (result < 0 || (long) result * minBytesPerElement > fileSize) {
+            throw new IOException("Invalid length " + result);
+        }
+        return result;
+    }
+
+    @lombok.Value
+    private static class Entry {
+
+        SdmxFlowInfo info;
+        long loadedAt;
+    }
+    //</editor-fold>
+}
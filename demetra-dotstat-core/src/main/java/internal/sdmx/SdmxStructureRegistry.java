@@ -0,0 +1,130 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import ec.tstoolkit.design.VisibleForTesting;
+import lombok.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import sdmxdl.DatabaseRef;
+import sdmxdl.FlowRef;
+import sdmxdl.Languages;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Process-wide registry of the structures of flows that are in use.
+ * <p>
+ * Structures are identified by source, languages, database and flow and are
+ * only weakly referenced: a structure stays registered as long as a data
+ * source, a provider or a cache uses it. Equal structures are interned so
+ * that data sources on the same flow share a single instance, whatever the
+ * order of their dimensions, and concurrent loads of the same structure are
+ * coalesced into a single download.
+ *
+ * @author Philippe Charles
+ */
+public final class SdmxStructureRegistry {
+
+    @NonNull
+    public static SdmxStructureRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    @VisibleForTesting
+    static SdmxStructureRegistry create() {
+        return new SdmxStructureRegistry();
+    }
+
+    private static final SdmxStructureRegistry DEFAULT = new SdmxStructureRegistry();
+
+    private final Cache<String, SdmxFlowInfo> structures = CacheBuilder.newBuilder().weakValues().build();
+    private final Interner<SdmxFlowInfo> interner = Interners.newWeakInterner();
+
+    private SdmxStructureRegistry() {
+    }
+
+    /**
+     * Gets a registered structure or loads and registers it. Concurrent calls
+     * with the same identity wait for a single load.
+     *
+     * @param source the identifier of the source
+     * @param languages the languages of the labels
+     * @param database
+     * @param flow
+     * @param loader the function that loads the structure
+     * @return a non-null structure
+     * @throws IOException if the structure cannot be loaded
+     */
+    @NonNull
+    public SdmxFlowInfo getOrLoad(@NonNull String source, @NonNull Languages languages, @NonNull DatabaseRef database, @NonNull FlowRef flow, @NonNull IOSupplier<SdmxFlowInfo> loader) throws IOException {
+        return getOrLoad(getId(source, languages, database, flow), loader);
+    }
+
+    @NonNull
+    SdmxFlowInfo getOrLoad(@NonNull String id, @NonNull IOSupplier<SdmxFlowInfo> loader) throws IOException {
+        try {
+            return structures.get(id, () -> interner.intern(loader.getWithIO()));
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof IOException ? (IOException) ex.getCause() : new IOException(ex.getCause());
+        } catch (UncheckedExecutionException ex) {
+            throw (RuntimeException) ex.getCause();
+        } catch (ExecutionError ex) {
+            throw (Error) ex.getCause();
+        }
+    }
+
+    @Nullable
+    SdmxFlowInfo get(@NonNull String id) {
+        return structures.getIfPresent(id);
+    }
+
+    /**
+     * Registers a structure, replacing the previous one.
+     *
+     * @param id the identity of the structure
+     * @param info the structure
+     * @return the shared instance that is equal to the structure
+     */
+    @NonNull
+    SdmxFlowInfo put(@NonNull String id, @NonNull SdmxFlowInfo info) {
+        SdmxFlowInfo result = interner.intern(info);
+        structures.put(id, result);
+        return result;
+    }
+
+    /**
+     * Unregisters a structure so that it is loaded again on next use. Its
+     * current users keep their instance.
+     *
+     * @param id the identity of the structure
+     */
+    void invalidate(@NonNull String id) {
+        structures.invalidate(id);
+    }
+
+    static String getId(String source, Languages languages, DatabaseRef database, FlowRef flow) {
+        return source + "|" + languages + "|" + database + "|" + flow;
+    }
+}
@@ -23,6 +23,8 @@ import ec.tss.tsproviders.db.DbSetId;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsFrequency;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
+import internal.sdmx.SdmxDimensionTable;
+import internal.sdmx.SdmxKeyConverter;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import sdmxdl.*;
@@ -109,6 +111,18 @@ public class DotStatAccessorTest {
         assertThat(getKey(dsd, r2)).isEqualTo(Key.ALL);
     }
 
+    @Test
+    public void testKeyConverter() throws Exception {
+        Structure dsd = manager.getConnection("NBB", ANY).getMeta(NO_DATABASE, NBB_FLOW_REF).getStructure();
+        assertThat(SdmxDimensionTable.of(dsd)).isSameAs(SdmxDimensionTable.of(dsd));
+
+        DbSetId r2 = DbSetId.root("FREQUENCY", "LOCATION", "SUBJECT");
+        SdmxKeyConverter<DbSetId> converter = SdmxKeyConverter.of(dsd, r2.child("M"));
+        assertThat(converter.toKey(r2.child("M", "AUS"))).isEqualTo(Key.parse(".AUS.M"));
+        assertThat(converter.fromKey(Key.parse("LOCSTL04.AUS.M"))).isEqualTo(r2.child("M", "AUS", "LOCSTL04"));
+        assertThat(converter.fromKey(Key.parse("LOCSTL04.BEL.M"))).isEqualTo(r2.child("M", "BEL", "LOCSTL04"));
+    }
+
     @Test
     public void testGetKeyFromTs() throws Exception {
         assertThat(manager
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeAccessor;
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.IteratorWithIO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxAsyncCubeAccessorTest {
+
+    private static final CubeId ROOT = CubeId.root("FREQ", "REF_AREA");
+    private static final CubeId A = ROOT.child("A");
+    private static final CubeId A_BE = A.child("BE");
+    private static final CubeId A_FR = A.child("FR");
+
+    private final FakeAccessor delegate = new FakeAccessor();
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final Executor executor = tasks::add;
+
+    @Test
+    public void testCompletion() throws Exception {
+        SdmxAsyncCubeAccessor accessor = SdmxAsyncCubeAccessor.of(delegate, executor);
+
+        CompletableFuture<SdmxSeriesList<CubeId>> series = accessor.getAllSeriesWithData(A);
+        CompletableFuture<List<CubeId>> children = accessor.getChildren(A);
+        assertThat(series).isNotDone();
+        assertThat(delegate.calls).hasValue(0);
+
+        tasks.forEach(Runnable::run);
+        assertThat(series.get().getItems()).extracting(SdmxSeriesList.Item::getId).containsExactly(A_BE, A_FR);
+        assertThat(children.get()).containsExactly(A_BE, A_FR);
+        assertThat(delegate.calls).hasValue(2);
+    }
+
+    @Test
+    public void testFailure() {
+        delegate.failure = new IOException("boom");
+        SdmxAsyncCubeAccessor accessor = SdmxAsyncCubeAccessor.of(delegate, Runnable::run);
+
+        assertThatThrownBy(() -> accessor.getSeriesWithData(A_BE).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseReference(delegate.failure);
+    }
+
+    @Test
+    public void testCancellation() {
+        SdmxAsyncCubeAccessor accessor = SdmxAsyncCubeAccessor.of(delegate, executor);
+
+        CompletableFuture<SdmxSeriesList<CubeId>> series = accessor.getAllSeries(A);
+        assertThat(series.cancel(true)).isTrue();
+        tasks.forEach(Runnable::run);
+
+        assertThat(delegate.calls).hasValue(0);
+        assertThatThrownBy(series::join).isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    public void testRejected() {
+        SdmxAsyncCubeAccessor accessor = SdmxAsyncCubeAccessor.of(delegate, task -> {
+            throw new RejectedExecutionException();
+        });
+
+        assertThat(accessor.getAllSeries(A)).isCompletedExceptionally();
+        assertThat(delegate.calls).hasValue(0);
+    }
+
+    private static final class FakeAccessor implements CubeAccessor {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private IOException failure;
+
+        @Override
+        public IOException testConnection() {
+            return null;
+        }
+
+        @Override
+        public CubeId getRoot() {
+            return ROOT;
+        }
+
+        @Override
+        public TsCursor<CubeId> getAllSeries(CubeId id) throws IOException {
+            calls.incrementAndGet();
+            if (failure != null) {
+                throw failure;
+            }
+            return TsCursor.from(Arrays.asList(A_BE, A_FR).iterator()).filter(id::isAncestorOf);
+        }
+
+        @Override
+        public TsCursor<CubeId> getAllSeriesWithData(CubeId id) throws IOException {
+            return getAllSeries(id);
+        }
+
+        @Override
+        public TsCursor<CubeId> getSeriesWithData(CubeId id) throws IOException {
+            return getAllSeries(id);
+        }
+
+        @Override
+        public IteratorWithIO<CubeId> getChildren(CubeId id) {
+            calls.incrementAndGet();
+            return IteratorWithIO.from(Arrays.asList(A_BE, A_FR).iterator());
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "fake";
+        }
+
+        @Override
+        public String getDisplayName(CubeId id) {
+            return id.toString();
+        }
+
+        @Override
+        public String getDisplayNodeName(CubeId id) {
+            return id.toString();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeAccessor;
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.IteratorWithIO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxBulkCubeAccessorTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private static final CubeId ROOT = CubeId.root("FREQ", "REF_AREA");
+    private static final CubeId A = ROOT.child("A");
+    private static final CubeId A_BE = A.child("BE");
+    private static final CubeId A_FR = A.child("FR");
+
+    private final FakeAccessor delegate = new FakeAccessor();
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final Executor executor = tasks::add;
+
+    @Test
+    public void testDisabled() {
+        assertThat(SdmxBulkCubeAccessor.of(delegate, 0, TTL, false, executor, SdmxMetrics.of(null), null, clock::get)).isSameAs(delegate);
+        assertThat(SdmxBulkCubeAccessor.of(delegate, 1, Duration.ZERO, false, executor, SdmxMetrics.of(null), null, clock::get)).isSameAs(delegate);
+    }
+
+    @Test
+    public void testTtl() throws IOException {
+        CubeAccessor accessor = SdmxBulkCubeAccessor.of(delegate, 1, TTL, false, executor, SdmxMetrics.of(null), null, clock::get);
+
+        assertThat(ids(accessor.getAllSeriesWithData(A))).containsExactly(A_BE, A_FR);
+        assertThat(ids(accessor.getSeriesWithData(A_FR))).containsExactly(A_FR);
+        assertThat(delegate.loads).hasValue(1);
+
+        clock.set(2 * TTL.toNanos());
+        assertThat(ids(accessor.getSeriesWithData(A_BE))).containsExactly(A_BE);
+        assertThat(tasks).isEmpty();
+    }
+
+    @Test
+    public void testRefreshAhead() throws IOException {
+        CubeAccessor accessor = SdmxBulkCubeAccessor.of(delegate, 1, TTL, true, executor, SdmxMetrics.of(null), null, clock::get);
+
+        assertThat(isStale(accessor.getAllSeriesWithData(A))).isFalse();
+        assertThat(delegate.loads).hasValue(1);
+
+        clock.set(TTL.toNanos() / 100 * 50);
+        assertThat(isStale(accessor.getAllSeriesWithData(A))).isFalse();
+        assertThat(tasks).isEmpty();
+
+        clock.set(TTL.toNanos() / 100 * 80);
+        assertThat(isStale(accessor.getAllSeriesWithData(A))).isFalse();
+        assertThat(isStale(accessor.getSeriesWithData(A_BE))).isFalse();
+        assertThat(tasks).hasSize(1);
+
+        clock.set(TTL.toNanos() / 100 * 120);
+        assertThat(isStale(accessor.getSeriesWithData(A_BE))).isTrue();
+        assertThat(tasks).hasSize(1);
+        assertThat(delegate.loads).hasValue(1);
+
+        tasks.remove(0).run();
+        assertThat(delegate.loads).hasValue(2);
+        assertThat(isStale(accessor.getAllSeriesWithData(A))).isFalse();
+        assertThat(tasks).isEmpty();
+    }
+
+    @Test
+    public void testDescendants() throws IOException {
+        SdmxKeyCodec codec = SdmxKeyCodec.of(Arrays.asList(Arrays.asList("Q", "A"), Arrays.asList("FR")));
+        SdmxMetrics metrics = SdmxMetrics.of(null);
+        CubeAccessor accessor = SdmxBulkCubeAccessor.of(delegate, 2, TTL, false, executor, metrics, () -> codec, clock::get);
+
+        assertThat(ids(accessor.getAllSeriesWithData(A))).containsExactly(A_BE, A_FR);
+        assertThat(ids(accessor.getSeriesWithData(A_FR))).containsExactly(A_FR);
+        assertThat(ids(accessor.getSeriesWithData(A.child("LU")))).isEmpty();
+        assertThat(ids(accessor.getAllSeriesWithData(ROOT.child("Q")))).isEmpty();
+        assertThat(delegate.loads).hasValue(1);
+        assertThat(metrics.getBulkCacheMisses()).isEqualTo(1);
+        assertThat(metrics.getBulkCacheAncestorHits()).isEqualTo(3);
+    }
+
+    private static List<CubeId> ids(TsCursor<CubeId> cursor) throws IOException {
+        List<CubeId> result = new ArrayList<>();
+        try (TsCursor<CubeId> closeable = cursor) {
+            while (closeable.nextSeries()) {
+                result.add(closeable.getSeriesId());
+            }
+        }
+        return result;
+    }
+
+    private static boolean isStale(TsCursor<CubeId> cursor) throws IOException {
+        try (TsCursor<CubeId> closeable = cursor) {
+            return closeable.getMetaData().containsKey(SdmxBulkCubeAccessor.STALE_META);
+        }
+    }
+
+    private static final class FakeAccessor implements CubeAccessor {
+
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public IOException testConnection() {
+            return null;
+        }
+
+        @Override
+        public CubeId getRoot() {
+            return ROOT;
+        }
+
+        @Override
+        public TsCursor<CubeId> getAllSeries(CubeId id) {
+            return TsCursor.from(Arrays.asList(A_BE, A_FR).iterator()).filter(id::isAncestorOf);
+        }
+
+        @Override
+        public TsCursor<CubeId> getAllSeriesWithData(CubeId id) {
+            loads.incrementAndGet();
+            return getAllSeries(id);
+        }
+
+        @Override
+        public TsCursor<CubeId> getSeriesWithData(CubeId id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IteratorWithIO<CubeId> getChildren(CubeId id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getDisplayName() {
+            return "fake";
+        }
+
+        @Override
+        public String getDisplayName(CubeId id) {
+            return id.toString();
+        }
+
+        @Override
+        public String getDisplayNodeName(CubeId id) {
+            return id.toString();
+        }
+    }
+}
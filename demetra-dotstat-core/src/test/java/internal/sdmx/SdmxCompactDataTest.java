@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.utils.OptionalTsData;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxCompactDataTest {
+
+    @Test
+    public void testAbsent() {
+        OptionalTsData data = OptionalTsData.absent(2, 1, "No data");
+        assertThat(SdmxCompactData.of(data).decode()).isEqualTo(data);
+    }
+
+    @Test
+    public void testPresent() {
+        assertRoundTrip(new double[0]);
+        assertRoundTrip(new double[]{Math.PI});
+        assertRoundTrip(new double[]{1, 1, 1, 1, 2, 2, 2, 3});
+        assertRoundTrip(new double[]{Double.NaN, 0, -0.0, Double.NEGATIVE_INFINITY, Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN});
+
+        double[] walk = new double[500];
+        double[] noise = new double[500];
+        Random random = new Random(0);
+        for (int i = 0; i < walk.length; i++) {
+            walk[i] = (i > 0 ? walk[i - 1] : 100) + random.nextInt(10) / 10.0;
+            noise[i] = random.nextDouble();
+        }
+        assertRoundTrip(walk);
+        assertRoundTrip(noise);
+    }
+
+    @Test
+    public void testCompression() {
+        double[] values = new double[240];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 100 + (i % 12);
+        }
+        SdmxCompactData compact = SdmxCompactData.of(OptionalTsData.present(dataOf(values)));
+        assertThat(compact.getValuesSize()).isLessThan(values.length * Double.BYTES / 4);
+    }
+
+    private static void assertRoundTrip(double[] values) {
+        OptionalTsData data = OptionalTsData.present(values.length, 0, dataOf(values));
+        assertThat(SdmxCompactData.of(data).decode()).isEqualTo(data);
+    }
+
+    private static TsData dataOf(double[] values) {
+        return new TsData(TsFrequency.Monthly, 2000, 3, values, true);
+    }
+}
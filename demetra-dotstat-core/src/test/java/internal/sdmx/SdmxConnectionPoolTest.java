@@ -0,0 +1,213 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+import sdmxdl.Connection;
+import sdmxdl.Languages;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxConnectionPoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean(false);
+
+    private final IOSupplier<Connection> factory = () -> {
+        created.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getSupportedFeatures":
+                    return Collections.emptySet();
+                case "testConnection":
+                    if (failing.get()) {
+                        throw new IOException("boom");
+                    }
+                    return null;
+                case "close":
+                    closed.incrementAndGet();
+                    return null;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    };
+
+    @Test
+    public void testReuse() throws IOException {
+        SdmxConnectionPool pool = SdmxConnectionPool.of(2, Duration.ofMinutes(1));
+
+        try (Connection conn = pool.borrow("nbb", Languages.ANY, factory)) {
+            assertThat(conn.getSupportedFeatures()).isEmpty();
+        }
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+
+        try (Connection conn = pool.borrow("nbb", Languages.ANY, factory)) {
+            assertThat(pool.getIdleCount()).isEqualTo(0);
+        }
+        assertThat(created).hasValue(1);
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+
+        pool.borrow("other", Languages.ANY, factory).close();
+        assertThat(created).hasValue(2);
+        assertThat(pool.getIdleCount()).isEqualTo(2);
+
+        pool.close();
+        assertThat(pool.getIdleCount()).isEqualTo(0);
+        pool.borrow("nbb", Languages.ANY, factory).close();
+        assertThat(created).hasValue(3);
+        assertThat(pool.getIdleCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testMaxIdle() throws IOException {
+        SdmxConnectionPool pool = SdmxConnectionPool.of(2, Duration.ofMinutes(1));
+
+        Connection c1 = pool.borrow("nbb", Languages.ANY, factory);
+        Connection c2 = pool.borrow("nbb", Languages.ANY, factory);
+        Connection c3 = pool.borrow("nbb", Languages.ANY, factory);
+        c1.close();
+        c2.close();
+        c3.close();
+        c3.close();
+        assertThat(created).hasValue(3);
+        assertThat(pool.getIdleCount()).isEqualTo(2);
+
+        pool.setMaxIdle(1);
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+
+        pool.setMaxIdle(0);
+        assertThat(pool.getIdleCount()).isEqualTo(0);
+        pool.borrow("nbb", Languages.ANY, factory).close();
+        assertThat(pool.getIdleCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testIdleTimeout() throws IOException {
+        AtomicLong clock = new AtomicLong();
+        SdmxConnectionPool pool = SdmxConnectionPool.of(2, 0, Duration.ofNanos(10), Duration.ZERO, clock::get);
+
+        pool.borrow("nbb", Languages.ANY, factory).close();
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+
+        clock.set(5);
+        pool.borrow("nbb", Languages.ANY, factory).close();
+        assertThat(created).hasValue(1);
+
+        clock.set(20);
+        pool.evictIdle();
+        assertThat(pool.getIdleCount()).isEqualTo(0);
+
+        pool.borrow("nbb", Languages.ANY, factory).close();
+        clock.set(40);
+        pool.borrow("nbb", Languages.ANY, factory).close();
+        assertThat(created).hasValue(3);
+    }
+
+    @Test
+    public void testMaxTotal() throws Exception {
+        SdmxConnectionPool pool = SdmxConnectionPool.of(2, 1, Duration.ofMinutes(1), Duration.ofMinutes(1), System::nanoTime);
+
+        Connection first = pool.borrow("nbb", Languages.ANY, factory);
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.borrow("nbb", Languages.ANY, factory);
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        Thread.sleep(50);
+        assertThat(waiting).isNotDone();
+
+        first.close();
+        waiting.get(5, TimeUnit.SECONDS).close();
+        assertThat(created).hasValue(1);
+        assertThat(pool.getOpenCount("nbb")).isEqualTo(1);
+
+        pool.borrow("nbb", Languages.parse("fr"), factory).close();
+        assertThat(created).hasValue(2);
+        assertThat(closed).hasValue(1);
+        assertThat(pool.getOpenCount("nbb")).isEqualTo(1);
+
+        pool.setMaxWait(Duration.ZERO);
+        try (Connection conn = pool.borrow("nbb", Languages.ANY, factory)) {
+            assertThatThrownBy(() -> pool.borrow("nbb", Languages.ANY, factory))
+                    .isInstanceOf(IOException.class)
+                    .isNotInstanceOf(InterruptedIOException.class);
+            pool.borrow("other", Languages.ANY, factory).close();
+        }
+    }
+
+    @Test
+    public void testBrokenConnection() throws IOException {
+        SdmxConnectionPool pool = SdmxConnectionPool.of(2, Duration.ofMinutes(1));
+
+        failing.set(true);
+        try (Connection conn = pool.borrow("nbb", Languages.ANY, factory)) {
+            assertThatThrownBy(conn::testConnection).isInstanceOf(IOException.class);
+        }
+        assertThat(closed).hasValue(1);
+        assertThat(pool.getIdleCount()).isEqualTo(0);
+        assertThat(pool.getOpenCount("nbb")).isEqualTo(0);
+
+        failing.set(false);
+        try (Connection conn = pool.borrow("nbb", Languages.ANY, factory)) {
+            conn.testConnection();
+        }
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testClear() throws IOException {
+        SdmxConnectionPool pool = SdmxConnectionPool.of(2, Duration.ofMinutes(1));
+
+        Connection borrowed = pool.borrow("nbb", Languages.ANY, factory);
+        pool.borrow("nbb", Languages.ANY, factory).close();
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+
+        pool.clear();
+        assertThat(closed).hasValue(1);
+        borrowed.close();
+        assertThat(closed).hasValue(2);
+        assertThat(pool.getIdleCount()).isEqualTo(0);
+        assertThat(pool.getOpenCount("nbb")).isEqualTo(0);
+
+        pool.borrow("nbb", Languages.ANY, factory).close();
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tstoolkit.timeseries.TsAggregationType;
+import org.junit.jupiter.api.Test;
+import sdmxdl.Connection;
+import sdmxdl.DatabaseRef;
+import sdmxdl.FlowRef;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxCubeAccessorTest {
+
+    @Test
+    public void testLazyMeta() throws IOException {
+        AtomicInteger connections = new AtomicInteger();
+        IOSupplier<Connection> offline = () -> {
+            connections.incrementAndGet();
+            throw new IOException("offline");
+        };
+
+        SdmxCubeAccessor accessor = SdmxCubeAccessor.of(offline, DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), Arrays.asList("FREQ", "CURRENCY"), null, TsAggregationType.None, "ECB", false);
+        assertThat(connections).hasValue(0);
+
+        CubeId root = accessor.getRoot();
+        assertThat(root).isEqualTo(CubeId.root("FREQ", "CURRENCY"));
+        assertThat(accessor.getDisplayName()).startsWith("ECB ~ ");
+        assertThat(accessor.getDisplayNodeName(root.child("M", "USD"))).isEqualTo("USD");
+        assertThat(connections).hasValue(0);
+
+        accessor.warmUp(Runnable::run);
+        assertThat(connections).hasValue(1);
+
+        assertThatIOException().isThrownBy(() -> accessor.getDisplayName(root.child("M", "USD")));
+        assertThat(connections).hasValue(2);
+
+        assertThatIOException().isThrownBy(() -> accessor.getChildren(root));
+        assertThat(connections).hasValue(3);
+    }
+
+    @Test
+    public void testDisplayNames() throws IOException {
+        IOSupplier<Connection> offline = () -> {
+            throw new IOException("offline");
+        };
+        SdmxFlowInfo info = new SdmxFlowInfo("Exchange rates",
+                Arrays.asList(
+                        new SdmxFlowInfo.Component("FREQ", "Frequency", Collections.singletonMap("M", "Monthly")),
+                        new SdmxFlowInfo.Component("CURRENCY", "Currency", Collections.singletonMap("USD", "US dollar"))),
+                Collections.emptyList());
+
+        SdmxCubeAccessor accessor = SdmxCubeAccessor.of(offline, null, null, Duration.ZERO, null, () -> info, null, DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), Arrays.asList("CURRENCY", "FREQ"), null, TsAggregationType.None, "ECB", false, false);
+        accessor.warmUp(Runnable::run);
+
+        CubeId root = accessor.getRoot();
+        assertThat(accessor.getDisplayName()).isEqualTo("ECB ~ Exchange rates");
+        assertThat(accessor.getDisplayName(root.child("USD"))).isEqualTo(".USD");
+        assertThat(accessor.getDisplayName(root.child("USD", "M"))).isEqualTo("M.USD");
+        assertThat(accessor.getDisplayName(root.child("USD", "M"))).isSameAs(accessor.getDisplayName(root.child("USD", "M")));
+        assertThat(accessor.getDisplayNodeName(root.child("USD"))).isEqualTo("US dollar");
+        assertThat(accessor.getDisplayNodeName(root.child("USD", "M"))).isEqualTo("Monthly");
+        assertThat(accessor.getDisplayNodeName(root.child("USD", "Q"))).isEqualTo("Q");
+
+        SdmxCubeAccessor cold = SdmxCubeAccessor.of(offline, null, null, Duration.ZERO, null, () -> info, null, DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), Arrays.asList("CURRENCY", "FREQ"), null, TsAggregationType.None, "ECB", false, false);
+        assertThat(cold.getDisplayName(root.child("USD", "M"))).isEqualTo("M.USD");
+    }
+}
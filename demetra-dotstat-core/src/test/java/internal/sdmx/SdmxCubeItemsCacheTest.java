@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.DataSource;
+import ec.tss.tsproviders.cube.CubeAccessor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxCubeItemsCacheTest {
+
+    private static final DataSource A = DataSource.of("test", "a");
+    private static final DataSource B = DataSource.of("test", "b");
+    private static final DataSource C = DataSource.of("test", "c");
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void testBudget() throws IOException {
+        SdmxCubeItemsCache cache = SdmxCubeItemsCache.of(250, 0);
+
+        SdmxCubeItems a = cache.get(A, () -> itemsOf(new AtomicLong(100)));
+        cache.get(B, () -> itemsOf(new AtomicLong(100)));
+        assertThat(cache.get(A, () -> itemsOf(new AtomicLong(100)))).isSameAs(a);
+        assertThat(loads).hasValue(2);
+        assertThat(cache.getWeight()).isEqualTo(200);
+
+        cache.get(C, () -> itemsOf(new AtomicLong(100)));
+        assertThat(loads).hasValue(3);
+        assertThat(cache.getWeight()).isLessThanOrEqualTo(250);
+
+        cache.setBudget(0);
+        assertThat(cache.getWeight()).isZero();
+        cache.get(A, () -> itemsOf(new AtomicLong(100)));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    public void testReweigh() throws IOException {
+        SdmxCubeItemsCache cache = SdmxCubeItemsCache.of(1000, 0, clock::get);
+        AtomicLong weight = new AtomicLong(100);
+
+        cache.get(A, () -> itemsOf(weight));
+        weight.set(110);
+        clock.addAndGet(SdmxCubeItemsCache.WEIGH_INTERVAL);
+        cache.get(A, () -> itemsOf(weight));
+        assertThat(cache.getWeight()).isEqualTo(100);
+
+        weight.set(400);
+        cache.get(A, () -> itemsOf(weight));
+        assertThat(cache.getWeight())
+                .describedAs("not weighed again before the interval")
+                .isEqualTo(100);
+
+        clock.addAndGet(SdmxCubeItemsCache.WEIGH_INTERVAL);
+        cache.get(A, () -> itemsOf(weight));
+        assertThat(cache.getWeight()).isEqualTo(400);
+
+        weight.set(2000);
+        clock.addAndGet(SdmxCubeItemsCache.WEIGH_INTERVAL);
+        cache.get(A, () -> itemsOf(weight));
+        assertThat(cache.getWeight()).isZero();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testPinned() throws IOException {
+        SdmxCubeItemsCache cache = SdmxCubeItemsCache.of(0, 1);
+
+        SdmxCubeItems a = cache.get(A, () -> itemsOf(new AtomicLong(100)));
+        assertThat(cache.get(A, () -> itemsOf(new AtomicLong(100)))).isSameAs(a);
+        assertThat(loads).hasValue(1);
+
+        cache.get(B, () -> itemsOf(new AtomicLong(100)));
+        assertThat(cache.get(A, () -> itemsOf(new AtomicLong(100)))).isNotSameAs(a);
+        assertThat(loads).hasValue(3);
+
+        cache.invalidateAll();
+        cache.get(A, () -> itemsOf(new AtomicLong(100)));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    public void testPinnedOverBudget() throws IOException {
+        SdmxCubeItemsCache cache = SdmxCubeItemsCache.of(0, 1);
+
+        cache.get(A, () -> itemsOf(new AtomicLong(100)));
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getWeight()).isEqualTo(100);
+
+        cache.get(B, () -> itemsOf(new AtomicLong(100)));
+        assertThat(cache.getWeight()).isEqualTo(100);
+    }
+
+    @Test
+    public void testPinnedCountedAgainstBudget() throws IOException {
+        SdmxCubeItemsCache cache = SdmxCubeItemsCache.of(250, 2);
+
+        SdmxCubeItems a = cache.get(A, () -> itemsOf(new AtomicLong(100)));
+        cache.get(B, () -> itemsOf(new AtomicLong(100)));
+        assertThat(cache.get(A, () -> itemsOf(new AtomicLong(100)))).isSameAs(a);
+
+        cache.get(C, () -> itemsOf(new AtomicLong(100)));
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getWeight()).isEqualTo(200);
+
+        assertThat(cache.get(A, () -> itemsOf(new AtomicLong(100)))).isSameAs(a);
+        cache.get(B, () -> itemsOf(new AtomicLong(100)));
+        assertThat(loads).hasValue(4);
+    }
+
+    private SdmxCubeItems itemsOf(AtomicLong weight) {
+        loads.incrementAndGet();
+        CubeAccessor accessor = (CubeAccessor) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{CubeAccessor.class, HasWeight.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getWeight":
+                    return weight.get();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "weight=" + weight;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return new SdmxCubeItems(accessor, null);
+    }
+}
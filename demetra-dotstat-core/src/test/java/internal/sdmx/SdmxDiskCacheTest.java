@@ -0,0 +1,215 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.utils.OptionalTsData;
+import ec.tstoolkit.timeseries.TsAggregationType;
+import ec.tstoolkit.timeseries.simplets.TsData;
+import ec.tstoolkit.timeseries.simplets.TsFrequency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sdmxdl.DatabaseRef;
+import sdmxdl.FlowRef;
+import sdmxdl.Key;
+import sdmxdl.Languages;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxDiskCacheTest {
+
+    @TempDir
+    Path folder;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private static final SdmxQueryKey QUERY = queryOf("M.BE");
+
+    private static final SdmxSeriesList<Key> SERIES = SdmxSeriesList.of(Arrays.asList(
+            new SdmxSeriesList.Item<>(Key.parse("M.BE.X"), "Belgium", Collections.singletonMap("unit", "EUR"),
+                    OptionalTsData.present(3, 0, new TsData(TsFrequency.Monthly, 2010, 1, new double[]{1.5, Double.NaN, 3}, false))),
+            new SdmxSeriesList.Item<>(Key.parse("M.BE.Y"), null, Collections.emptyMap(),
+                    OptionalTsData.absent(0, 0, "No data"))
+    ));
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        SdmxDiskCache cache = SdmxDiskCache.of(folder, 1024 * 1024, Duration.ofMinutes(1), clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.getOrLoad(QUERY, () -> load(loads))).isEqualTo(SERIES);
+        assertThat(cache.getOrLoad(QUERY, () -> load(loads))).isEqualTo(SERIES);
+        assertThat(loads).hasValue(1);
+
+        SdmxDiskCache reopened = SdmxDiskCache.of(folder, 1024 * 1024, Duration.ofMinutes(1), clock::get);
+        assertThat(reopened.get(QUERY)).isEqualTo(SERIES);
+        assertThat(reopened.get(queryOf("M.FR"))).isNull();
+    }
+
+    @Test
+    public void testExpiration() throws IOException {
+        SdmxDiskCache cache = SdmxDiskCache.of(folder, 1024 * 1024, Duration.ofMinutes(1), clock::get);
+
+        cache.put(QUERY, SERIES);
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+
+        assertThat(cache.get(QUERY)).isNull();
+        assertThat(cache.getSize()).isZero();
+    }
+
+    @Test
+    public void testEviction() throws IOException {
+        SdmxDiskCache cache = SdmxDiskCache.of(folder, 1024 * 1024, Duration.ofMinutes(1), clock::get);
+
+        cache.put(queryOf("A"), SERIES);
+        clock.addAndGet(1000);
+        cache.put(queryOf("B"), SERIES);
+        clock.addAndGet(1000);
+        assertThat(cache.get(queryOf("A"))).isNotNull();
+
+        long entrySize = cache.getSize() / 2;
+        cache.setMaxSize(entrySize);
+        assertThat(cache.get(queryOf("A"))).isNotNull();
+        assertThat(cache.get(queryOf("B"))).isNull();
+
+        cache.clear();
+        assertThat(cache.getSize()).isZero();
+    }
+
+    @Test
+    public void testEvictionOnlyWhenFull() throws IOException {
+        SdmxDiskCache cache = SdmxDiskCache.of(folder, 1024 * 1024, Duration.ofMinutes(1), clock::get);
+        cache.put(queryOf("A"), SERIES);
+        long entrySize = cache.getSize();
+
+        cache.setMaxSize(entrySize * 2 + entrySize / 2);
+        clock.addAndGet(1000);
+        cache.put(queryOf("B"), SERIES);
+        assertThat(cache.getSize()).isEqualTo(entrySize * 2);
+
+        clock.addAndGet(1000);
+        cache.put(queryOf("C"), SERIES);
+        assertThat(cache.getSize()).isEqualTo(entrySize * 2);
+        assertThat(cache.get(queryOf("A"))).isNull();
+        assertThat(cache.get(queryOf("B"))).isNotNull();
+        assertThat(cache.get(queryOf("C"))).isNotNull();
+
+        cache.put(queryOf("C"), SERIES);
+        assertThat(cache.getSize()).isEqualTo(entrySize * 2);
+        assertThat(cache.get(queryOf("B"))).isNotNull();
+    }
+
+    @Test
+    public void testMaxAge() throws IOException {
+        SdmxDiskCache cache = SdmxDiskCache.of(folder, 1024 * 1024, Duration.ofMinutes(10), clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.put(QUERY, SERIES);
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+
+        assertThat(cache.get(QUERY, Duration.ofMinutes(5))).isEqualTo(SERIES);
+        assertThat(cache.get(QUERY, Duration.ofMinutes(1))).isNull();
+        assertThat(cache.get(QUERY)).isEqualTo(SERIES);
+
+        assertThat(cache.getOrLoad(QUERY, Duration.ofMinutes(1), () -> load(loads))).isEqualTo(SERIES);
+        assertThat(loads).hasValue(1);
+        assertThat(cache.get(QUERY, Duration.ofMinutes(1))).isEqualTo(SERIES);
+
+        assertThat(cache.getOrLoad(QUERY, Duration.ZERO, () -> load(loads))).isEqualTo(SERIES);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testKeyIncludesLabelAttributeAndLanguages() throws IOException {
+        SdmxDiskCache cache = SdmxDiskCache.of(folder, 1024 * 1024, Duration.ofMinutes(1), clock::get);
+        SdmxQueryKey labelled = new SdmxQueryKey("ECB", DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), Key.parse("M.BE"), SdmxQueryKind.ALL_SERIES_WITH_DATA, TsAggregationType.None, "TITLE", Languages.ANY);
+        SdmxQueryKey french = new SdmxQueryKey("ECB", DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), Key.parse("M.BE"), SdmxQueryKind.ALL_SERIES_WITH_DATA, TsAggregationType.None, null, Languages.parse("fr"));
+
+        cache.put(QUERY, SERIES);
+
+        assertThat(SdmxDiskCache.getFileName(labelled)).isNotEqualTo(SdmxDiskCache.getFileName(QUERY));
+        assertThat(SdmxDiskCache.getFileName(french)).isNotEqualTo(SdmxDiskCache.getFileName(QUERY));
+        assertThat(cache.get(labelled)).isNull();
+        assertThat(cache.get(french)).isNull();
+    }
+
+    @Test
+    public void testCorruptedEntry() throws IOException {
+        SdmxDiskCache cache = SdmxDiskCache.of(folder, 1024 * 1024, Duration.ofMinutes(1), clock::get);
+
+        Files.write(folder.resolve(SdmxDiskCache.getFileName(QUERY)), new byte[]{1, 2, 3});
+
+        assertThat(cache.get(QUERY)).isNull();
+        assertThat(cache.getSize()).isZero();
+    }
+
+    @Test
+    public void testInvalidLengths() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        SdmxDiskCache.write(stream, "id", 0, SERIES);
+        byte[] valid = stream.toByteArray();
+        // magic, version, creation and id
+        int itemCount = Integer.BYTES * 2 + Long.BYTES + Integer.BYTES + 2;
+        int firstKeyLength = itemCount + Integer.BYTES;
+
+        for (int offset : new int[]{itemCount, firstKeyLength}) {
+            for (int value : new int[]{Integer.MAX_VALUE, -2}) {
+                byte[] corrupted = valid.clone();
+                ByteBuffer.wrap(corrupted).putInt(offset, value);
+                Path file = Files.write(folder.resolve("corrupted"), corrupted);
+                assertThatIOException().isThrownBy(() -> SdmxDiskCache.read(file, "id", -1));
+            }
+        }
+
+        Path truncated = Files.write(folder.resolve("truncated"), Arrays.copyOf(valid, valid.length - 4));
+        assertThatIOException().isThrownBy(() -> SdmxDiskCache.read(truncated, "id", -1));
+        assertThat(SdmxDiskCache.read(Files.write(folder.resolve("valid"), valid), "id", -1)).isEqualTo(SERIES);
+    }
+
+    @Test
+    public void testDisabled() throws IOException {
+        SdmxDiskCache cache = SdmxDiskCache.of(null, 1024 * 1024, Duration.ofMinutes(1), clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.getOrLoad(QUERY, () -> load(loads));
+        cache.getOrLoad(QUERY, () -> load(loads));
+        assertThat(loads).hasValue(2);
+    }
+
+    private static SdmxSeriesList<Key> load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return SERIES;
+    }
+
+    private static SdmxQueryKey queryOf(String key) {
+        return new SdmxQueryKey("ECB", DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), Key.parse(key), SdmxQueryKind.ALL_SERIES_WITH_DATA, TsAggregationType.None, null, Languages.ANY);
+    }
+}
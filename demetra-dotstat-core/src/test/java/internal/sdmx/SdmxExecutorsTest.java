@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxExecutorsTest {
+
+    @Test
+    public void testPlatformThreads() throws Exception {
+        ExecutorService executor = SdmxExecutors.newPlatformThreadExecutor(2);
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+            assertThat(thread.isDaemon()).isTrue();
+            assertThat(thread.getName()).startsWith("sdmx-query-");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBackgroundThreads() throws Exception {
+        ExecutorService executor = SdmxExecutors.newBackgroundExecutor();
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+            assertThat(thread.isDaemon()).isTrue();
+            assertThat(thread.getPriority()).isEqualTo(Thread.MIN_PRIORITY);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testDefault() throws Exception {
+        ExecutorService executor = SdmxExecutors.newDefaultExecutor();
+        try {
+            assertThat(executor.submit(() -> 42).get(10, TimeUnit.SECONDS)).isEqualTo(42);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
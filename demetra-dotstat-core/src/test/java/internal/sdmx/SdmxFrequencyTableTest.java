@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+import sdmxdl.*;
+import sdmxdl.web.WebSource;
+import sdmxdl.web.spi.WebContext;
+import test.samples.FacadeResource;
+import tests.sdmxdl.web.spi.MockedDriver;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.stream.Stream;
+
+import static ec.tstoolkit.timeseries.simplets.TsFrequency.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static sdmxdl.DatabaseRef.NO_DATABASE;
+import static test.samples.FacadeResource.ECB_FLOW_REF;
+import static test.samples.FacadeResource.NBB_FLOW_REF;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxFrequencyTableTest {
+
+    @Test
+    public void testParse() {
+        assertThat(SdmxFrequencyTable.parse("P1Y")).isEqualTo(Yearly);
+        assertThat(SdmxFrequencyTable.parse("P6M")).isEqualTo(HalfYearly);
+        assertThat(SdmxFrequencyTable.parse("P4M")).isEqualTo(QuadriMonthly);
+        assertThat(SdmxFrequencyTable.parse("P3M")).isEqualTo(Quarterly);
+        assertThat(SdmxFrequencyTable.parse("P2M")).isEqualTo(BiMonthly);
+        assertThat(SdmxFrequencyTable.parse("P1M")).isEqualTo(Monthly);
+
+        assertThat(SdmxFrequencyTable.parse("P1W")).isEqualTo(Monthly);
+        assertThat(SdmxFrequencyTable.parse("P7D")).isEqualTo(Monthly);
+        assertThat(SdmxFrequencyTable.parse("P1D")).isEqualTo(Monthly);
+        assertThat(SdmxFrequencyTable.parse("PT1H")).isEqualTo(Monthly);
+        assertThat(SdmxFrequencyTable.parse("PT15M")).isEqualTo(Monthly);
+
+        assertThat(SdmxFrequencyTable.parse("P5Y")).isEqualTo(Undefined);
+        assertThat(SdmxFrequencyTable.parse("P30D")).isEqualTo(Undefined);
+        assertThat(SdmxFrequencyTable.parse("PT0S")).isEqualTo(Undefined);
+        assertThat(SdmxFrequencyTable.parse("hello")).isEqualTo(Undefined);
+    }
+
+    @Test
+    public void testGetFrequency() throws IOException {
+        Obs yearly = firstObs(FacadeResource.ecb(), ECB_FLOW_REF, Key.parse("A.DEU.1.0.319.0.UBLGE"));
+        assertThat(SdmxFrequencyTable.getFrequency(yearly)).isEqualTo(Yearly);
+        assertThat(SdmxFrequencyTable.getFrequency(yearly)).isEqualTo(Yearly);
+
+        Obs monthly = firstObs(FacadeResource.nbb(), NBB_FLOW_REF, Key.of("LOCSTL04", "AUS", "M"));
+        assertThat(SdmxFrequencyTable.getFrequency(monthly)).isEqualTo(Monthly);
+    }
+
+    private static Obs firstObs(DataRepository repo, FlowRef flowRef, Key key) throws IOException {
+        MockedDriver driver = MockedDriver.builder().repo(repo, EnumSet.allOf(Feature.class)).build();
+        WebSource source = driver.getDefaultSources().iterator().next();
+        try (Connection conn = driver.connect(source, Languages.ANY, WebContext.builder().build());
+             Stream<Series> data = conn.getDataStream(NO_DATABASE, flowRef, Query.builder().key(key).build())) {
+            return data.findFirst().orElseThrow(IllegalStateException::new).getObs().first();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxKeyCodecTest {
+
+    private static final CubeId ROOT = CubeId.root("FREQ", "REF_AREA");
+
+    @Test
+    public void testCodeLists() {
+        SdmxKeyCodec codec = SdmxKeyCodec.of(Arrays.asList(Arrays.asList("A", "M"), Arrays.asList("BE", "FR")));
+        int[] keys = new int[4];
+
+        codec.encode(ROOT.child("M", "FR"), keys, 0);
+        codec.encode(ROOT.child("A", "LU"), keys, 2);
+        assertThat(keys).containsExactly(1, 1, 0, 2);
+
+        assertThat(codec.decode(ROOT, keys, 0)).isEqualTo(ROOT.child("M", "FR"));
+        assertThat(codec.decode(ROOT, keys, 2)).isEqualTo(ROOT.child("A", "LU"));
+    }
+
+    @Test
+    public void testLookup() {
+        SdmxKeyCodec codec = SdmxKeyCodec.of(2);
+        int[] keys = new int[4];
+        codec.encode(ROOT.child("M", "FR"), keys, 0);
+        codec.encode(ROOT.child("A", "FR"), keys, 2);
+
+        assertThat(codec.lookup(ROOT)).isEmpty();
+        assertThat(codec.lookup(ROOT.child("A"))).containsExactly(1);
+        assertThat(codec.lookup(ROOT.child("Q"))).isNull();
+        assertThat(codec.lookup(ROOT.child("M", "BE"))).isNull();
+
+        assertThat(SdmxKeyCodec.startsWith(keys, 0, codec.lookup(ROOT.child("M")))).isTrue();
+        assertThat(SdmxKeyCodec.startsWith(keys, 2, codec.lookup(ROOT.child("M")))).isFalse();
+        assertThat(SdmxKeyCodec.startsWith(keys, 2, codec.lookup(ROOT.child("A", "FR")))).isTrue();
+    }
+
+    @Test
+    public void testGrowth() {
+        SdmxKeyCodec codec = SdmxKeyCodec.of(1);
+        CubeId root = CubeId.root("SERIES");
+        int[] keys = new int[100];
+        for (int i = 0; i < keys.length; i++) {
+            codec.encode(root.child("S" + i), keys, i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            assertThat(keys[i]).isEqualTo(i);
+            assertThat(codec.decode(root, keys, i)).isEqualTo(root.child("S" + i));
+        }
+    }
+}
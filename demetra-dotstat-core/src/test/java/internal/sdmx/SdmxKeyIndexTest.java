@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxKeyIndexTest {
+
+    private static final int DEPTH = 3;
+
+    @Test
+    public void testGetRows() {
+        int[] keys = {
+            0, 1, 2,
+            0, 2, 0,
+            0, 1, 0,
+            0, 2, 2
+        };
+        SdmxKeyIndex index = SdmxKeyIndex.of(keys, DEPTH, 1);
+
+        assertThat(index.getRows(new int[]{0, 1})).containsExactly(0, 2);
+        assertThat(index.getRows(new int[]{0, 2})).containsExactly(1, 3);
+        assertThat(index.getRows(new int[]{0, 3})).isEmpty();
+        assertThat(index.getRows(new int[]{0, 2, 2})).containsExactly(3);
+        assertThat(index.getRows(new int[]{0, 2, 1})).isEmpty();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> index.getRows(new int[]{0}));
+        assertThatIllegalArgumentException().isThrownBy(() -> index.getRows(new int[]{0, 1, 2, 3}));
+    }
+
+    @Test
+    public void testSameAsScan() {
+        Random random = new Random(0);
+        int size = 1000;
+        int[] keys = new int[size * DEPTH];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(8);
+        }
+        SdmxKeyIndex index = SdmxKeyIndex.of(keys, DEPTH, 0);
+
+        for (int row = 0; row < size; row++) {
+            for (int length = 1; length <= DEPTH; length++) {
+                int[] prefix = new int[length];
+                System.arraycopy(keys, row * DEPTH, prefix, 0, length);
+                int[] expected = IntStream.range(0, size).filter(o -> SdmxKeyCodec.startsWith(keys, o * DEPTH, prefix)).toArray();
+                assertThat(index.getRows(prefix)).containsExactly(expected);
+            }
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        assertThat(SdmxKeyIndex.of(new int[0], DEPTH, 0).getRows(new int[]{1, 2, 3})).isEmpty();
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+import sdmxdl.Key;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxKeyMatcherTest {
+
+    private static final List<Key> SERIES = Arrays.asList(
+            Key.parse("A.BE.X"), Key.parse("M.BE.X"), Key.parse("M.FR.X"),
+            Key.parse("M.FR.Y"), Key.parse("Q.LU.Y"), Key.parse("M.BE")
+    );
+
+    @Test
+    public void testSameAsContains() {
+        for (String ref : Arrays.asList("all", "..", "M..", ".BE.", "M.FR.Y", "M+Q..", "A+M.BE+LU.X", "M.DE.")) {
+            Key key = Key.parse(ref);
+            for (Key series : SERIES) {
+                assertThat(SdmxKeyMatcher.of(key, false).test(series))
+                        .as("%s contains %s", key, series)
+                        .isEqualTo(key.contains(series));
+            }
+        }
+    }
+
+    @Test
+    public void testExact() {
+        assertThat(SERIES).allMatch(SdmxKeyMatcher.of(Key.parse("M.DE."), true));
+    }
+}
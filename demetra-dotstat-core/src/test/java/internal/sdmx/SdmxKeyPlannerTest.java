@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+import sdmxdl.Key;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static internal.sdmx.SdmxKeyPlanner.DEFAULT_MAX_KEY_LENGTH;
+import static internal.sdmx.SdmxKeyPlanner.plan;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxKeyPlannerTest {
+
+    @Test
+    public void testPlan() {
+        assertThat(plan(Collections.emptyList(), DEFAULT_MAX_KEY_LENGTH))
+                .isEmpty();
+
+        assertThat(plan(keys("M.USD.EUR.SP00.A"), DEFAULT_MAX_KEY_LENGTH))
+                .containsExactly(Key.parse("M.USD.EUR.SP00.A"));
+
+        assertThat(plan(keys("M.USD.EUR.SP00.A", "M.GBP.EUR.SP00.A", "M.JPY.EUR.SP00.A", "M.USD.EUR.SP00.A"), DEFAULT_MAX_KEY_LENGTH))
+                .containsExactly(Key.parse("M.GBP+JPY+USD.EUR.SP00.A"));
+
+        assertThat(plan(keys("M.USD.EUR.SP00.A", "M.GBP.EUR.SP00.A", "Q.USD.EUR.SP00.A", "Q.GBP.EUR.SP00.A"), DEFAULT_MAX_KEY_LENGTH))
+                .containsExactly(Key.parse("M+Q.GBP+USD.EUR.SP00.A"));
+
+        assertThat(plan(keys("M.USD.EUR.SP00.A", "M.GBP.EUR.SP00.A", "Q.USD.EUR.SP00.A"), DEFAULT_MAX_KEY_LENGTH))
+                .containsExactlyInAnyOrder(Key.parse("M.GBP+USD.EUR.SP00.A"), Key.parse("Q.USD.EUR.SP00.A"));
+    }
+
+    @Test
+    public void testPlanWithMaxKeyLength() {
+        List<Key> result = plan(keys("M.AAA.EUR", "M.BBB.EUR", "M.CCC.EUR"), 13);
+        assertThat(result)
+                .containsExactly(Key.parse("M.AAA+BBB.EUR"), Key.parse("M.CCC.EUR"));
+        assertThat(result)
+                .allMatch(key -> key.toString().length() <= 13);
+    }
+
+    @Test
+    public void testPlanWithInvalidKeys() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> plan(keys("M.USD.EUR", "M..EUR"), DEFAULT_MAX_KEY_LENGTH));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> plan(keys("M.USD.EUR", "M.USD"), DEFAULT_MAX_KEY_LENGTH));
+    }
+
+    private static List<Key> keys(String... keys) {
+        return Arrays.stream(keys).map(Key::parse).collect(Collectors.toList());
+    }
+}
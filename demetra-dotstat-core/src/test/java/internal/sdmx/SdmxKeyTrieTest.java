@@ -0,0 +1,105 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cube.CubeId;
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.OptionalTsData;
+import org.junit.jupiter.api.Test;
+import sdmxdl.Key;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxKeyTrieTest {
+
+    // keys are FREQ.REF_AREA.SECTOR, browsed by REF_AREA then FREQ then SECTOR
+    private static final int[] POSITIONS = {1, 0, 2};
+    private static final CubeId ROOT = CubeId.root("REF_AREA", "FREQ", "SECTOR");
+
+    private static final SdmxSeriesList<Key> SERIES = SdmxSeriesList.of(Arrays.asList(
+            itemOf("M.FR.X", "France X"),
+            itemOf("Q.BE.Y", null),
+            itemOf("M.BE.Y", null),
+            itemOf("M.BE.X", "Belgium X"),
+            itemOf("A.BE.X", null),
+            itemOf("M.BE.X", "Duplicate")
+    ));
+
+    @Test
+    public void testGetChildren() throws IOException {
+        SdmxKeyTrie trie = SdmxKeyTrie.of(POSITIONS, SERIES.toCursor());
+
+        assertThat(trie.size()).isEqualTo(5);
+        assertThat(trie.getChildren(ROOT)).containsExactly("BE", "FR");
+        assertThat(trie.getChildren(ROOT.child("BE"))).containsExactly("A", "M", "Q");
+        assertThat(trie.getChildren(ROOT.child("BE", "M"))).containsExactly("X", "Y");
+        assertThat(trie.getChildren(ROOT.child("FR", "M"))).containsExactly("X");
+        assertThat(trie.getChildren(ROOT.child("BE", "M", "X"))).isEmpty();
+        assertThat(trie.getChildren(ROOT.child("DE"))).isEmpty();
+        assertThat(trie.getChildren(ROOT.child("FR", "Q"))).isEmpty();
+    }
+
+    @Test
+    public void testGetAllSeries() throws IOException {
+        SdmxKeyTrie trie = SdmxKeyTrie.of(POSITIONS, SERIES.toCursor());
+
+        assertThat(ids(trie.getAllSeries(ROOT))).containsExactly(
+                ROOT.child("BE", "A", "X"), ROOT.child("BE", "M", "X"), ROOT.child("BE", "M", "Y"),
+                ROOT.child("BE", "Q", "Y"), ROOT.child("FR", "M", "X"));
+        assertThat(ids(trie.getAllSeries(ROOT.child("BE", "M")))).containsExactly(
+                ROOT.child("BE", "M", "X"), ROOT.child("BE", "M", "Y"));
+        assertThat(ids(trie.getAllSeries(ROOT.child("FR", "M", "X")))).containsExactly(
+                ROOT.child("FR", "M", "X"));
+        assertThat(ids(trie.getAllSeries(ROOT.child("DE")))).isEmpty();
+
+        try (TsCursor<CubeId> cursor = trie.getAllSeries(ROOT.child("BE", "M"))) {
+            assertThat(cursor.nextSeries()).isTrue();
+            assertThat(cursor.getSeriesLabel()).isEqualTo("Belgium X");
+            assertThat(cursor.getSeriesMetaData()).containsEntry("TITLE", "Belgium X");
+            assertThat(cursor.getSeriesData().isPresent()).isFalse();
+            assertThat(cursor.nextSeries()).isTrue();
+            assertThat(cursor.getSeriesLabel()).isEqualTo("M.BE.Y");
+            assertThat(cursor.getSeriesMetaData()).isEmpty();
+            assertThat(cursor.nextSeries()).isFalse();
+        }
+    }
+
+    private static List<CubeId> ids(TsCursor<CubeId> cursor) throws IOException {
+        List<CubeId> result = new ArrayList<>();
+        try (TsCursor<CubeId> closeable = cursor) {
+            while (closeable.nextSeries()) {
+                result.add(closeable.getSeriesId());
+            }
+        }
+        return result;
+    }
+
+    private static SdmxSeriesList.Item<Key> itemOf(String key, String title) {
+        return new SdmxSeriesList.Item<>(Key.parse(key), title != null ? title : key,
+                title != null ? Collections.singletonMap("TITLE", title) : Collections.emptyMap(),
+                OptionalTsData.absent("No data"));
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+import sdmxdl.Key;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxLeafBatcherTest {
+
+    @Test
+    public void testSingleRequest() throws IOException {
+        List<List<Key>> batches = new ArrayList<>();
+        SdmxLeafBatcher<Key, String> batcher = SdmxLeafBatcher.of(keys -> {
+            batches.add(keys);
+            return Collections.singletonMap(keys.get(0), keys.get(0).toString());
+        }, 10);
+
+        assertThat(batcher.get(Key.parse("M.USD.EUR"))).isEqualTo("M.USD.EUR");
+        assertThat(batcher.get(Key.parse("M.GBP.EUR"))).isEqualTo("M.GBP.EUR");
+        assertThat(batches).containsExactly(
+                Collections.singletonList(Key.parse("M.USD.EUR")),
+                Collections.singletonList(Key.parse("M.GBP.EUR")));
+    }
+
+    @Test
+    public void testConcurrentRequestsArePlannedTogether() throws Exception {
+        List<Key> requests = new CopyOnWriteArrayList<>();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        SdmxLeafBatcher<Key, String> batcher = SdmxLeafBatcher.of(keys -> {
+            List<Key> planned = SdmxKeyPlanner.plan(keys, SdmxKeyPlanner.DEFAULT_MAX_KEY_LENGTH);
+            requests.addAll(planned);
+            if (firstStarted.getCount() > 0) {
+                firstStarted.countDown();
+                awaitQuietly(releaseFirst);
+            }
+            // the source has no series for JPY
+            Map<Key, String> result = new HashMap<>();
+            keys.stream().filter(key -> !key.get(1).equals("JPY")).forEach(key -> result.put(key, key.toString()));
+            return result;
+        }, 10);
+
+        FutureTask<String> first = new FutureTask<>(() -> batcher.get(Key.parse("A.CHF.EUR")));
+        new Thread(first).start();
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        String[] currencies = {"USD", "GBP", "JPY", "CAD"};
+        List<FutureTask<String>> others = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (String currency : currencies) {
+            FutureTask<String> task = new FutureTask<>(() -> batcher.get(Key.parse("M." + currency + ".EUR")));
+            Thread thread = new Thread(task);
+            thread.start();
+            others.add(task);
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.sleep(10);
+            }
+        }
+        releaseFirst.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("A.CHF.EUR");
+        assertThat(others.get(0).get(5, TimeUnit.SECONDS)).isEqualTo("M.USD.EUR");
+        assertThat(others.get(1).get(5, TimeUnit.SECONDS)).isEqualTo("M.GBP.EUR");
+        assertThat(others.get(2).get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(others.get(3).get(5, TimeUnit.SECONDS)).isEqualTo("M.CAD.EUR");
+        // five leaves, two requests
+        assertThat(requests).containsExactly(Key.parse("A.CHF.EUR"), Key.parse("M.CAD+GBP+JPY+USD.EUR"));
+    }
+
+    @Test
+    public void testMaxBatchSize() throws Exception {
+        List<Integer> sizes = new CopyOnWriteArrayList<>();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        SdmxLeafBatcher<Integer, Integer> batcher = SdmxLeafBatcher.of(keys -> {
+            sizes.add(keys.size());
+            if (firstStarted.getCount() > 0) {
+                firstStarted.countDown();
+                awaitQuietly(releaseFirst);
+            }
+            Map<Integer, Integer> result = new HashMap<>();
+            keys.forEach(key -> result.put(key, key));
+            return result;
+        }, 2);
+
+        FutureTask<Integer> first = new FutureTask<>(() -> batcher.get(0));
+        new Thread(first).start();
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        List<FutureTask<Integer>> others = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            int key = i;
+            FutureTask<Integer> task = new FutureTask<>(() -> batcher.get(key));
+            Thread thread = new Thread(task);
+            thread.start();
+            while (thread.getState() != Thread.State.WAITING) {
+                Thread.sleep(10);
+            }
+            others.add(task);
+        }
+        releaseFirst.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(0);
+        for (int i = 0; i < others.size(); i++) {
+            assertThat(others.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i + 1);
+        }
+        assertThat(sizes).containsExactly(1, 2, 2, 1);
+    }
+
+    @Test
+    public void testFailure() throws IOException {
+        SdmxLeafBatcher<Key, String> batcher = SdmxLeafBatcher.of(keys -> {
+            throw new IOException("boom");
+        }, 10);
+
+        assertThatIOException()
+                .isThrownBy(() -> batcher.get(Key.parse("M.USD.EUR")))
+                .withMessage("boom");
+
+        SdmxLeafBatcher<Key, String> recovered = SdmxLeafBatcher.of(keys -> Collections.singletonMap(keys.get(0), "ok"), 10);
+        assertThat(recovered.get(Key.parse("M.USD.EUR"))).isEqualTo("ok");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cursor.TsCursor;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxMeteredCursorTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void testEndOfStream() throws IOException {
+        SdmxMetrics metrics = SdmxMetrics.of(null);
+
+        try (TsCursor<String> cursor = SdmxMeteredCursor.of(TsCursor.from(Arrays.asList("A", "B").iterator()), metrics, "ECB", SdmxQueryKind.ALL_SERIES, clock.get(), clock::get)) {
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(2));
+            while (cursor.nextSeries()) {
+            }
+            // time spent by the consumer after the last series
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        }
+
+        assertThat(metrics.getRequestCounts()).containsExactly(entry("ECB/ALL_SERIES", 1L));
+        assertThat(metrics.getSeriesCounts()).containsExactly(entry("ECB/ALL_SERIES", 2L));
+        assertThat(metrics.getErrorCounts()).containsExactly(entry("ECB/ALL_SERIES", 0L));
+        assertThat(metrics.getMedianLatencyMillis()).containsExactly(entry("ECB/ALL_SERIES", 4L));
+    }
+
+    @Test
+    public void testEarlyClose() throws IOException {
+        SdmxMetrics metrics = SdmxMetrics.of(null);
+
+        TsCursor<String> cursor = SdmxMeteredCursor.of(TsCursor.from(Arrays.asList("A", "B").iterator()), metrics, "ECB", SdmxQueryKind.ALL_SERIES, clock.get(), clock::get);
+        assertThat(cursor.nextSeries()).isTrue();
+        cursor.close();
+        cursor.close();
+
+        assertThat(metrics.getRequestCounts()).containsExactly(entry("ECB/ALL_SERIES", 1L));
+        assertThat(metrics.getSeriesCounts()).containsExactly(entry("ECB/ALL_SERIES", 1L));
+        assertThat(metrics.getErrorCounts()).containsExactly(entry("ECB/ALL_SERIES", 0L));
+    }
+
+    @Test
+    public void testFailureDuringIteration() throws IOException {
+        SdmxMetrics metrics = SdmxMetrics.of(null);
+        Iterator<String> failing = new Iterator<String>() {
+            int count = 0;
+
+            @Override
+            public boolean hasNext() {
+                if (count == 1) {
+                    throw new UncheckedIOException(new IOException("boom"));
+                }
+                return true;
+            }
+
+            @Override
+            public String next() {
+                count++;
+                return "A";
+            }
+        };
+
+        try (TsCursor<String> cursor = SdmxMeteredCursor.of(TsCursor.from(failing), metrics, "ECB", SdmxQueryKind.ALL_SERIES_WITH_DATA, clock.get(), clock::get)) {
+            assertThat(cursor.nextSeries()).isTrue();
+            assertThatThrownBy(cursor::nextSeries).isInstanceOf(UncheckedIOException.class);
+        }
+
+        assertThat(metrics.getRequestCounts()).containsExactly(entry("ECB/ALL_SERIES_WITH_DATA", 1L));
+        assertThat(metrics.getErrorCounts()).containsExactly(entry("ECB/ALL_SERIES_WITH_DATA", 1L));
+        assertThat(metrics.getSeriesCounts()).containsExactly(entry("ECB/ALL_SERIES_WITH_DATA", 1L));
+    }
+}
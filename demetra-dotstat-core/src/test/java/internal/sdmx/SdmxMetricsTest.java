@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxMetricsTest {
+
+    @Test
+    public void testGetBucket() {
+        assertThat(SdmxMetrics.getBucket(0)).isEqualTo(0);
+        assertThat(SdmxMetrics.getBucket(millis(1))).isEqualTo(1);
+        assertThat(SdmxMetrics.getBucket(millis(3))).isEqualTo(2);
+        assertThat(SdmxMetrics.getBucket(millis(1000))).isEqualTo(10);
+        assertThat(SdmxMetrics.getBucket(Long.MAX_VALUE)).isEqualTo(SdmxMetrics.BUCKETS - 1);
+    }
+
+    @Test
+    public void testRecordRequest() {
+        SdmxMetrics metrics = SdmxMetrics.of(null);
+        for (int i = 0; i < 99; i++) {
+            metrics.recordRequest("ECB", SdmxQueryKind.ALL_SERIES, millis(3), 10, false);
+        }
+        metrics.recordRequest("ECB", SdmxQueryKind.ALL_SERIES, millis(1000), 0, true);
+
+        assertThat(metrics.getRequestCounts()).containsExactly(entry("ECB/ALL_SERIES", 100L));
+        assertThat(metrics.getErrorCounts()).containsExactly(entry("ECB/ALL_SERIES", 1L));
+        assertThat(metrics.getSeriesCounts()).containsExactly(entry("ECB/ALL_SERIES", 990L));
+        assertThat(metrics.getMedianLatencyMillis()).containsExactly(entry("ECB/ALL_SERIES", 4L));
+        assertThat(metrics.getP99LatencyMillis()).containsExactly(entry("ECB/ALL_SERIES", 4L));
+        assertThat(metrics.getLatencyHistograms().get("ECB/ALL_SERIES")).hasSize(SdmxMetrics.BUCKETS);
+        assertThat(metrics.getCubeItemsCacheSize()).isEqualTo(-1);
+
+        metrics.recordChildrenStrategy("ECB", SdmxChildrenStrategy.KEYS_ONLY);
+        metrics.recordChildrenStrategy("ECB", SdmxChildrenStrategy.KEYS_ONLY);
+        assertThat(metrics.getChildrenStrategyCounts()).containsExactly(entry("ECB/KEYS_ONLY", 2L));
+
+        metrics.reset();
+        assertThat(metrics.getRequestCounts()).isEmpty();
+        assertThat(metrics.getChildrenStrategyCounts()).isEmpty();
+    }
+
+    @Test
+    public void testCacheCounters() {
+        SdmxMetrics metrics = SdmxMetrics.of(SdmxCubeItemsCache.of(1000, 0));
+        metrics.recordBulkCacheHit();
+        metrics.recordBulkCacheMiss();
+        metrics.recordBulkCacheMiss();
+        metrics.recordBulkCacheAncestorHit();
+        metrics.recordBulkCacheEviction();
+
+        assertThat(metrics.getBulkCacheHits()).isEqualTo(1);
+        assertThat(metrics.getBulkCacheMisses()).isEqualTo(2);
+        assertThat(metrics.getBulkCacheAncestorHits()).isEqualTo(1);
+        assertThat(metrics.getBulkCacheEvictions()).isEqualTo(1);
+        assertThat(metrics.getCubeItemsCacheSize()).isZero();
+        assertThat(metrics.getCubeItemsCacheWeight()).isZero();
+    }
+
+    private static long millis(long value) {
+        return TimeUnit.MILLISECONDS.toNanos(value);
+    }
+}
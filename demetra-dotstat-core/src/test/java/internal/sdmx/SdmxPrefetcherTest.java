@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cursor.TsCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxPrefetcherTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void beforeEach() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testForegroundHasPriority() throws Exception {
+        SdmxPrefetcher prefetcher = SdmxPrefetcher.of(executor);
+        CountDownLatch done = new CountDownLatch(1);
+
+        prefetcher.foreground("ECB", () -> {
+            prefetcher.prefetch("ECB", 1, "a", done::countDown);
+            prefetcher.prefetch("ECB", 1, "a", done::countDown);
+            assertThat(prefetcher.getPendingCount()).isEqualTo(1);
+            return null;
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testParallelism() throws Exception {
+        SdmxPrefetcher prefetcher = SdmxPrefetcher.of(executor);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            prefetcher.prefetch("ECB", 2, i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleepQuietly();
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        SdmxPrefetcher prefetcher = SdmxPrefetcher.of(executor);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger others = new AtomicInteger();
+
+        prefetcher.prefetch("ECB", 1, "a", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+        });
+        prefetcher.prefetch("ECB", 1, "b", others::incrementAndGet);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(prefetcher.getPendingCount()).isEqualTo(1);
+
+        prefetcher.cancel();
+        assertThat(prefetcher.getPendingCount()).isEqualTo(0);
+        assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(others).hasValue(0);
+    }
+
+    @Test
+    public void testForegroundCursor() throws Exception {
+        SdmxPrefetcher prefetcher = SdmxPrefetcher.of(executor);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean background = new AtomicBoolean(false);
+
+        TsCursor<String> cursor = prefetcher.foregroundCursor("ECB", TsCursor::empty);
+        prefetcher.prefetch("ECB", 1, "a", () -> {
+            background.set(SdmxPrefetcher.isBackground());
+            done.countDown();
+        });
+        assertThat(done.await(100, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(prefetcher.getPendingCount()).isEqualTo(1);
+
+        cursor.close();
+        cursor.close();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(background).isTrue();
+        assertThat(SdmxPrefetcher.isBackground()).isFalse();
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
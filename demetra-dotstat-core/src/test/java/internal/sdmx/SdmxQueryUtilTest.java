@@ -17,6 +17,10 @@
 package internal.sdmx;
 
 import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tss.tsproviders.utils.ObsCharacteristics;
+import ec.tss.tsproviders.utils.ObsGathering;
+import ec.tss.tsproviders.utils.OptionalTsData;
+import ec.tstoolkit.timeseries.TsAggregationType;
 import ec.tstoolkit.timeseries.simplets.TsData;
 import ec.tstoolkit.timeseries.simplets.TsFrequency;
 import ec.tstoolkit.timeseries.simplets.TsPeriod;
@@ -28,7 +32,11 @@ import test.samples.FacadeResource;
 import tests.sdmxdl.web.spi.MockedDriver;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 
 import static internal.sdmx.SdmxQueryUtil.*;
@@ -247,6 +255,32 @@ public class SdmxQueryUtilTest {
         }
     }
 
+    @Test
+    public void testGetBatchSeriesWithDataWithoutKeyQueries() throws Exception {
+        Connection conn = asConnection(FacadeResource.ecb(), EnumSet.noneOf(Feature.class));
+        List<Key> sent = new ArrayList<>();
+        Connection recording = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getDataStream")) {
+                sent.add(((Query) args[2]).getKey());
+            }
+            try {
+                return method.invoke(conn, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        });
+
+        Key batch = Key.parse("A.DEU+XXX.1.0.319.0.UBLGE");
+
+        try (TsCursor<Key> c = getBatchSeriesWithData(recording, NO_DATABASE, ECB_FLOW_REF, batch, SdmxQueryUtil.NO_LABEL, TsAggregationType.None)) {
+            assertThat(c.nextSeries()).isTrue();
+            assertThat(c.getSeriesId()).isEqualTo(Key.of("A", "DEU", "1", "0", "319", "0", "UBLGE"));
+            assertThat(c.getSeriesData().get().getLength()).isEqualTo(25);
+            assertThat(c.nextSeries()).isFalse();
+        }
+        assertThat(sent).containsExactly(Key.ALL);
+    }
+
     @Test
     public void testGetChildren21() throws Exception {
         Connection conn = asConnection(FacadeResource.ecb(), EnumSet.allOf(Feature.class));
@@ -256,4 +290,33 @@ public class SdmxQueryUtilTest {
         assertThat(getChildren(conn, NO_DATABASE, ECB_FLOW_REF, Key.of("A", "BEL", "", "", "", "", ""), 2)).containsExactly("1");
         assertThat(getChildren(conn, NO_DATABASE, ECB_FLOW_REF, Key.of("hello", "", "", "", "", "", ""), 1)).isEmpty();
     }
+
+    @Test
+    public void testGetChildrenStrategy() throws Exception {
+        assertThat(getChildrenStrategy(asConnection(FacadeResource.nbb(), EnumSet.noneOf(Feature.class)))).isEqualTo(SdmxChildrenStrategy.GENERIC);
+
+        Connection conn = asConnection(FacadeResource.ecb(), EnumSet.allOf(Feature.class));
+        assertThat(getChildrenStrategy(conn)).isEqualTo(SdmxChildrenStrategy.KEYS_ONLY);
+
+        Key node = Key.of("A", "", "", "", "", "", "");
+        assertThat(getChildren(conn, NO_DATABASE, ECB_FLOW_REF, node, 1, SdmxChildrenStrategy.KEYS_ONLY))
+                .isEqualTo(getChildren(conn, NO_DATABASE, ECB_FLOW_REF, node, 1, SdmxChildrenStrategy.GENERIC));
+        assertThat(getChildren(conn, NO_DATABASE, ECB_FLOW_REF, Key.of("hello", "", "", "", "", "", ""), 1, SdmxChildrenStrategy.KEYS_ONLY)).isEmpty();
+    }
+
+    @Test
+    public void testToDataByMonth() throws Exception {
+        for (DataRepository repo : new DataRepository[]{FacadeResource.nbb(), FacadeResource.ecb()}) {
+            for (DataSet dataSet : repo.getDataSets()) {
+                for (Series series : dataSet.getData()) {
+                    assertThat(toDataByMonth(series.getObs()))
+                            .isEqualTo(OptionalTsData
+                                    .builderByLocalDate(ObsGathering.includingMissingValues(TsFrequency.Undefined, TsAggregationType.None), ObsCharacteristics.ORDERED)
+                                    .addAll(series.getObs().stream(), obs -> obs.getPeriod().getStart().toLocalDate(), Obs::getValue)
+                                    .build()
+                                    .get());
+                }
+            }
+        }
+    }
 }
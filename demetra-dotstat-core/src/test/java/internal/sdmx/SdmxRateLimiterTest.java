@@ -0,0 +1,188 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+import sdmxdl.Connection;
+import sdmxdl.Feature;
+import sdmxdl.Languages;
+import sdmxdl.Series;
+import sdmxdl.web.WebSource;
+import sdmxdl.web.spi.WebContext;
+import standalone_sdmxdl.nbbrd.io.WrappedIOException;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
+import standalone_sdmxdl.nbbrd.io.http.HttpResponseException;
+import test.samples.FacadeResource;
+import tests.sdmxdl.web.spi.MockedDriver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static internal.sdmx.SdmxRateLimiter.getRetryAfter;
+import static internal.sdmx.SdmxRateLimiter.getThrottlingResponse;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final IOSupplier<Connection> factory = () -> {
+        MockedDriver driver = MockedDriver.builder().repo(FacadeResource.nbb(), EnumSet.noneOf(Feature.class)).build();
+        WebSource source = driver.getDefaultSources().iterator().next();
+        return driver.connect(source, Languages.ANY, WebContext.builder().build());
+    };
+
+    private SdmxRateLimiter newLimiter(Duration requestInterval) {
+        return SdmxRateLimiter.of(requestInterval, 0, clock::get, clock::addAndGet);
+    }
+
+    @Test
+    public void testRequestInterval() throws IOException {
+        SdmxRateLimiter limiter = newLimiter(Duration.ofSeconds(2));
+
+        try (Connection conn = limiter.acquire("nbb", factory)) {
+            assertThat(clock).hasValue(0);
+            conn.testConnection();
+            assertThat(clock).hasValue(0);
+            conn.testConnection();
+            assertThat(clock).hasValue(Duration.ofSeconds(2).toNanos());
+        }
+
+        limiter.acquire("nbb", factory).close();
+        assertThat(clock).hasValue(Duration.ofSeconds(2).toNanos());
+
+        try (Connection conn = limiter.acquire("other", factory)) {
+            conn.testConnection();
+        }
+        assertThat(clock).hasValue(Duration.ofSeconds(2).toNanos());
+    }
+
+    @Test
+    public void testThrottlingWhileReading() throws IOException {
+        SdmxRateLimiter limiter = newLimiter(Duration.ZERO);
+        IOSupplier<Connection> throttled = () -> (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("getDataStream")) {
+                return Stream.generate(() -> {
+                    throw new UncheckedIOException(new HttpResponseException(429, "Too Many Requests"));
+                });
+            }
+            return null;
+        });
+
+        try (Connection conn = limiter.acquire("nbb", throttled);
+             Stream<Series> stream = conn.getDataStream(null, null, null)) {
+            assertThat(limiter.getBackoff("nbb")).isEqualTo(Duration.ZERO);
+            assertThatThrownBy(() -> stream.forEach(series -> {
+            })).isInstanceOf(UncheckedIOException.class);
+        }
+        assertThat(limiter.getBackoff("nbb")).isEqualTo(SdmxRateLimiter.MIN_BACKOFF);
+    }
+
+    @Test
+    public void testBackoff() throws IOException {
+        SdmxRateLimiter limiter = newLimiter(Duration.ZERO);
+        IOSupplier<Connection> throttled = () -> {
+            throw new HttpResponseException(429, "Too Many Requests");
+        };
+
+        assertThatIOException().isThrownBy(() -> limiter.acquire("nbb", throttled));
+        assertThat(limiter.getBackoff("nbb")).isEqualTo(SdmxRateLimiter.MIN_BACKOFF);
+
+        assertThatIOException().isThrownBy(() -> limiter.acquire("nbb", throttled));
+        assertThat(clock).hasValue(SdmxRateLimiter.MIN_BACKOFF.toNanos());
+        assertThat(limiter.getBackoff("nbb")).isEqualTo(SdmxRateLimiter.MIN_BACKOFF.multipliedBy(2));
+
+        limiter.acquire("nbb", factory).close();
+        assertThat(limiter.getBackoff("nbb")).isEqualTo(Duration.ZERO);
+        assertThat(limiter.getBackoff("other")).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    public void testThrottlingResponse() {
+        assertThat(getThrottlingResponse(new IOException())).isEmpty();
+        assertThat(getThrottlingResponse(new HttpResponseException(404, ""))).isEmpty();
+        assertThat(getThrottlingResponse(new HttpResponseException(503, ""))).isPresent();
+        assertThat(getThrottlingResponse(WrappedIOException.wrap(new HttpResponseException(429, "")))).isPresent();
+    }
+
+    @Test
+    public void testRetryAfter() {
+        assertThat(getRetryAfter(new HttpResponseException(429, "")))
+                .isEmpty();
+        assertThat(getRetryAfter(new HttpResponseException(429, "", Collections.singletonMap("retry-after", Collections.singletonList("120")))))
+                .contains(Duration.ofMinutes(2));
+        assertThat(getRetryAfter(new HttpResponseException(429, "", Collections.singletonMap("Retry-After", Collections.singletonList("Wed, 21 Oct 2015 07:28:00 GMT")))))
+                .contains(Duration.ZERO);
+        assertThat(getRetryAfter(new HttpResponseException(429, "", Collections.singletonMap("Retry-After", Collections.singletonList("soon")))))
+                .isEmpty();
+    }
+
+    @Test
+    public void testBackgroundGivesWay() throws Exception {
+        SdmxRateLimiter limiter = SdmxRateLimiter.of(Duration.ZERO, 2);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            SdmxPrefetcher prefetcher = SdmxPrefetcher.of(executor);
+            CountDownLatch first = new CountDownLatch(1);
+            CountDownLatch second = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+
+            prefetcher.prefetch("nbb", 2, "a", () -> {
+                try (Connection conn = limiter.acquire("nbb", factory)) {
+                    first.countDown();
+                    awaitQuietly(release);
+                }
+            });
+            assertThat(first.await(5, TimeUnit.SECONDS)).isTrue();
+
+            prefetcher.prefetch("nbb", 2, "b", () -> {
+                limiter.acquire("nbb", factory).close();
+                second.countDown();
+            });
+            assertThat(second.await(100, TimeUnit.MILLISECONDS)).isFalse();
+
+            limiter.acquire("nbb", factory).close();
+            release.countDown();
+            assertThat(second.await(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2026 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import ec.tss.tsproviders.cursor.TsCursor;
+import ec.tstoolkit.timeseries.TsAggregationType;
+import org.junit.jupiter.api.Test;
+import sdmxdl.DatabaseRef;
+import sdmxdl.FlowRef;
+import sdmxdl.Key;
+import sdmxdl.Languages;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxSingleFlightTest {
+
+    private final SdmxQueryKey key = new SdmxQueryKey("ECB", DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), Key.ALL, SdmxQueryKind.ALL_SERIES_WITH_DATA, TsAggregationType.None, null, Languages.ANY);
+
+    @Test
+    public void testConcurrentCallsShareOneLoad() throws Exception {
+        SdmxSingleFlight flight = SdmxSingleFlight.create();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        FutureTask<String> leader = new FutureTask<>(() -> flight.execute(key, () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            awaitQuietly(release);
+            return "result";
+        }));
+        new Thread(leader).start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        FutureTask<String> follower = new FutureTask<>(() -> flight.execute(key, () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        Thread followerThread = new Thread(follower);
+        followerThread.start();
+        while (followerThread.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(loads).hasValue(1);
+        assertThat(flight.getInFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testSequentialCallsAreNotCached() throws IOException {
+        SdmxSingleFlight flight = SdmxSingleFlight.create();
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(flight.<Integer>execute(key, loads::incrementAndGet)).isEqualTo(1);
+        assertThat(flight.<Integer>execute(key, loads::incrementAndGet)).isEqualTo(2);
+        assertThat(flight.getInFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testFailure() {
+        SdmxSingleFlight flight = SdmxSingleFlight.create();
+
+        assertThatIOException()
+                .isThrownBy(() -> flight.execute(key, () -> {
+                    throw new IOException("boom");
+                }))
+                .withMessage("boom");
+        assertThat(flight.getInFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testLabelAttributeIsPartOfTheKey() throws Exception {
+        SdmxSingleFlight flight = SdmxSingleFlight.create();
+        SdmxQueryKey other = new SdmxQueryKey("ECB", DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), Key.ALL, SdmxQueryKind.ALL_SERIES_WITH_DATA, TsAggregationType.None, "TITLE", Languages.ANY);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        FutureTask<String> first = new FutureTask<>(() -> flight.execute(key, () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            awaitQuietly(release);
+            return "no label";
+        }));
+        new Thread(first).start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        FutureTask<String> second = new FutureTask<>(() -> flight.execute(other, () -> {
+            loads.incrementAndGet();
+            return "title";
+        }));
+        new Thread(second).start();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("title");
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("no label");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testInterruptedLeaderIsNotSharedWithFollower() throws Exception {
+        SdmxSingleFlight flight = SdmxSingleFlight.create();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        FutureTask<String> leader = new FutureTask<>(() -> flight.execute(key, () -> {
+            loads.incrementAndGet();
+            started.countDown();
+            awaitQuietly(release);
+            throw new InterruptedIOException("cancelled");
+        }));
+        new Thread(leader).start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        FutureTask<String> follower = new FutureTask<>(() -> flight.execute(key, () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        Thread followerThread = new Thread(follower);
+        followerThread.start();
+        awaitWaiting(followerThread);
+        release.countDown();
+
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("other");
+        assertThat(loads).hasValue(2);
+        assertThat(flight.getInFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testStreamWithoutFollower() throws IOException {
+        SdmxSingleFlight flight = SdmxSingleFlight.create();
+
+        try (TsCursor<String> cursor = flight.stream(key, () -> TsCursor.from(Arrays.asList("A", "B").iterator()))) {
+            assertThat(flight.getInFlightCount()).isEqualTo(1);
+            assertThat(cursor.nextSeries()).isTrue();
+            assertThat(flight.getInFlightCount()).isEqualTo(0);
+            assertThat(cursor.getSeriesId()).isEqualTo("A");
+            assertThat(cursor.nextSeries()).isTrue();
+            assertThat(cursor.getSeriesId()).isEqualTo("B");
+            assertThat(cursor.nextSeries()).isFalse();
+        }
+
+        AtomicInteger loads = new AtomicInteger();
+        try (TsCursor<String> cursor = flight.stream(key, () -> {
+            loads.incrementAndGet();
+            return TsCursor.from(Arrays.asList("C").iterator());
+        })) {
+            assertThat(ids(cursor)).containsExactly("C");
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testStreamSharedWithFollower() throws Exception {
+        SdmxSingleFlight flight = SdmxSingleFlight.create();
+        AtomicInteger loads = new AtomicInteger();
+
+        TsCursor<String> leader = flight.stream(key, () -> {
+            loads.incrementAndGet();
+            return TsCursor.from(Arrays.asList("A", "B").iterator());
+        });
+
+        FutureTask<List<String>> follower = new FutureTask<>(() -> ids(flight.stream(key, () -> {
+            loads.incrementAndGet();
+            return TsCursor.from(Arrays.asList("C").iterator());
+        })));
+        Thread followerThread = new Thread(follower);
+        followerThread.start();
+        awaitWaiting(followerThread);
+
+        assertThat(ids(leader)).containsExactly("A", "B");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).containsExactly("A", "B");
+        assertThat(loads).hasValue(1);
+        assertThat(flight.getInFlightCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testStreamClosedEarlyIsNotSharedWithFollower() throws Exception {
+        SdmxSingleFlight flight = SdmxSingleFlight.create();
+        AtomicInteger loads = new AtomicInteger();
+
+        TsCursor<String> leader = flight.stream(key, () -> {
+            loads.incrementAndGet();
+            return TsCursor.from(Arrays.asList("A", "B").iterator());
+        });
+
+        FutureTask<List<String>> follower = new FutureTask<>(() -> ids(flight.stream(key, () -> {
+            loads.incrementAndGet();
+            return TsCursor.from(Arrays.asList("C").iterator());
+        })));
+        Thread followerThread = new Thread(follower);
+        followerThread.start();
+        awaitWaiting(followerThread);
+
+        assertThat(leader.nextSeries()).isTrue();
+        leader.close();
+
+        assertThat(follower.get(5, TimeUnit.SECONDS)).containsExactly("C");
+        assertThat(loads).hasValue(2);
+        assertThat(flight.getInFlightCount()).isEqualTo(0);
+    }
+
+    private static List<String> ids(TsCursor<String> cursor) throws IOException {
+        List<String> result = new ArrayList<>();
+        try (TsCursor<String> closeable = cursor) {
+            while (closeable.nextSeries()) {
+                result.add(closeable.getSeriesId());
+            }
+        }
+        return result;
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sdmxdl.DatabaseRef;
+import sdmxdl.FlowRef;
+import sdmxdl.Languages;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxStructureCacheTest {
+
+    @TempDir
+    Path folder;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+
+    private final SdmxStructureRegistry registry = SdmxStructureRegistry.create();
+
+    private static final FlowRef FLOW = FlowRef.parse("EXR");
+
+    private static final SdmxFlowInfo V1 = new SdmxFlowInfo("Exchange rates",
+            Arrays.asList(
+                    new SdmxFlowInfo.Component("FREQ", "Frequency", Collections.singletonMap("M", "Monthly")),
+                    new SdmxFlowInfo.Component("CURRENCY", null, Collections.emptyMap())),
+            Collections.singletonList(new SdmxFlowInfo.Component("TITLE", "Title", Collections.emptyMap())));
+
+    private static final SdmxFlowInfo V2 = new SdmxFlowInfo("Exchange rates v2", V1.getDimensions(), V1.getAttributes());
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        SdmxStructureCache cache = SdmxStructureCache.of(folder, Duration.ofMinutes(1), Runnable::run, registry, clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(getOrLoad(cache, loads, V1)).isEqualTo(V1);
+        assertThat(getOrLoad(cache, loads, V1)).isEqualTo(V1);
+        assertThat(loads).hasValue(1);
+
+        SdmxStructureCache reopened = SdmxStructureCache.of(folder, Duration.ofMinutes(1), Runnable::run, registry, clock::get);
+        assertThat(getOrLoad(reopened, loads, V2)).isEqualTo(V1);
+        assertThat(loads).hasValue(1);
+
+        reopened.clear();
+        assertThat(getOrLoad(reopened, loads, V2)).isEqualTo(V2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    public void testRevalidation() throws IOException {
+        SdmxStructureCache cache = SdmxStructureCache.of(null, Duration.ofMinutes(1), Runnable::run, registry, clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        getOrLoad(cache, loads, V1);
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+
+        assertThat(getOrLoad(cache, loads, V2)).isEqualTo(V1);
+        assertThat(loads).hasValue(2);
+        assertThat(getOrLoad(cache, loads, V2)).isEqualTo(V2);
+        assertThat(loads).hasValue(2);
+
+        clock.addAndGet(Duration.ofMinutes(2).toMillis());
+        assertThat(cache.getOrLoad("ECB", Languages.ANY, DatabaseRef.NO_DATABASE, FLOW, () -> {
+            throw new IOException("offline");
+        })).isEqualTo(V2);
+    }
+
+    @Test
+    public void testCorruptedEntry() throws IOException {
+        SdmxStructureCache cache = SdmxStructureCache.of(folder, Duration.ofMinutes(1), Runnable::run, registry, clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        String id = SdmxStructureRegistry.getId("ECB", Languages.ANY, DatabaseRef.NO_DATABASE, FLOW);
+        Files.write(folder.resolve(SdmxStructureCache.getFileName(id)), new byte[]{1, 2, 3});
+
+        assertThat(getOrLoad(cache, loads, V1)).isEqualTo(V1);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testInvalidLengths() throws IOException {
+        String id = SdmxStructureRegistry.getId("ECB", Languages.ANY, DatabaseRef.NO_DATABASE, FLOW);
+        Path file = folder.resolve(SdmxStructureCache.getFileName(id));
+        // magic, version, load time, id and name
+        int dimensionCount = Integer.BYTES * 2 + Long.BYTES
+                + Integer.BYTES + id.getBytes(StandardCharsets.UTF_8).length
+                + Integer.BYTES + V1.getName().getBytes(StandardCharsets.UTF_8).length;
+
+        for (int value : new int[]{Integer.MAX_VALUE, -2}) {
+            getOrLoad(SdmxStructureCache.of(folder, Duration.ofMinutes(1), Runnable::run, SdmxStructureRegistry.create(), clock::get), new AtomicInteger(), V1);
+
+            byte[] corrupted = Files.readAllBytes(file);
+            ByteBuffer.wrap(corrupted).putInt(dimensionCount, value);
+            Files.write(file, corrupted);
+
+            AtomicInteger loads = new AtomicInteger();
+            SdmxStructureCache reopened = SdmxStructureCache.of(folder, Duration.ofMinutes(1), Runnable::run, SdmxStructureRegistry.create(), clock::get);
+            assertThat(getOrLoad(reopened, loads, V1)).isEqualTo(V1);
+            assertThat(loads).hasValue(1);
+        }
+    }
+
+    @Test
+    public void testDisabled() throws IOException {
+        SdmxStructureCache cache = SdmxStructureCache.of(folder, Duration.ZERO, Runnable::run, registry, clock::get);
+        AtomicInteger loads = new AtomicInteger();
+
+        getOrLoad(cache, loads, V1);
+        getOrLoad(cache, loads, V1);
+        assertThat(loads).hasValue(2);
+    }
+
+    private static SdmxFlowInfo getOrLoad(SdmxStructureCache cache, AtomicInteger loads, SdmxFlowInfo value) throws IOException {
+        return cache.getOrLoad("ECB", Languages.ANY, DatabaseRef.NO_DATABASE, FLOW, () -> {
+            loads.incrementAndGet();
+            return value;
+        });
+    }
+}
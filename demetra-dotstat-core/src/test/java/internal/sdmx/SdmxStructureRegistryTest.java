@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 National Bank of Belgium
+ *
+ * Licensed under the EUPL, Version 1.1 or - as soon they will be approved
+ * by the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * http://ec.europa.eu/idabc/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package internal.sdmx;
+
+import org.junit.jupiter.api.Test;
+import sdmxdl.DatabaseRef;
+import sdmxdl.FlowRef;
+import sdmxdl.Languages;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * @author Philippe Charles
+ */
+public class SdmxStructureRegistryTest {
+
+    @Test
+    public void testSharing() throws IOException {
+        SdmxStructureRegistry registry = SdmxStructureRegistry.create();
+        AtomicInteger loads = new AtomicInteger();
+
+        SdmxFlowInfo ecb = registry.getOrLoad("ECB", Languages.ANY, DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), () -> load(loads));
+        assertThat(registry.getOrLoad("ECB", Languages.ANY, DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), () -> load(loads))).isSameAs(ecb);
+        assertThat(loads).hasValue(1);
+
+        SdmxFlowInfo mirror = registry.getOrLoad("ECB_MIRROR", Languages.ANY, DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), () -> load(loads));
+        assertThat(mirror).isSameAs(ecb);
+        assertThat(loads).hasValue(2);
+
+        String id = SdmxStructureRegistry.getId("ECB", Languages.ANY, DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"));
+        registry.invalidate(id);
+        assertThat(registry.get(id)).isNull();
+        assertThat(registry.put(id, load(loads))).isSameAs(ecb);
+    }
+
+    @Test
+    public void testFailure() {
+        SdmxStructureRegistry registry = SdmxStructureRegistry.create();
+
+        assertThatIOException().isThrownBy(() -> registry.getOrLoad("ECB", Languages.ANY, DatabaseRef.NO_DATABASE, FlowRef.parse("EXR"), () -> {
+            throw new IOException("offline");
+        })).withMessage("offline");
+        assertThat(registry.get(SdmxStructureRegistry.getId("ECB", Languages.ANY, DatabaseRef.NO_DATABASE, FlowRef.parse("EXR")))).isNull();
+    }
+
+    private static SdmxFlowInfo load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return new SdmxFlowInfo("Exchange rates",
+                Collections.singletonList(new SdmxFlowInfo.Component("FREQ", "Frequency", Collections.singletonMap("M", "Monthly"))),
+                Collections.emptyList());
+    }
+}
@@ -5,11 +5,12 @@ import com.google.common.base.Splitter;
 import ec.nbdemetra.ui.properties.FileLoaderFileFilter;
 import ec.nbdemetra.ui.properties.NodePropertySetBuilder;
 import ec.tss.tsproviders.IFileLoader;
+import ec.tstoolkit.timeseries.TsAggregationType;
 import ec.tstoolkit.utilities.GuavaCaches;
 import internal.sdmx.SdmxAutoCompletion;
+import internal.sdmx.SdmxFlowInfo;
 import org.openide.nodes.Sheet;
 import org.openide.util.NbBundle;
-import sdmxdl.Dimension;
 
 import java.time.Duration;
 import java.util.concurrent.ConcurrentMap;
@@ -53,7 +54,9 @@ class SdmxFileBeanSupport {
             "bean.dimensions.display=Dataflow dimensions",
             "bean.dimensions.description=An optional comma-separated list of dimensions that defines the order used to hierarchise time series.",
             "bean.labelAttribute.display=Series label attribute",
-            "bean.labelAttribute.description=An optional attribute that carries the label of time series."
+            "bean.labelAttribute.description=An optional attribute that carries the label of time series.",
+            "bean.aggregationType.display=Aggregation",
+            "bean.aggregationType.description=The aggregation of the observations that share a month, such as daily or weekly data. None rejects such series."
     })
 
     private static NodePropertySetBuilder withOptions(NodePropertySetBuilder b, SdmxFileBean bean, SdmxFileProvider provider, ConcurrentMap<Object, Object> autoCompletionCache) {
@@ -74,7 +77,7 @@ class SdmxFileBeanSupport {
                 .source(dimension.getSource())
                 .cellRenderer(dimension.getRenderer())
                 .separator(",")
-                .defaultValueSupplier(() -> dimension.getSource().getValues("").stream().map(sdmxdl.Dimension.class::cast).map(Dimension::getId).collect(Collectors.joining(",")))
+                .defaultValueSupplier(() -> dimension.getSource().getValues("").stream().map(SdmxFlowInfo.Component.class::cast).map(SdmxFlowInfo.Component::getId).collect(Collectors.joining(",")))
                 .display(Bundle.bean_dimensions_display())
                 .description(Bundle.bean_dimensions_description())
                 .add();
@@ -88,6 +91,11 @@ class SdmxFileBeanSupport {
                 .display(Bundle.bean_labelAttribute_display())
                 .description(Bundle.bean_labelAttribute_description())
                 .add();
+        b.withEnum(TsAggregationType.class)
+                .select(bean, "aggregationType")
+                .display(Bundle.bean_aggregationType_display())
+                .description(Bundle.bean_aggregationType_description())
+                .add();
         return b;
     }
 }
@@ -9,6 +9,7 @@ import ec.nbdemetra.ui.properties.PropertySheetDialogBuilder;
 import ec.tss.tsproviders.utils.IParam;
 import ec.tss.tsproviders.utils.Params;
 import ec.tstoolkit.utilities.GuavaCaches;
+import internal.sdmx.SdmxCubeItemsCache;
 import internal.sdmx.SdmxIcons;
 import lombok.NonNull;
 import nbbrd.io.text.Parser;
@@ -35,10 +36,17 @@ public class SdmxFileConfiguration {
     private static final boolean DEFAULT_NO_CACHE = false;
     private boolean noCache = DEFAULT_NO_CACHE;
 
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private static final String CACHE_BUDGET_PROPERTY = "cacheBudget";
+    private static final int DEFAULT_CACHE_BUDGET = (int) (SdmxCubeItemsCache.DEFAULT_BUDGET / MEGABYTE);
+    private int cacheBudget = DEFAULT_CACHE_BUDGET;
+
     public static SdmxFileConfiguration copyOf(SdmxFileConfiguration bean) {
         SdmxFileConfiguration result = new SdmxFileConfiguration();
         result.languages = bean.languages;
         result.noCache = bean.noCache;
+        result.cacheBudget = bean.cacheBudget;
         return result;
     }
 
@@ -51,6 +59,10 @@ public class SdmxFileConfiguration {
                 .build();
     }
 
+    public long toCacheBudget() {
+        return cacheBudget * MEGABYTE;
+    }
+
     public Languages toLanguages() {
         return Parser.of(Languages::parse)
                 .parseValue(languages)
@@ -96,6 +108,12 @@ public class SdmxFileConfiguration {
                 .display("No cache")
                 .description("Disable caching")
                 .add();
+        b.withInt()
+                .select(this, CACHE_BUDGET_PROPERTY)
+                .display("Memory budget (MB)")
+                .description("Approximate memory used to keep opened data sources. The least recently used ones are released first, except for the last few used.")
+                .min(0)
+                .add();
         result.put(b.build());
 
         return result;
@@ -125,12 +143,14 @@ public class SdmxFileConfiguration {
 
         private final IParam<Config, String> languages = Params.onString("", LANGUAGES_PROPERTY);
         private final IParam<Config, Boolean> noCache = Params.onBoolean(DEFAULT_NO_CACHE, NO_CACHE_PROPERTY);
+        private final IParam<Config, Integer> cacheBudget = Params.onInteger(DEFAULT_CACHE_BUDGET, CACHE_BUDGET_PROPERTY);
 
         @Override
         protected Config doForward(SdmxFileConfiguration a) {
             Config.Builder result = Config.builder(SdmxFileConfiguration.class.getName(), "INSTANCE", "20230717");
             languages.set(result, a.getLanguages());
             noCache.set(result, a.isNoCache());
+            cacheBudget.set(result, a.getCacheBudget());
             return result.build();
         }
 
@@ -139,6 +159,7 @@ public class SdmxFileConfiguration {
             SdmxFileConfiguration result = new SdmxFileConfiguration();
             result.setLanguages(languages.get(b));
             result.setNoCache(noCache.get(b));
+            result.setCacheBudget(cacheBudget.get(b));
             return result;
         }
     }
@@ -54,6 +54,7 @@ public final class SdmxFileProviderBuddy implements IDataSourceProviderBuddy, IC
         lookupProvider().ifPresent(provider -> {
             provider.setSdmxManager(configuration.toSdmxFileManager());
             provider.setLanguages(configuration.toLanguages());
+            provider.setCacheBudget(configuration.toCacheBudget());
         });
     }
 
@@ -4,12 +4,13 @@ import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
 import ec.nbdemetra.ui.properties.DhmsPropertyEditor;
 import ec.nbdemetra.ui.properties.NodePropertySetBuilder;
+import ec.tstoolkit.timeseries.TsAggregationType;
 import ec.tstoolkit.utilities.GuavaCaches;
 import internal.sdmx.SdmxAutoCompletion;
+import internal.sdmx.SdmxFlowInfo;
 import internal.sdmx.SdmxWebSourceService;
 import org.openide.nodes.Sheet;
 import org.openide.util.NbBundle;
-import sdmxdl.Dimension;
 
 import java.time.Duration;
 import java.util.List;
@@ -61,7 +62,9 @@ class SdmxWebBeanSupport {
             "bean.dimensions.display=Dataflow dimensions",
             "bean.dimensions.description=An optional comma-separated list of dimensions that defines the order used to hierarchise time series.",
             "bean.labelAttribute.display=Series label attribute",
-            "bean.labelAttribute.description=An optional attribute that carries the label of time series."
+            "bean.labelAttribute.description=An optional attribute that carries the label of time series.",
+            "bean.aggregationType.display=Aggregation",
+            "bean.aggregationType.description=The aggregation of the observations that share a month, such as daily or weekly data. None rejects such series."
     })
     private static NodePropertySetBuilder withOptions(NodePropertySetBuilder b, SdmxWebBean bean, SdmxWebProvider provider, ConcurrentMap<Object, Object> autoCompletionCache) {
         SdmxAutoCompletion dimension = SdmxAutoCompletion.onDimension(provider, bean, autoCompletionCache);
@@ -71,7 +74,7 @@ class SdmxWebBeanSupport {
                         Joiner.on(',')::join, Splitter.on(',').trimResults().omitEmptyStrings()::splitToList)
                 .source(dimension.getSource())
                 .separator(",")
-                .defaultValueSupplier(() -> dimension.getSource().getValues("").stream().map(sdmxdl.Dimension.class::cast).map(Dimension::getId).collect(Collectors.joining(",")))
+                .defaultValueSupplier(() -> dimension.getSource().getValues("").stream().map(SdmxFlowInfo.Component.class::cast).map(SdmxFlowInfo.Component::getId).collect(Collectors.joining(",")))
                 .cellRenderer(dimension.getRenderer())
                 .display(Bundle.bean_dimensions_display())
                 .description(Bundle.bean_dimensions_description())
@@ -86,6 +89,11 @@ class SdmxWebBeanSupport {
                 .display(Bundle.bean_labelAttribute_display())
                 .description(Bundle.bean_labelAttribute_description())
                 .add();
+        b.withEnum(TsAggregationType.class)
+                .select(bean, "aggregationType")
+                .display(Bundle.bean_aggregationType_display())
+                .description(Bundle.bean_aggregationType_description())
+                .add();
         return b;
     }
 
@@ -93,7 +101,13 @@ class SdmxWebBeanSupport {
             "bean.cacheDepth.display=Depth",
             "bean.cacheDepth.description=The data retrieval depth. It is always more performant to get one big chunk of data instead of several smaller parts. The downside of it is the increase of memory usage. Setting this value to zero disables the cache.",
             "bean.cacheTtl.display=Time to live",
-            "bean.cacheTtl.description=The lifetime of the data stored in the cache. Setting this value to zero disables the cache."})
+            "bean.cacheTtl.description=The lifetime of the data stored in the cache. Setting this value to zero disables the cache.",
+            "bean.cacheMode.display=Cache mode",
+            "bean.cacheMode.description=The behavior of the cache when its data expires. TTL reloads expired data on demand while REFRESH_AHEAD reloads it in the background and keeps serving the previous data in the meantime.",
+            "bean.prefetchParallelism.display=Prefetch",
+            "bean.prefetchParallelism.description=The number of concurrent requests used to load in the background the data of the children of an expanded node. Setting this value to zero disables the prefetch.",
+            "bean.keyIndex.display=Key index",
+            "bean.keyIndex.description=Downloads the keys of all the series of the dataflow once and browses them locally instead of querying each node."})
     private static NodePropertySetBuilder withCache(NodePropertySetBuilder b, SdmxWebBean bean) {
         b.withInt()
                 .select(bean, "cacheDepth")
@@ -108,6 +122,22 @@ class SdmxWebBeanSupport {
                 .display(Bundle.bean_cacheTtl_display())
                 .description(Bundle.bean_cacheTtl_description())
                 .add();
+        b.withEnum(SdmxCacheMode.class)
+                .select(bean, "cacheMode")
+                .display(Bundle.bean_cacheMode_display())
+                .description(Bundle.bean_cacheMode_description())
+                .add();
+        b.withInt()
+                .select(bean, "prefetchParallelism")
+                .display(Bundle.bean_prefetchParallelism_display())
+                .description(Bundle.bean_prefetchParallelism_description())
+                .min(0)
+                .add();
+        b.withBoolean()
+                .select(bean, "keyIndex")
+                .display(Bundle.bean_keyIndex_display())
+                .description(Bundle.bean_keyIndex_description())
+                .add();
         return b;
     }
 }
@@ -5,11 +5,17 @@ import com.google.common.base.Converter;
 import ec.nbdemetra.ui.BeanHandler;
 import ec.nbdemetra.ui.Config;
 import ec.nbdemetra.ui.Configurator;
+import ec.nbdemetra.ui.properties.DhmsPropertyEditor;
 import ec.nbdemetra.ui.properties.NodePropertySetBuilder;
 import ec.nbdemetra.ui.properties.PropertySheetDialogBuilder;
 import ec.tss.tsproviders.utils.IParam;
 import ec.tss.tsproviders.utils.Params;
+import internal.sdmx.SdmxConnectionPool;
+import internal.sdmx.SdmxCubeItemsCache;
+import internal.sdmx.SdmxDiskCache;
 import internal.sdmx.SdmxIcons;
+import internal.sdmx.SdmxRateLimiter;
+import internal.sdmx.SdmxStructureCache;
 import lombok.NonNull;
 import nbbrd.io.text.Parser;
 import org.openide.awt.NotificationDisplayer;
@@ -29,6 +35,7 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.Locale;
 import java.util.Properties;
 import java.util.function.Function;
@@ -76,6 +83,44 @@ public class SdmxWebConfiguration {
     private static final boolean DEFAULT_LOG_EVENTS = false;
     private boolean logEvents = DEFAULT_LOG_EVENTS;
 
+    private static final String CONNECTION_POOL_SIZE_PROPERTY = "connectionPoolSize";
+    private static final int DEFAULT_CONNECTION_POOL_SIZE = SdmxConnectionPool.DEFAULT_MAX_IDLE;
+    private int connectionPoolSize = DEFAULT_CONNECTION_POOL_SIZE;
+
+    private static final String CONNECTION_IDLE_TIMEOUT_PROPERTY = "connectionIdleTimeout";
+    private static final Duration DEFAULT_CONNECTION_IDLE_TIMEOUT = SdmxConnectionPool.DEFAULT_IDLE_TIMEOUT;
+    private Duration connectionIdleTimeout = DEFAULT_CONNECTION_IDLE_TIMEOUT;
+
+    private static final String REQUEST_INTERVAL_PROPERTY = "requestInterval";
+    private static final Duration DEFAULT_REQUEST_INTERVAL = SdmxRateLimiter.DEFAULT_REQUEST_INTERVAL;
+    private Duration requestInterval = DEFAULT_REQUEST_INTERVAL;
+
+    private static final String MAX_CONCURRENT_REQUESTS_PROPERTY = "maxConcurrentRequests";
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS = SdmxRateLimiter.DEFAULT_MAX_CONCURRENT_REQUESTS;
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private static final String DISK_CACHE_FOLDER_PROPERTY = "diskCacheFolder";
+    private static final File DEFAULT_DISK_CACHE_FOLDER = null;
+    private File diskCacheFolder = DEFAULT_DISK_CACHE_FOLDER;
+
+    private static final String DISK_CACHE_MAX_SIZE_PROPERTY = "diskCacheMaxSize";
+    private static final int DEFAULT_DISK_CACHE_MAX_SIZE = (int) (SdmxDiskCache.DEFAULT_MAX_SIZE / MEGABYTE);
+    private int diskCacheMaxSize = DEFAULT_DISK_CACHE_MAX_SIZE;
+
+    private static final String DISK_CACHE_TTL_PROPERTY = "diskCacheTtl";
+    private static final Duration DEFAULT_DISK_CACHE_TTL = SdmxDiskCache.DEFAULT_TTL;
+    private Duration diskCacheTtl = DEFAULT_DISK_CACHE_TTL;
+
+    private static final String STRUCTURE_CACHE_TTL_PROPERTY = "structureCacheTtl";
+    private static final Duration DEFAULT_STRUCTURE_CACHE_TTL = SdmxStructureCache.DEFAULT_TTL;
+    private Duration structureCacheTtl = DEFAULT_STRUCTURE_CACHE_TTL;
+
+    private static final String CACHE_BUDGET_PROPERTY = "cacheBudget";
+    private static final int DEFAULT_CACHE_BUDGET = (int) (SdmxCubeItemsCache.DEFAULT_BUDGET / MEGABYTE);
+    private int cacheBudget = DEFAULT_CACHE_BUDGET;
+
     public static SdmxWebConfiguration copyOf(SdmxWebConfiguration bean) {
         SdmxWebConfiguration result = new SdmxWebConfiguration();
         result.sources = bean.sources;
@@ -87,6 +132,15 @@ public class SdmxWebConfiguration {
         result.noSystemSSL = bean.noSystemSSL;
         result.displayCodes = bean.displayCodes;
         result.logEvents = bean.logEvents;
+        result.connectionPoolSize = bean.connectionPoolSize;
+        result.connectionIdleTimeout = bean.connectionIdleTimeout;
+        result.requestInterval = bean.requestInterval;
+        result.maxConcurrentRequests = bean.maxConcurrentRequests;
+        result.diskCacheFolder = bean.diskCacheFolder;
+        result.diskCacheMaxSize = bean.diskCacheMaxSize;
+        result.diskCacheTtl = bean.diskCacheTtl;
+        result.structureCacheTtl = bean.structureCacheTtl;
+        result.cacheBudget = bean.cacheBudget;
         return result;
     }
 
@@ -126,6 +180,14 @@ public class SdmxWebConfiguration {
         }
     }
 
+    public long toDiskCacheMaxSize() {
+        return diskCacheMaxSize * MEGABYTE;
+    }
+
+    public long toCacheBudget() {
+        return cacheBudget * MEGABYTE;
+    }
+
     public Languages toLanguages() {
         return Parser.of(Languages::parse)
                 .parseValue(languages)
@@ -201,6 +263,66 @@ public class SdmxWebConfiguration {
                 .add();
         result.put(b.build());
 
+        b.reset("Performance");
+        b.withInt()
+                .select(this, CONNECTION_POOL_SIZE_PROPERTY)
+                .display("Connection pool size")
+                .description("Maximum number of idle connections kept per source. Setting this value to zero disables the pool.")
+                .min(0)
+                .add();
+        b.with(long.class)
+                .select(this, CONNECTION_IDLE_TIMEOUT_PROPERTY, Duration.class, Duration::toMillis, Duration::ofMillis)
+                .editor(DhmsPropertyEditor.class)
+                .display("Connection idle timeout")
+                .description("Time after which an idle connection is closed")
+                .add();
+        b.with(long.class)
+                .select(this, REQUEST_INTERVAL_PROPERTY, Duration.class, Duration::toMillis, Duration::ofMillis)
+                .editor(DhmsPropertyEditor.class)
+                .display("Request interval")
+                .description("Minimum average interval between two requests on a source. Setting this value to zero disables the rate limit.")
+                .add();
+        b.withInt()
+                .select(this, MAX_CONCURRENT_REQUESTS_PROPERTY)
+                .display("Max concurrent requests")
+                .description("Maximum number of concurrent requests on a source. Setting this value to zero disables the limit.")
+                .min(0)
+                .add();
+        b.withInt()
+                .select(this, CACHE_BUDGET_PROPERTY)
+                .display("Memory budget (MB)")
+                .description("Approximate memory used to keep opened data sources and their series. The least recently used ones are released first, except for the last few used.")
+                .min(0)
+                .add();
+        result.put(b.build());
+
+        b.reset("Disk cache");
+        b.withFile()
+                .select(this, DISK_CACHE_FOLDER_PROPERTY)
+                .display("Folder")
+                .description("Folder where the series and the structures of flows are kept between sessions. Leaving this value empty disables the disk cache.")
+                .directories(true)
+                .add();
+        b.withInt()
+                .select(this, DISK_CACHE_MAX_SIZE_PROPERTY)
+                .display("Maximum size (MB)")
+                .description("Maximum size of the folder. The least recently used series are evicted first. Setting this value to zero disables the disk cache.")
+                .min(0)
+                .add();
+        b.with(long.class)
+                .select(this, DISK_CACHE_TTL_PROPERTY, Duration.class, Duration::toMillis, Duration::ofMillis)
+                .editor(DhmsPropertyEditor.class)
+                .display("Time to live")
+                .description("Lifetime of the series kept in the folder")
+                .add();
+        b.with(long.class)
+                .select(this, STRUCTURE_CACHE_TTL_PROPERTY, Duration.class, Duration::toMillis, Duration::ofMillis)
+                .editor(DhmsPropertyEditor.class)
+                .display("Structure time to live")
+                .description("Age after which the structure of a flow is downloaded again in the background. Setting this value to zero disables the cache of structures.")
+                .add();
+        result.put(b.build());
+
         return result;
     }
 
@@ -235,6 +357,15 @@ public class SdmxWebConfiguration {
         private final IParam<Config, Toggle> noSystemSSL = Params.onEnum(DEFAULT_NO_SYSTEM_SSL, NO_SYSTEM_SSL_PROPERTY);
         private final IParam<Config, Boolean> displayCodes = Params.onBoolean(DEFAULT_DISPLAY_CODES, DISPLAY_CODES_PROPERTY);
         private final IParam<Config, Boolean> logEvents = Params.onBoolean(DEFAULT_LOG_EVENTS, LOG_EVENTS_PROPERTY);
+        private final IParam<Config, Integer> connectionPoolSize = Params.onInteger(DEFAULT_CONNECTION_POOL_SIZE, CONNECTION_POOL_SIZE_PROPERTY);
+        private final IParam<Config, Long> connectionIdleTimeout = Params.onLong(DEFAULT_CONNECTION_IDLE_TIMEOUT.toMillis(), CONNECTION_IDLE_TIMEOUT_PROPERTY);
+        private final IParam<Config, Long> requestInterval = Params.onLong(DEFAULT_REQUEST_INTERVAL.toMillis(), REQUEST_INTERVAL_PROPERTY);
+        private final IParam<Config, Integer> maxConcurrentRequests = Params.onInteger(DEFAULT_MAX_CONCURRENT_REQUESTS, MAX_CONCURRENT_REQUESTS_PROPERTY);
+        private final IParam<Config, File> diskCacheFolder = Params.onFile(Paths.get("").toFile(), DISK_CACHE_FOLDER_PROPERTY);
+        private final IParam<Config, Integer> diskCacheMaxSize = Params.onInteger(DEFAULT_DISK_CACHE_MAX_SIZE, DISK_CACHE_MAX_SIZE_PROPERTY);
+        private final IParam<Config, Long> diskCacheTtl = Params.onLong(DEFAULT_DISK_CACHE_TTL.toMillis(), DISK_CACHE_TTL_PROPERTY);
+        private final IParam<Config, Long> structureCacheTtl = Params.onLong(DEFAULT_STRUCTURE_CACHE_TTL.toMillis(), STRUCTURE_CACHE_TTL_PROPERTY);
+        private final IParam<Config, Integer> cacheBudget = Params.onInteger(DEFAULT_CACHE_BUDGET, CACHE_BUDGET_PROPERTY);
 
         @Override
         protected Config doForward(SdmxWebConfiguration a) {
@@ -248,6 +379,15 @@ public class SdmxWebConfiguration {
             noSystemSSL.set(result, a.getNoSystemSSL());
             displayCodes.set(result, a.isDisplayCodes());
             logEvents.set(result, a.isLogEvents());
+            connectionPoolSize.set(result, a.getConnectionPoolSize());
+            connectionIdleTimeout.set(result, a.getConnectionIdleTimeout().toMillis());
+            requestInterval.set(result, a.getRequestInterval().toMillis());
+            maxConcurrentRequests.set(result, a.getMaxConcurrentRequests());
+            diskCacheFolder.set(result, a.getDiskCacheFolder());
+            diskCacheMaxSize.set(result, a.getDiskCacheMaxSize());
+            diskCacheTtl.set(result, a.getDiskCacheTtl().toMillis());
+            structureCacheTtl.set(result, a.getStructureCacheTtl().toMillis());
+            cacheBudget.set(result, a.getCacheBudget());
             return result.build();
         }
 
@@ -263,6 +403,15 @@ public class SdmxWebConfiguration {
             result.setNoSystemSSL(noSystemSSL.get(b));
             result.setDisplayCodes(displayCodes.get(b));
             result.setLogEvents(logEvents.get(b));
+            result.setConnectionPoolSize(connectionPoolSize.get(b));
+            result.setConnectionIdleTimeout(Duration.ofMillis(connectionIdleTimeout.get(b)));
+            result.setRequestInterval(Duration.ofMillis(requestInterval.get(b)));
+            result.setMaxConcurrentRequests(maxConcurrentRequests.get(b));
+            result.setDiskCacheFolder(diskCacheFolder.get(b));
+            result.setDiskCacheMaxSize(diskCacheMaxSize.get(b));
+            result.setDiskCacheTtl(Duration.ofMillis(diskCacheTtl.get(b)));
+            result.setStructureCacheTtl(Duration.ofMillis(structureCacheTtl.get(b)));
+            result.setCacheBudget(cacheBudget.get(b));
             return result;
         }
     }
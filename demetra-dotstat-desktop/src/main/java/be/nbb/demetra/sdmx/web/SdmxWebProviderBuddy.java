@@ -64,6 +64,15 @@ public final class SdmxWebProviderBuddy implements IDataSourceProviderBuddy, ICo
             provider.setSdmxManager(configuration.toSdmxWebManager());
             provider.setLanguages(configuration.toLanguages());
             provider.setDisplayCodes(configuration.isDisplayCodes());
+            provider.setConnectionPoolSize(configuration.getConnectionPoolSize());
+            provider.setConnectionIdleTimeout(configuration.getConnectionIdleTimeout());
+            provider.setRequestInterval(configuration.getRequestInterval());
+            provider.setMaxConcurrentRequests(configuration.getMaxConcurrentRequests());
+            provider.setDiskCacheFolder(configuration.getDiskCacheFolder());
+            provider.setDiskCacheMaxSize(configuration.toDiskCacheMaxSize());
+            provider.setDiskCacheTtl(configuration.getDiskCacheTtl());
+            provider.setStructureCacheTtl(configuration.getStructureCacheTtl());
+            provider.setCacheBudget(configuration.toCacheBudget());
         });
     }
 
@@ -171,7 +180,7 @@ public final class SdmxWebProviderBuddy implements IDataSourceProviderBuddy, ICo
     }
 
     private static boolean supportsDataQueryDetail(SdmxWebProvider provider, WebSource source) {
-        try (Connection conn = provider.getSdmxManager().getConnection(source, provider.getLanguages())) {
+        try (Connection conn = provider.getConnection(source.getId())) {
             return conn.getSupportedFeatures().contains(Feature.DATA_QUERY_DETAIL);
         } catch (IOException ex) {
             return false;
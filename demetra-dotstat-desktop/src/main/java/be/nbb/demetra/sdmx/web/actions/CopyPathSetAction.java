@@ -95,19 +95,13 @@ public final class CopyPathSetAction extends AbilityNodeAction3<DataSet> impleme
 
     private static Key getKey(SdmxWebProvider provider, String source, DatabaseRef databaseRef, FlowRef flowRef, DataSet dataSet) {
         try {
-            Structure structure = provider
-                    .getSdmxManager()
-                    .usingName(source)
-                    .getMeta(FlowRequest
-                            .builder()
-                            .languages(provider.getLanguages())
-                            .database(databaseRef)
-                            .flow(flowRef)
-                            .build())
-                    .getStructure();
-            Key.Builder result = Key.builder(structure);
-            structure.getDimensions().forEach(dimension -> result.put(dimension.getId(), dataSet.get(dimension.getId())));
-            return result.build();
+            List<SdmxFlowInfo.Component> dimensions = provider.getFlowInfo(source, databaseRef, flowRef).getDimensions();
+            String[] result = new String[dimensions.size()];
+            for (int i = 0; i < result.length; i++) {
+                String value = dataSet.get(dimensions.get(i).getId());
+                result[i] = value != null ? value : "";
+            }
+            return Key.of(result);
         } catch (IOException e) {
             throw new IllegalArgumentException(e);
         }
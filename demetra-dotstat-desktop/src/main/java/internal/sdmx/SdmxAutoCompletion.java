@@ -29,9 +29,11 @@ import sdmxdl.*;
 import sdmxdl.file.FileSource;
 import sdmxdl.web.SdmxWebManager;
 import sdmxdl.web.WebSource;
+import standalone_sdmxdl.nbbrd.io.function.IOSupplier;
 
 import javax.swing.*;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -61,19 +63,19 @@ public abstract class SdmxAutoCompletion {
     }
 
     public static @NonNull SdmxAutoCompletion onDimension(@NonNull SdmxWebProvider provider, @NonNull SdmxWebBean bean, @NonNull ConcurrentMap<Object, Object> cache) {
-        return new DimensionCompletion<>(provider, () -> getWebSourceOrNull(bean, provider), () -> SdmxBeans.getDatabase(bean), () -> getFlowRefOrNull(bean), cache);
+        return new DimensionCompletion(provider, () -> getWebSourceOrNull(bean, provider), () -> getFlowRefOrNull(bean), () -> getWebFlowInfo(bean, provider), cache);
     }
 
     public static @NonNull SdmxAutoCompletion onDimension(@NonNull SdmxFileProvider provider, @NonNull SdmxFileBean bean, @NonNull ConcurrentMap<Object, Object> cache) {
-        return new DimensionCompletion<>(provider, () -> getFileSource(bean, provider).orElse(null), () -> SdmxBeans.getDatabase(bean), () -> getFileSource(bean, provider).map(FileSource::asDataflowRef).orElse(null), cache);
+        return new DimensionCompletion(provider, () -> getFileSource(bean, provider).orElse(null), () -> getFileSource(bean, provider).map(FileSource::asDataflowRef).orElse(null), () -> getFileFlowInfo(bean, provider), cache);
     }
 
     public static @NonNull SdmxAutoCompletion onAttribute(@NonNull SdmxWebProvider provider, @NonNull SdmxWebBean bean, @NonNull ConcurrentMap<Object, Object> cache) {
-        return new AttributeCompletion<>(provider, () -> getWebSourceOrNull(bean, provider), () -> SdmxBeans.getDatabase(bean), () -> getFlowRefOrNull(bean), cache);
+        return new AttributeCompletion(provider, () -> getWebSourceOrNull(bean, provider), () -> getFlowRefOrNull(bean), () -> getWebFlowInfo(bean, provider), cache);
     }
 
     public static @NonNull SdmxAutoCompletion onAttribute(@NonNull SdmxFileProvider provider, @NonNull SdmxFileBean bean, @NonNull ConcurrentMap<Object, Object> cache) {
-        return new AttributeCompletion<>(provider, () -> getFileSource(bean, provider).orElse(null), () -> SdmxBeans.getDatabase(bean), () -> getFileSource(bean, provider).map(FileSource::asDataflowRef).orElse(null), cache);
+        return new AttributeCompletion(provider, () -> getFileSource(bean, provider).orElse(null), () -> getFileSource(bean, provider).map(FileSource::asDataflowRef).orElse(null), () -> getFileFlowInfo(bean, provider), cache);
     }
 
     @lombok.AllArgsConstructor
@@ -186,16 +188,16 @@ public abstract class SdmxAutoCompletion {
     }
 
     @lombok.AllArgsConstructor
-    private static final class DimensionCompletion<S extends Source> extends SdmxAutoCompletion {
+    private static final class DimensionCompletion extends SdmxAutoCompletion {
 
-        private final @NonNull HasSdmxProperties<? extends SdmxManager<S>> provider;
-
-        private final @NonNull Supplier<S> source;
+        private final @NonNull HasSdmxProperties<?> provider;
 
-        private final @NonNull Supplier<DatabaseRef> database;
+        private final @NonNull Supplier<? extends Source> source;
 
         private final @NonNull Supplier<FlowRef> flowRef;
 
+        private final @NonNull IOSupplier<SdmxFlowInfo> structure;
+
         private final @NonNull ConcurrentMap<Object, Object> cache;
 
         @Override
@@ -204,39 +206,29 @@ public abstract class SdmxAutoCompletion {
                     .builder(this::load)
                     .behavior(this::getBehavior)
                     .postProcessor(this::filterAndSort)
-                    .valueToString(Dimension::getId)
+                    .valueToString(SdmxFlowInfo.Component::getId)
                     .cache(cache, this::getCacheKey, SYNC)
                     .build();
         }
 
         @Override
         public @NonNull ListCellRenderer<?> getRenderer() {
-            return CustomListCellRenderer.of(Dimension::getId, Dimension::getName);
+            return CustomListCellRenderer.of(SdmxFlowInfo.Component::getId, SdmxFlowInfo.Component::getName);
         }
 
-        private List<Dimension> load(String term) throws Exception {
-            return provider
-                    .getSdmxManager()
-                    .using(source.get())
-                    .getMeta(FlowRequest
-                            .builder()
-                            .languages(provider.getLanguages())
-                            .database(database.get())
-                            .flow(flowRef.get())
-                            .build())
-                    .getStructure()
-                    .getDimensions();
+        private List<SdmxFlowInfo.Component> load(String term) throws Exception {
+            return structure.getWithIO().getDimensions();
         }
 
         private AutoCompletionSource.Behavior getBehavior(String term) {
             return source.get() != null && flowRef.get() != null ? ASYNC : NONE;
         }
 
-        private List<Dimension> filterAndSort(List<Dimension> values, String term) {
+        private List<SdmxFlowInfo.Component> filterAndSort(List<SdmxFlowInfo.Component> values, String term) {
             Predicate<String> filter = ExtAutoCompletionSource.basicFilter(term);
             return values.stream()
                     .filter(o -> filter.test(o.getId()) || filter.test(o.getName()))
-                    .sorted(comparing(Dimension::getId))
+                    .sorted(comparing(SdmxFlowInfo.Component::getId))
                     .collect(toList());
         }
 
@@ -246,16 +238,16 @@ public abstract class SdmxAutoCompletion {
     }
 
     @lombok.AllArgsConstructor
-    private static final class AttributeCompletion<S extends Source> extends SdmxAutoCompletion {
+    private static final class AttributeCompletion extends SdmxAutoCompletion {
 
-        private final @NonNull HasSdmxProperties<? extends SdmxManager<S>> provider;
-
-        private final @NonNull Supplier<S> source;
+        private final @NonNull HasSdmxProperties<?> provider;
 
-        private final @NonNull Supplier<DatabaseRef> database;
+        private final @NonNull Supplier<? extends Source> source;
 
         private final @NonNull Supplier<FlowRef> flowRef;
 
+        private final @NonNull IOSupplier<SdmxFlowInfo> structure;
+
         private final @NonNull ConcurrentMap<Object, Object> cache;
 
         @Override
@@ -264,41 +256,29 @@ public abstract class SdmxAutoCompletion {
                     .builder(this::load)
                     .behavior(this::getBehavior)
                     .postProcessor(this::filterAndSort)
-                    .valueToString(Attribute::getId)
+                    .valueToString(SdmxFlowInfo.Component::getId)
                     .cache(cache, this::getCacheKey, SYNC)
                     .build();
         }
 
         @Override
         public @NonNull ListCellRenderer<?> getRenderer() {
-            return CustomListCellRenderer.of(Attribute::getId, Attribute::getName);
+            return CustomListCellRenderer.of(SdmxFlowInfo.Component::getId, SdmxFlowInfo.Component::getName);
         }
 
-        private List<Attribute> load(String term) throws Exception {
-            return new ArrayList<>(
-                    provider
-                            .getSdmxManager()
-                            .using(source.get())
-                            .getMeta(FlowRequest
-                                    .builder()
-                                    .languages(provider.getLanguages())
-                                    .database(database.get())
-                                    .flow(flowRef.get())
-                                    .build())
-                            .getStructure()
-                            .getAttributes()
-            );
+        private List<SdmxFlowInfo.Component> load(String term) throws Exception {
+            return structure.getWithIO().getAttributes();
         }
 
         private AutoCompletionSource.Behavior getBehavior(String term) {
             return source.get() != null && flowRef.get() != null ? ASYNC : NONE;
         }
 
-        private List<Attribute> filterAndSort(List<Attribute> values, String term) {
+        private List<SdmxFlowInfo.Component> filterAndSort(List<SdmxFlowInfo.Component> values, String term) {
             Predicate<String> filter = ExtAutoCompletionSource.basicFilter(term);
             return values.stream()
                     .filter(o -> filter.test(o.getId()) || filter.test(o.getName()))
-                    .sorted(comparing(Attribute::getId))
+                    .sorted(comparing(SdmxFlowInfo.Component::getId))
                     .collect(toList());
         }
 
@@ -311,6 +291,14 @@ public abstract class SdmxAutoCompletion {
         return provider.getSdmxManager().getSources().get(bean.getSource());
     }
 
+    private static SdmxFlowInfo getWebFlowInfo(SdmxWebBean bean, SdmxWebProvider provider) throws IOException {
+        return provider.getFlowInfo(bean.getSource(), SdmxBeans.getDatabase(bean), FlowRef.parse(bean.getFlow()));
+    }
+
+    private static SdmxFlowInfo getFileFlowInfo(SdmxFileBean bean, SdmxFileProvider provider) throws IOException {
+        return provider.getFlowInfo(bean);
+    }
+
     private static FlowRef getFlowRefOrNull(SdmxWebBean bean) {
         try {
             return FlowRef.parse(bean.getFlow());